@@ -0,0 +1,304 @@
+package com.example.demo.alert;
+
+import com.example.demo.cache.TtlCache;
+import com.example.demo.entity.DriverAlertEvent;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Server-side pipeline for safety alerts (hijack, drowsiness).
+ *
+ * An alert is first deduplicated per vehicle and type within {@code alerts.dedupe-window-ms}, so
+ * a detector firing on every frame produces one notification. A repeat that carries detail the
+ * first one lacked (the browser's report with GPS after the server-side detection) is not dropped:
+ * it is merged into the alert while that is still waiting, or sent as a follow-up if it already
+ * went out. Accepted alerts are forced to the {@link AlertJournal} before the caller gets an
+ * answer; alerts accepted before the journal is open are written to it as soon as it is. A single
+ * delivery thread groups whatever is waiting into batches of up to {@code alerts.batch-size} and
+ * passes them to the {@link AlertSink}. Failed batches are retried with exponential backoff and
+ * jitter, up to {@code alerts.retry.max-attempts} times and {@code alerts.retry.max-age-ms} after
+ * the first attempt; batches that run out of retries, or that the sink rejects outright, are
+ * dead-lettered so the alerts behind them still go out. Alerts still undelivered at shutdown are
+ * replayed from the journal on the next start.
+ */
+@Slf4j
+@Service
+@Lazy(false)
+public class AlertDispatcher {
+
+    private final AlertSink sink;
+    private final AlertJournal journal;
+    // Latest version of the alert accepted per vehicle and type within the dedupe window
+    private final TtlCache<String, AlertRecord> recentAlerts;
+    private final int batchSize;
+    private final long lingerMs;
+    private final long backoffInitialMs;
+    private final long backoffMaxMs;
+    private final int maxAttempts;
+    private final long maxRetryAgeMs;
+
+    // Ids in delivery order; the current version of each waiting alert is in pending
+    private final LinkedBlockingQueue<String> queue = new LinkedBlockingQueue<>();
+    // Guarded by this: alerts not yet taken by the delivery thread, and those not yet journaled
+    private final Map<String, AlertRecord> pending = new HashMap<>();
+    private final Map<String, AlertRecord> unjournaled = new LinkedHashMap<>();
+
+    private final LongAdder accepted = new LongAdder();
+    private final LongAdder duplicates = new LongAdder();
+    private final LongAdder merged = new LongAdder();
+    private final LongAdder delivered = new LongAdder();
+    private final LongAdder failedAttempts = new LongAdder();
+    private final LongAdder deadLettered = new LongAdder();
+
+    private volatile boolean journalOpen;
+    private volatile boolean running;
+    private Thread deliveryThread;
+
+    public AlertDispatcher(AlertSink sink,
+                           @Value("${alerts.journal.path:data/alerts.journal}") String journalPath,
+                           @Value("${alerts.dedupe-window-ms:120000}") long dedupeWindowMs,
+                           @Value("${alerts.batch-size:20}") int batchSize,
+                           @Value("${alerts.batch-linger-ms:500}") long lingerMs,
+                           @Value("${alerts.retry.initial-backoff-ms:1000}") long backoffInitialMs,
+                           @Value("${alerts.retry.max-backoff-ms:60000}") long backoffMaxMs,
+                           @Value("${alerts.retry.max-attempts:10}") int maxAttempts,
+                           @Value("${alerts.retry.max-age-ms:900000}") long maxRetryAgeMs) {
+        this.sink = sink;
+        this.journal = new AlertJournal(Path.of(journalPath));
+        this.recentAlerts = new TtlCache<>(10_000, dedupeWindowMs, TimeUnit.MILLISECONDS);
+        this.batchSize = Math.max(1, batchSize);
+        this.lingerMs = lingerMs;
+        this.backoffInitialMs = backoffInitialMs;
+        this.backoffMaxMs = backoffMaxMs;
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.maxRetryAgeMs = maxRetryAgeMs;
+    }
+
+    /**
+     * Opens the journal, writes the alerts accepted before now into it, queues whatever a previous
+     * run left undelivered ahead of them and starts delivery.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void start() {
+        if (running) return;
+        try {
+            List<AlertRecord> leftOver = journal.open();
+            journalOpen = true;
+            for (AlertRecord alert : unjournaled.values()) {
+                journal.append(alert);
+            }
+            if (!leftOver.isEmpty()) {
+                log.info("Replaying {} undelivered alert(s) from the journal", leftOver.size());
+                List<String> acceptedEarly = new ArrayList<>();
+                queue.drainTo(acceptedEarly);
+                for (AlertRecord alert : leftOver) {
+                    pending.put(alert.id(), alert);
+                    queue.add(alert.id());
+                }
+                queue.addAll(acceptedEarly);
+            }
+        } catch (IOException e) {
+            // Alerts are still delivered, just not persisted across restarts
+            log.error("Alert journal could not be opened, alerts will not survive a restart: {}", e.getMessage());
+        }
+        unjournaled.clear();
+        running = true;
+        deliveryThread = new Thread(this::deliveryLoop, "alert-delivery");
+        deliveryThread.setDaemon(true);
+        deliveryThread.start();
+    }
+
+    /**
+     * Alerts detected server-side from streamed alertness samples.
+     */
+    @EventListener
+    public void onDriverAlert(DriverAlertEvent event) {
+        submit(event.vehicleId(), event.type().name(), event.detail(), event.detectedAtMillis());
+    }
+
+    /**
+     * Accepts an alert for delivery.
+     *
+     * @return the journaled alert, which is the earlier alert with this detail added if that is
+     *         still waiting for delivery, or null if an alert of this type was already accepted for
+     *         this vehicle within the dedupe window and this one adds no detail to it
+     */
+    public synchronized AlertRecord submit(String vehicleId, String type, String message, long createdAtMillis) {
+        String normalizedType = type.trim().toUpperCase();
+        String key = vehicleId + '|' + normalizedType;
+        String detail = message == null ? "" : message.trim();
+
+        AlertRecord earlier = recentAlerts.get(key);
+        if (earlier != null) {
+            if (earlier.message().contains(detail)) {
+                duplicates.increment();
+                return null;
+            }
+            AlertRecord waiting = pending.get(earlier.id());
+            if (waiting != null) {
+                AlertRecord upgraded = new AlertRecord(waiting.id(), vehicleId, normalizedType, waiting.createdAtMillis(),
+                        waiting.message().isEmpty() ? detail : waiting.message() + "\n\n" + detail);
+                persist(upgraded);
+                pending.put(upgraded.id(), upgraded);
+                recentAlerts.put(key, upgraded);
+                merged.increment();
+                return upgraded;
+            }
+            // The earlier alert is already with the sink; the new detail follows as an alert of its own
+        }
+
+        AlertRecord alert = new AlertRecord(UUID.randomUUID().toString(), vehicleId, normalizedType,
+                createdAtMillis, detail);
+        persist(alert);
+        pending.put(alert.id(), alert);
+        recentAlerts.put(key, alert);
+        accepted.increment();
+        queue.add(alert.id());
+        return alert;
+    }
+
+    /**
+     * Pipeline counters for the stats endpoint.
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("sink", sink.getClass().getSimpleName());
+        stats.put("accepted", accepted.sum());
+        stats.put("duplicatesSuppressed", duplicates.sum());
+        stats.put("merged", merged.sum());
+        stats.put("delivered", delivered.sum());
+        stats.put("failedAttempts", failedAttempts.sum());
+        stats.put("deadLettered", deadLettered.sum());
+        stats.put("queued", queue.size());
+        stats.put("journaledUndelivered", journalOpen ? journal.undeliveredCount() : 0);
+        return stats;
+    }
+
+    // Journals the alert, or keeps it for the journal until that is open. Caller holds this.
+    private void persist(AlertRecord alert) {
+        if (!journalOpen) {
+            unjournaled.put(alert.id(), alert);
+            return;
+        }
+        try {
+            journal.append(alert);
+        } catch (IOException e) {
+            log.error("Could not journal alert {}, delivering without persistence: {}", alert.id(), e.getMessage());
+        }
+    }
+
+    // The current version of a queued alert; from now on new detail goes out as a follow-up
+    private synchronized AlertRecord take(String id) {
+        return pending.remove(id);
+    }
+
+    private void deliveryLoop() {
+        List<AlertRecord> batch = new ArrayList<>(batchSize);
+        try {
+            while (running) {
+                String first = queue.poll(1, TimeUnit.SECONDS);
+                if (first == null) continue;
+                batch.add(take(first));
+
+                // Give alerts raised together a moment to join the same batch
+                long lingerUntil = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(lingerMs);
+                while (batch.size() < batchSize) {
+                    long remaining = lingerUntil - System.nanoTime();
+                    String next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : queue.poll();
+                    if (next == null) break;
+                    batch.add(take(next));
+                }
+
+                deliverWithRetry(batch);
+                batch.clear();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void deliverWithRetry(List<AlertRecord> batch) throws InterruptedException {
+        long backoff = backoffInitialMs;
+        long giveUpAt = System.currentTimeMillis() + maxRetryAgeMs;
+        for (int attempt = 1; ; attempt++) {
+            try {
+                sink.deliver(batch);
+                break;
+            } catch (AlertRejectedException e) {
+                failedAttempts.increment();
+                deadLetter(batch, "rejected by the sink: " + e.getMessage());
+                return;
+            } catch (Exception e) {
+                failedAttempts.increment();
+                if (attempt >= maxAttempts || System.currentTimeMillis() + backoff > giveUpAt) {
+                    deadLetter(batch, "gave up after " + attempt + " attempt(s): " + e.getMessage());
+                    return;
+                }
+                log.warn("Delivering {} alert(s) failed, retrying in ~{} ms: {}", batch.size(), backoff, e.getMessage());
+                // Jitter keeps several nodes from retrying against the receiver in lockstep
+                Thread.sleep(backoff / 2 + ThreadLocalRandom.current().nextLong(backoff / 2 + 1));
+                backoff = Math.min(backoff * 2, backoffMaxMs);
+            }
+        }
+
+        if (journalOpen) {
+            try {
+                journal.markDelivered(batch);
+            } catch (IOException e) {
+                log.warn("Could not record alert delivery, they may be sent again after a restart: {}", e.getMessage());
+            }
+        }
+        // Counted once recorded, so the stats never run ahead of the journal
+        delivered.add(batch.size());
+    }
+
+    private void deadLetter(List<AlertRecord> batch, String reason) {
+        log.error("Dead-lettering {} alert(s) {}: {}", batch.size(),
+                batch.stream().map(AlertRecord::id).toList(), reason);
+        if (journalOpen) {
+            try {
+                journal.markDeadLettered(batch, reason);
+            } catch (IOException e) {
+                log.warn("Could not record dead-lettered alerts, they will be retried after a restart: {}", e.getMessage());
+            }
+        }
+        deadLettered.add(batch.size());
+    }
+
+    @PreDestroy
+    public void stop() {
+        Thread thread;
+        synchronized (this) {
+            running = false;
+            thread = deliveryThread;
+        }
+        // Joined without holding the lock, which the delivery thread needs to take alerts
+        if (thread != null) {
+            thread.interrupt();
+            try {
+                thread.join(2000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        journal.close();
+    }
+}
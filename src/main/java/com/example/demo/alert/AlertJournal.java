@@ -0,0 +1,180 @@
+package com.example.demo.alert;
+
+import lombok.extern.slf4j.Slf4j;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Append-only, line-per-record journal of alerts and their delivery.
+ *
+ * An {@code alert} line is forced to disk before the alert is acknowledged, so an accepted alert
+ * survives a crash or power loss; a later line with the same id (an alert that gained detail)
+ * replaces it. A {@code delivered} line is written once the sink took it, a {@code dead} line when
+ * delivery was given up. Dead-lettered alerts are also appended, with the reason, to a
+ * {@code .dead} file next to the journal that is never compacted. On open, alerts without a
+ * {@code delivered} or {@code dead} line are returned for redelivery and the file is rewritten
+ * with only those, which also happens whenever enough finished records pile up. A torn last line
+ * from a crash mid-write is skipped.
+ */
+@Slf4j
+public class AlertJournal {
+
+    private static final int COMPACT_AFTER_FINISHED = 1000;
+
+    private final Path path;
+    private final Path deadLetterPath;
+    private final Map<String, AlertRecord> undelivered = new LinkedHashMap<>();
+    private FileChannel channel;
+    private int finishedSinceCompaction;
+
+    public AlertJournal(Path path) {
+        this.path = path;
+        this.deadLetterPath = path.resolveSibling(path.getFileName() + ".dead");
+    }
+
+    /**
+     * Opens the journal, creating it if needed, and returns the alerts that were never delivered,
+     * oldest first.
+     */
+    public synchronized List<AlertRecord> open() throws IOException {
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null) Files.createDirectories(parent);
+
+        if (Files.exists(path)) {
+            try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    replay(line);
+                }
+            }
+        }
+        rewrite();
+        return new ArrayList<>(undelivered.values());
+    }
+
+    /**
+     * Durably records a new alert, or a new version of one. Returns only after the record has
+     * reached the disk.
+     */
+    public synchronized void append(AlertRecord alert) throws IOException {
+        write(toJson(alert));
+        channel.force(false);
+        undelivered.put(alert.id(), alert);
+    }
+
+    /**
+     * Records that the given alerts reached the sink. Not forced: if this is lost the alerts are
+     * simply delivered once more after a restart.
+     */
+    public synchronized void markDelivered(Collection<AlertRecord> alerts) throws IOException {
+        markFinished(alerts, "delivered");
+    }
+
+    /**
+     * Records that delivery of the given alerts was given up, so they are not replayed, and keeps
+     * them with the reason in the dead-letter file for someone to follow up.
+     */
+    public synchronized void markDeadLettered(Collection<AlertRecord> alerts, String reason) throws IOException {
+        StringBuilder lines = new StringBuilder();
+        for (AlertRecord alert : alerts) {
+            lines.append(toJson(alert).put("reason", reason).put("deadAt", System.currentTimeMillis())).append('\n');
+        }
+        Files.writeString(deadLetterPath, lines, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        markFinished(alerts, "dead");
+    }
+
+    private void markFinished(Collection<AlertRecord> alerts, String op) throws IOException {
+        for (AlertRecord alert : alerts) {
+            write(new JSONObject().put("op", op).put("id", alert.id()));
+            undelivered.remove(alert.id());
+        }
+        finishedSinceCompaction += alerts.size();
+        if (finishedSinceCompaction >= COMPACT_AFTER_FINISHED) {
+            rewrite();
+        }
+    }
+
+    public synchronized int undeliveredCount() {
+        return undelivered.size();
+    }
+
+    public synchronized void close() {
+        if (channel == null) return;
+        try {
+            channel.close();
+        } catch (IOException e) {
+            log.debug("Closing alert journal failed: {}", e.getMessage());
+        }
+        channel = null;
+    }
+
+    private void replay(String line) {
+        if (line.isBlank()) return;
+        try {
+            JSONObject json = new JSONObject(line);
+            String id = json.getString("id");
+            String op = json.optString("op");
+            if ("delivered".equals(op) || "dead".equals(op)) {
+                undelivered.remove(id);
+            } else {
+                undelivered.put(id, new AlertRecord(id, json.getString("vehicleId"), json.getString("type"),
+                        json.getLong("at"), json.optString("message", "")));
+            }
+        } catch (JSONException e) {
+            log.warn("Skipping unreadable alert journal line: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Replaces the journal with one holding only the undelivered alerts, via a temp file and an
+     * atomic rename so a crash leaves either the old or the new journal.
+     */
+    private void rewrite() throws IOException {
+        close();
+        Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileChannel out = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            channel = out;
+            for (AlertRecord alert : undelivered.values()) {
+                write(toJson(alert));
+            }
+            out.force(true);
+        }
+        Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        channel = FileChannel.open(path, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        finishedSinceCompaction = 0;
+    }
+
+    private static JSONObject toJson(AlertRecord alert) {
+        return new JSONObject()
+                .put("op", "alert")
+                .put("id", alert.id())
+                .put("vehicleId", alert.vehicleId())
+                .put("type", alert.type())
+                .put("at", alert.createdAtMillis())
+                .put("message", alert.message());
+    }
+
+    private void write(JSONObject json) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap((json + "\n").getBytes(StandardCharsets.UTF_8));
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+}
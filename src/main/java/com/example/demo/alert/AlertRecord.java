@@ -0,0 +1,13 @@
+package com.example.demo.alert;
+
+/**
+ * One safety alert as stored in the journal and handed to an {@link AlertSink}.
+ *
+ * @param id              unique id, used to mark the alert delivered
+ * @param vehicleId       vehicle the alert is about
+ * @param type            alert type, e.g. HIJACK or DROWSINESS
+ * @param createdAtMillis wall-clock time the alert was raised
+ * @param message         human-readable details (location, detector output)
+ */
+public record AlertRecord(String id, String vehicleId, String type, long createdAtMillis, String message) {
+}
@@ -0,0 +1,17 @@
+package com.example.demo.alert;
+
+/**
+ * Thrown by an {@link AlertSink} when the receiver refused a batch for a reason that retrying
+ * won't fix, such as an invalid access key or a malformed request. The dispatcher dead-letters
+ * the batch instead of retrying it.
+ */
+public class AlertRejectedException extends RuntimeException {
+
+    public AlertRejectedException(String message) {
+        super(message);
+    }
+
+    public AlertRejectedException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.demo.alert;
+
+import java.util.List;
+
+/**
+ * Destination for safety alerts (email gateway, SMS, fleet backend...).
+ * Selected with {@code alerts.sink}; see {@link AlertSinkConfig}.
+ */
+public interface AlertSink {
+
+    /**
+     * Delivers a batch of alerts. Throwing means none of them counts as delivered and the whole
+     * batch is retried later, so implementations should be idempotent per alert id where possible.
+     * Throw {@link AlertRejectedException} when retrying cannot succeed; the batch is then
+     * dead-lettered.
+     */
+    void deliver(List<AlertRecord> alerts) throws Exception;
+}
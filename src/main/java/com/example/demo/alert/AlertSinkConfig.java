@@ -0,0 +1,41 @@
+package com.example.demo.alert;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Slf4j
+@Configuration
+public class AlertSinkConfig {
+
+    /**
+     * alerts.sink=web3forms emails alerts and requires alerts.web3forms.access-key and
+     * alerts.web3forms.email; alerts.sink=stub only logs them. Left unset, alerts are emailed when
+     * both are configured and only logged otherwise.
+     */
+    @Bean
+    public AlertSink alertSink(@Value("${alerts.sink:}") String sink,
+                               @Value("${alerts.web3forms.access-key:}") String accessKey,
+                               @Value("${alerts.web3forms.email:}") String email,
+                               @Value("${assistant.http.connect-timeout-ms:3000}") long connectTimeoutMs,
+                               @Value("${assistant.http.read-timeout-ms:12000}") long readTimeoutMs) {
+        String choice = sink.trim();
+        boolean configured = !accessKey.isBlank() && !email.isBlank();
+        if ("stub".equalsIgnoreCase(choice)) {
+            return new StubAlertSink();
+        }
+        if ("web3forms".equalsIgnoreCase(choice)) {
+            if (!configured) {
+                throw new IllegalStateException(
+                        "alerts.sink=web3forms needs alerts.web3forms.access-key and alerts.web3forms.email");
+            }
+        } else if (!choice.isEmpty()) {
+            throw new IllegalStateException("Unknown alerts.sink '" + choice + "', expected web3forms or stub");
+        } else if (!configured) {
+            log.warn("alerts.web3forms.access-key/email not set: safety alerts are only logged, not emailed");
+            return new StubAlertSink();
+        }
+        return new Web3FormsAlertSink(accessKey.trim(), email.trim(), connectTimeoutMs, readTimeoutMs);
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.demo.alert;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Local sink that only logs and remembers what it was given. Stands in for the real receiver in
+ * tests and on development machines; {@link #failNext(int)} simulates an unavailable receiver and
+ * {@link #rejectNext(int)} one that refuses the alerts.
+ */
+@Slf4j
+public class StubAlertSink implements AlertSink {
+
+    private final List<AlertRecord> delivered = new ArrayList<>();
+    private final AtomicInteger failuresLeft = new AtomicInteger();
+    private final AtomicInteger rejectionsLeft = new AtomicInteger();
+
+    @Override
+    public synchronized void deliver(List<AlertRecord> alerts) throws Exception {
+        if (rejectionsLeft.getAndUpdate(n -> Math.max(0, n - 1)) > 0) {
+            throw new AlertRejectedException("Simulated alert rejection");
+        }
+        if (failuresLeft.getAndUpdate(n -> Math.max(0, n - 1)) > 0) {
+            throw new IllegalStateException("Simulated alert sink failure");
+        }
+        delivered.addAll(alerts);
+        for (AlertRecord alert : alerts) {
+            log.info("ALERT [{}] vehicle {}: {}", alert.type(), alert.vehicleId(), alert.message());
+        }
+    }
+
+    /**
+     * Makes the next {@code count} deliveries fail.
+     */
+    public void failNext(int count) {
+        failuresLeft.set(count);
+    }
+
+    /**
+     * Makes the next {@code count} deliveries fail permanently.
+     */
+    public void rejectNext(int count) {
+        rejectionsLeft.set(count);
+    }
+
+    public synchronized List<AlertRecord> getDelivered() {
+        return new ArrayList<>(delivered);
+    }
+}
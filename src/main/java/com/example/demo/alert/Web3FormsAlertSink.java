@@ -0,0 +1,71 @@
+package com.example.demo.alert;
+
+import com.example.demo.service.RestTemplates;
+import org.json.JSONObject;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Sends each batch as one email through Web3Forms, the service the browser used to call directly.
+ * A 4xx other than 408 or 429 (bad access key, malformed form) and a {@code success:false} reply
+ * are reported as {@link AlertRejectedException}; retrying them would not help.
+ */
+public class Web3FormsAlertSink implements AlertSink {
+
+    private static final String SUBMIT_URL = "https://api.web3forms.com/submit";
+
+    private final RestTemplate restTemplate;
+    private final String accessKey;
+    private final String email;
+
+    public Web3FormsAlertSink(String accessKey, String email, long connectTimeoutMs, long readTimeoutMs) {
+        this.restTemplate = RestTemplates.withTimeouts(connectTimeoutMs, readTimeoutMs);
+        this.accessKey = accessKey;
+        this.email = email;
+    }
+
+    @Override
+    public void deliver(List<AlertRecord> alerts) {
+        StringBuilder message = new StringBuilder();
+        for (AlertRecord alert : alerts) {
+            message.append(alert.type()).append(" alert for vehicle ").append(alert.vehicleId())
+                    .append(" at ").append(Instant.ofEpochMilli(alert.createdAtMillis())).append('\n')
+                    .append(alert.message()).append("\n\n");
+        }
+
+        MultiValueMap<String, String> form = new LinkedMultiValueMap<>();
+        form.add("access_key", accessKey);
+        form.add("subject", alerts.size() == 1
+                ? alerts.get(0).type().charAt(0) + alerts.get(0).type().substring(1).toLowerCase() + " Alert Detected!"
+                : alerts.size() + " Safety Alerts Detected!");
+        form.add("from_name", "EV Voice Assistant");
+        form.add("email", email);
+        form.add("message", message.toString().trim());
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_FORM_URLENCODED);
+        String response;
+        try {
+            response = restTemplate.postForObject(SUBMIT_URL, new HttpEntity<>(form, headers), String.class);
+        } catch (HttpClientErrorException e) {
+            int status = e.getStatusCode().value();
+            if (status == 408 || status == 429) throw e;
+            throw new AlertRejectedException("Web3Forms refused the alert with HTTP " + status, e);
+        }
+
+        if (response == null) {
+            throw new IllegalStateException("Web3Forms sent an empty reply");
+        }
+        if (!new JSONObject(response).optBoolean("success", false)) {
+            throw new AlertRejectedException("Web3Forms rejected the alert: " + response);
+        }
+    }
+}
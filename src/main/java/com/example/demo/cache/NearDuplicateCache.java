@@ -0,0 +1,288 @@
+package com.example.demo.cache;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bounded, expiring cache keyed by free text that also answers for paraphrases of a stored key.
+ *
+ * Text is reduced to a set of features: lower-cased words with stop words removed, a light
+ * suffix-stripping stemmer and a few synonyms folded together, plus every pair of neighbouring
+ * words in either order, so "how long to charge a Nexon" and "Nexon charging time" both become
+ * {time, charg, nexon, charg|time, charg|nexon}. The pairs keep "convert km to miles" apart from
+ * "convert miles to km". Numbers are not left to similarity at all: both texts must contain the
+ * same quantities (a number with the word after it) in the same order, so "100 km" never matches
+ * "100 miles" and "20 to 80 percent" never matches "10 to 80 percent".
+ *
+ * Each feature set gets a MinHash signature that is split into LSH bands; a lookup only compares
+ * against entries sharing at least one band, and accepts the best one with the same quantities
+ * whose exact Jaccard similarity reaches the threshold. Lookups are therefore independent of the
+ * number of entries.
+ *
+ * Entries expire {@code ttl} after they were written; the least recently used one is dropped
+ * when the cache is full.
+ */
+public class NearDuplicateCache<V> {
+
+    private static final int BANDS = 16;
+    private static final int ROWS = 4;
+    private static final int HASHES = BANDS * ROWS;
+    private static final long[] SEEDS = new long[HASHES];
+
+    static {
+        long seed = 0x5DEECE66DL;
+        for (int i = 0; i < HASHES; i++) {
+            seed = mix(seed + 0x9E3779B97F4A7C15L);
+            SEEDS[i] = seed;
+        }
+    }
+
+    private static final Set<String> STOP_WORDS = Set.of(
+            "a", "an", "the", "to", "into", "of", "for", "in", "on", "at", "is", "are", "was", "be", "do", "does", "did",
+            "how", "what", "which", "when", "where", "why", "who", "can", "could", "would", "should", "will",
+            "i", "me", "my", "you", "your", "it", "its", "this", "that", "please", "tell", "about", "with",
+            "and", "or", "from", "by", "get", "take", "takes", "much", "many", "need", "needed", "there");
+
+    private static final Map<String, String> SYNONYMS = Map.of(
+            "long", "time",
+            "duration", "time",
+            "cost", "price",
+            "costs", "price",
+            "expensive", "price",
+            "far", "distance");
+
+    private static final class Entry<V> {
+        final Set<String> features;
+        final List<String> quantities;
+        final long[] bandKeys;
+        final V value;
+        final long expiresAt;
+
+        Entry(Set<String> features, List<String> quantities, long[] bandKeys, V value, long expiresAt) {
+            this.features = features;
+            this.quantities = quantities;
+            this.bandKeys = bandKeys;
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    private final int maxSize;
+    private final long ttlNanos;
+    private final double threshold;
+
+    // Guarded by this: entries in LRU order, keyed by their sorted feature string and quantities
+    private final LinkedHashMap<String, Entry<V>> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<Long, List<Entry<V>>> bands = new HashMap<>();
+
+    /**
+     * @param threshold minimum Jaccard similarity of the feature sets, between 0 and 1
+     */
+    public NearDuplicateCache(int maxSize, long ttl, TimeUnit unit, double threshold) {
+        this.maxSize = maxSize;
+        this.ttlNanos = unit.toNanos(ttl);
+        this.threshold = threshold;
+    }
+
+    /**
+     * The value stored for the most similar text at or above the threshold, or null.
+     */
+    public V get(String text) {
+        List<String> words = words(text);
+        Set<String> features = features(words);
+        if (features.isEmpty()) return null;
+        List<String> quantities = quantities(words);
+        long[] bandKeys = bandKeys(features);
+        long now = System.nanoTime();
+
+        synchronized (this) {
+            Entry<V> exact = entries.get(key(features, quantities));
+            if (exact != null && now - exact.expiresAt < 0) return exact.value;
+
+            Entry<V> best = null;
+            double bestSimilarity = threshold;
+            for (long bandKey : bandKeys) {
+                List<Entry<V>> bucket = bands.get(bandKey);
+                if (bucket == null) continue;
+                for (Entry<V> candidate : bucket) {
+                    if (now - candidate.expiresAt >= 0 || !candidate.quantities.equals(quantities)) continue;
+                    double similarity = jaccard(features, candidate.features);
+                    if (similarity >= bestSimilarity) {
+                        best = candidate;
+                        bestSimilarity = similarity;
+                    }
+                }
+            }
+            if (best != null) entries.get(key(best.features, best.quantities)); // refresh LRU position
+            return best == null ? null : best.value;
+        }
+    }
+
+    public void put(String text, V value) {
+        List<String> words = words(text);
+        Set<String> features = features(words);
+        if (features.isEmpty() || value == null) return;
+        List<String> quantities = quantities(words);
+        Entry<V> entry = new Entry<>(features, quantities, bandKeys(features), value, System.nanoTime() + ttlNanos);
+
+        synchronized (this) {
+            Entry<V> previous = entries.put(key(features, quantities), entry);
+            if (previous != null) unindex(previous);
+            for (long bandKey : entry.bandKeys) {
+                bands.computeIfAbsent(bandKey, k -> new ArrayList<>(2)).add(entry);
+            }
+            evict(System.nanoTime());
+        }
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Normalized feature set of the text; exposed so callers can tell whether two questions
+     * would be treated as the same.
+     */
+    public static Set<String> features(String text) {
+        return features(words(text));
+    }
+
+    /**
+     * The numbers of the text in order, each with the word that follows it unless that is another
+     * number; texts only match when these are equal.
+     */
+    public static List<String> quantities(String text) {
+        return quantities(words(text));
+    }
+
+    // Normalized words in text order
+    private static List<String> words(String text) {
+        List<String> words = new ArrayList<>();
+        if (text == null) return words;
+        for (String word : text.toLowerCase(Locale.ROOT).replace("%", " percent ").split("[^\\p{L}\\p{N}]+")) {
+            if (word.isEmpty() || STOP_WORDS.contains(word)) continue;
+            // Leftovers of contractions ("what's"); single digits still count
+            if (word.length() == 1 && !isNumber(word)) continue;
+            String synonym = SYNONYMS.get(word);
+            words.add(synonym != null ? synonym : stem(word));
+        }
+        return words;
+    }
+
+    private static Set<String> features(List<String> words) {
+        Set<String> features = new LinkedHashSet<>(words);
+        for (int i = 1; i < words.size(); i++) {
+            String a = words.get(i - 1);
+            String b = words.get(i);
+            if (!a.equals(b)) features.add(a.compareTo(b) < 0 ? a + '|' + b : b + '|' + a);
+        }
+        return features;
+    }
+
+    private static List<String> quantities(List<String> words) {
+        List<String> quantities = new ArrayList<>();
+        for (int i = 0; i < words.size(); i++) {
+            if (!isNumber(words.get(i))) continue;
+            boolean unit = i + 1 < words.size() && !isNumber(words.get(i + 1));
+            quantities.add(unit ? words.get(i) + ' ' + words.get(i + 1) : words.get(i));
+        }
+        return quantities;
+    }
+
+    private static boolean isNumber(String word) {
+        return Character.isDigit(word.charAt(0));
+    }
+
+    // Drops expired entries, then least recently used ones beyond the size limit
+    private void evict(long now) {
+        Iterator<Entry<V>> it = entries.values().iterator();
+        while (it.hasNext()) {
+            Entry<V> eldest = it.next();
+            if (entries.size() <= maxSize && now - eldest.expiresAt < 0) break;
+            it.remove();
+            unindex(eldest);
+        }
+    }
+
+    private void unindex(Entry<V> entry) {
+        for (long bandKey : entry.bandKeys) {
+            List<Entry<V>> bucket = bands.get(bandKey);
+            if (bucket == null) continue;
+            bucket.remove(entry);
+            if (bucket.isEmpty()) bands.remove(bandKey);
+        }
+    }
+
+    private static long[] bandKeys(Set<String> features) {
+        long[] signature = new long[HASHES];
+        Arrays.fill(signature, Long.MAX_VALUE);
+        for (String feature : features) {
+            long base = fnv64(feature);
+            for (int i = 0; i < HASHES; i++) {
+                long h = mix(base ^ SEEDS[i]);
+                if (h < signature[i]) signature[i] = h;
+            }
+        }
+
+        long[] keys = new long[BANDS];
+        for (int b = 0; b < BANDS; b++) {
+            long h = b;
+            for (int r = 0; r < ROWS; r++) {
+                h = mix(h * 31 + signature[b * ROWS + r]);
+            }
+            keys[b] = h;
+        }
+        return keys;
+    }
+
+    private static double jaccard(Set<String> a, Set<String> b) {
+        int shared = 0;
+        for (String feature : a) {
+            if (b.contains(feature)) shared++;
+        }
+        return (double) shared / (a.size() + b.size() - shared);
+    }
+
+    private static String key(Set<String> features, List<String> quantities) {
+        return String.join(" ", new TreeSet<>(features)) + '#' + String.join(",", quantities);
+    }
+
+    // Light suffix stripping: "charging", "charger", "charges" and "charge" all become "charg"
+    private static String stem(String word) {
+        if (word.length() <= 4 || isNumber(word)) return word;
+        if (word.endsWith("ies")) return word.substring(0, word.length() - 3) + "y";
+        for (String suffix : new String[]{"ing", "ed", "er", "es", "ly", "s", "e"}) {
+            if (word.endsWith(suffix) && word.length() - suffix.length() >= 3) {
+                return word.substring(0, word.length() - suffix.length());
+            }
+        }
+        return word;
+    }
+
+    private static long fnv64(String s) {
+        long h = 0xcbf29ce484222325L;
+        for (byte b : s.getBytes(StandardCharsets.UTF_8)) {
+            h ^= b;
+            h *= 0x100000001b3L;
+        }
+        return h;
+    }
+
+    // SplitMix64 finalizer
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
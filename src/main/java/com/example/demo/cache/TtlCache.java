@@ -0,0 +1,214 @@
+package com.example.demo.cache;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * Small bounded, expiring in-memory cache.
+ *
+ * Entries live in a fixed number of LRU segments so threads working on different keys rarely
+ * contend on the same lock. Each segment holds at most {@code maxSize / segments} entries and
+ * drops its least recently used entry when full. Entries expire {@code ttl} after they were
+ * written, or after they were last read when {@code expireAfterAccess} is set.
+ *
+ * {@link #getOrLoad} runs at most one load per key at a time; concurrent callers for the same key
+ * wait for that load instead of repeating the upstream call.
+ */
+public class TtlCache<K, V> {
+
+    private static final int SEGMENTS = 16;
+
+    private static final class Node<V> {
+        final V value;
+        volatile long expiresAt;
+
+        Node(V value, long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    private static final class Segment<K, V> extends LinkedHashMap<K, Node<V>> {
+        private final int capacity;
+
+        Segment(int capacity) {
+            super(16, 0.75f, true);
+            this.capacity = capacity;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<K, Node<V>> eldest) {
+            return size() > capacity;
+        }
+    }
+
+    private final Segment<K, V>[] segments;
+    private final long ttlNanos;
+    private final boolean expireAfterAccess;
+
+    // Loads currently running in getOrLoad, so concurrent misses for one key share them
+    private final ConcurrentHashMap<K, CompletableFuture<V>> loading = new ConcurrentHashMap<>();
+
+    public TtlCache(int maxSize, long ttl, TimeUnit unit) {
+        this(maxSize, ttl, unit, false);
+    }
+
+    @SuppressWarnings("unchecked")
+    public TtlCache(int maxSize, long ttl, TimeUnit unit, boolean expireAfterAccess) {
+        int perSegment = Math.max(1, maxSize / SEGMENTS);
+        this.segments = new Segment[SEGMENTS];
+        for (int i = 0; i < SEGMENTS; i++) {
+            segments[i] = new Segment<>(perSegment);
+        }
+        this.ttlNanos = unit.toNanos(ttl);
+        this.expireAfterAccess = expireAfterAccess;
+    }
+
+    public V get(K key) {
+        Segment<K, V> segment = segmentFor(key);
+        long now = System.nanoTime();
+        synchronized (segment) {
+            Node<V> node = segment.get(key);
+            if (node == null) return null;
+            if (now - node.expiresAt >= 0) {
+                segment.remove(key);
+                return null;
+            }
+            if (expireAfterAccess) node.expiresAt = now + ttlNanos;
+            return node.value;
+        }
+    }
+
+    public void put(K key, V value) {
+        Segment<K, V> segment = segmentFor(key);
+        Node<V> node = new Node<>(value, System.nanoTime() + ttlNanos);
+        synchronized (segment) {
+            segment.put(key, node);
+        }
+    }
+
+    public void remove(K key) {
+        Segment<K, V> segment = segmentFor(key);
+        synchronized (segment) {
+            segment.remove(key);
+        }
+    }
+
+    /**
+     * Returns the cached value or loads it with {@code loader} and caches the result.
+     * The loader runs outside any lock, so it may call remote services. Null results are not cached.
+     *
+     * If another thread is already loading the key, this call waits for that load and returns
+     * its result. Should that load fail (it may have run under a shorter timeout), this caller
+     * runs its own loader.
+     */
+    public V getOrLoad(K key, Function<? super K, ? extends V> loader) {
+        V value = get(key);
+        if (value != null) return value;
+
+        CompletableFuture<V> mine = new CompletableFuture<>();
+        CompletableFuture<V> inFlight = loading.putIfAbsent(key, mine);
+        if (inFlight != null) {
+            try {
+                return inFlight.join();
+            } catch (CompletionException | CancellationException e) {
+                value = loader.apply(key);
+                if (value != null) put(key, value);
+                return value;
+            }
+        }
+
+        try {
+            // A load that finished between the miss above and registering ours
+            value = get(key);
+            if (value == null) {
+                value = loader.apply(key);
+                if (value != null) put(key, value);
+            }
+            mine.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            loading.remove(key, mine);
+        }
+    }
+
+    /**
+     * Returns the cached value or atomically creates one. The factory runs under the segment lock,
+     * so it must be cheap and must not touch this cache.
+     */
+    public V computeIfAbsent(K key, Function<? super K, ? extends V> factory) {
+        Segment<K, V> segment = segmentFor(key);
+        long now = System.nanoTime();
+        synchronized (segment) {
+            Node<V> node = segment.get(key);
+            if (node != null && now - node.expiresAt < 0) {
+                if (expireAfterAccess) node.expiresAt = now + ttlNanos;
+                return node.value;
+            }
+            V value = factory.apply(key);
+            segment.put(key, new Node<>(value, now + ttlNanos));
+            return value;
+        }
+    }
+
+    /**
+     * Visits every live entry. Each segment is locked only while it is being visited.
+     */
+    public void forEach(BiConsumer<? super K, ? super V> action) {
+        long now = System.nanoTime();
+        for (Segment<K, V> segment : segments) {
+            synchronized (segment) {
+                for (Map.Entry<K, Node<V>> e : segment.entrySet()) {
+                    if (now - e.getValue().expiresAt < 0) action.accept(e.getKey(), e.getValue().value);
+                }
+            }
+        }
+    }
+
+    /**
+     * Drops expired entries. Expired entries are otherwise only removed when they are looked up
+     * or pushed out by newer ones.
+     */
+    public void evictExpired() {
+        long now = System.nanoTime();
+        for (Segment<K, V> segment : segments) {
+            synchronized (segment) {
+                segment.values().removeIf(node -> now - node.expiresAt >= 0);
+            }
+        }
+    }
+
+    public int size() {
+        int size = 0;
+        for (Segment<K, V> segment : segments) {
+            synchronized (segment) {
+                size += segment.size();
+            }
+        }
+        return size;
+    }
+
+    public void clear() {
+        for (Segment<K, V> segment : segments) {
+            synchronized (segment) {
+                segment.clear();
+            }
+        }
+    }
+
+    private Segment<K, V> segmentFor(K key) {
+        int h = key.hashCode();
+        h ^= (h >>> 16);
+        return segments[h & (SEGMENTS - 1)];
+    }
+}
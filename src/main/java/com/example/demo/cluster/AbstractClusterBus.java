@@ -0,0 +1,69 @@
+package com.example.demo.cluster;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Listener registry and counters shared by the transports. Transports count what they publish in
+ * {@link #sent} and {@link #dropped}, and call {@link #deliver} for every message they receive.
+ */
+@Slf4j
+abstract class AbstractClusterBus implements ClusterCacheBus {
+
+    private final String nodeId;
+    private final Map<String, List<Consumer<ClusterMessage>>> listeners = new ConcurrentHashMap<>();
+
+    protected final LongAdder sent = new LongAdder();
+    protected final LongAdder received = new LongAdder();
+    protected final LongAdder dropped = new LongAdder();
+
+    protected AbstractClusterBus(String nodeId) {
+        this.nodeId = nodeId;
+    }
+
+    @Override
+    public String nodeId() {
+        return nodeId;
+    }
+
+    @Override
+    public void subscribe(String cache, Consumer<ClusterMessage> listener) {
+        listeners.computeIfAbsent(cache, k -> new CopyOnWriteArrayList<>()).add(listener);
+    }
+
+    /**
+     * Hands a message from another node to the listeners of its cache. A failing listener is
+     * logged and does not stop the others.
+     */
+    protected void deliver(ClusterMessage message) {
+        if (message == null || nodeId.equals(message.origin())) return;
+        received.increment();
+        List<Consumer<ClusterMessage>> forCache = listeners.get(message.cache());
+        if (forCache == null) return;
+        for (Consumer<ClusterMessage> listener : forCache) {
+            try {
+                listener.accept(message);
+            } catch (Exception e) {
+                log.warn("Cluster listener for {} failed: {}", message.cache(), e.getMessage());
+            }
+        }
+    }
+
+    @Override
+    public Map<String, Object> snapshot() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("node", nodeId);
+        stats.put("transport", getClass().getSimpleName());
+        stats.put("sent", sent.sum());
+        stats.put("received", received.sum());
+        stats.put("dropped", dropped.sum());
+        return stats;
+    }
+}
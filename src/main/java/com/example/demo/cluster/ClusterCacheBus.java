@@ -0,0 +1,38 @@
+package com.example.demo.cluster;
+
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Transport that carries cache changes between the replicas of the service.
+ *
+ * Delivery is best effort: a message may be lost, so every cache built on the bus still expires
+ * its entries and reloads them. See {@link LoopbackClusterBus} for the in-JVM transport and
+ * {@link MulticastClusterBus} for UDP multicast on a LAN.
+ */
+public interface ClusterCacheBus extends AutoCloseable {
+
+    /**
+     * Id of this node, stamped on every message it publishes.
+     */
+    String nodeId();
+
+    /**
+     * Sends the change to every other node. Never blocks on the other nodes.
+     */
+    void publish(ClusterMessage message);
+
+    /**
+     * Registers a listener for changes made by other nodes to the named cache.
+     */
+    void subscribe(String cache, Consumer<ClusterMessage> listener);
+
+    /**
+     * Sent, received and dropped message counts.
+     */
+    Map<String, Object> snapshot();
+
+    @Override
+    default void close() {
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.demo.cluster;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.IOException;
+import java.util.UUID;
+
+@Configuration
+public class ClusterConfig {
+
+    /**
+     * cluster.transport=loopback (default) keeps caches on this node only;
+     * cluster.transport=multicast shares them with the other replicas on the subnet and needs
+     * cluster.secret.
+     */
+    @Bean
+    public ClusterCacheBus clusterCacheBus(@Value("${cluster.transport:loopback}") String transport,
+                                           @Value("${cluster.node-id:}") String nodeId,
+                                           @Value("${cluster.multicast.group:239.255.42.99}") String group,
+                                           @Value("${cluster.multicast.port:45700}") int port,
+                                           @Value("${cluster.multicast.ttl:1}") int ttl,
+                                           @Value("${cluster.multicast.interface:}") String networkInterface,
+                                           @Value("${cluster.multicast.replay-window-ms:30000}") long replayWindowMs,
+                                           @Value("${cluster.secret:}") String secret) throws IOException {
+        String id = nodeId.isBlank() ? UUID.randomUUID().toString() : nodeId.trim();
+        if ("multicast".equalsIgnoreCase(transport.trim())) {
+            return new MulticastClusterBus(id, group, port, ttl, networkInterface, secret, replayWindowMs);
+        }
+        return new LoopbackClusterBus.Network().join(id);
+    }
+}
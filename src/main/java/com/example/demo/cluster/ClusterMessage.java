@@ -0,0 +1,24 @@
+package com.example.demo.cluster;
+
+/**
+ * One cache change announced to the other nodes.
+ *
+ * @param origin id of the node that made the change; nodes ignore their own messages
+ * @param cache  name of the cache the change belongs to
+ * @param key    cache key
+ * @param value  encoded new value for {@link Op#PUT}, null for {@link Op#INVALIDATE}
+ */
+public record ClusterMessage(String origin, String cache, Op op, String key, String value) {
+
+    public enum Op {
+        PUT,
+        INVALIDATE
+    }
+
+    /**
+     * The same change without its value, for when the value can't be sent.
+     */
+    public ClusterMessage asInvalidation() {
+        return new ClusterMessage(origin, cache, Op.INVALIDATE, key, null);
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.demo.cluster;
+
+import com.example.demo.cache.TtlCache;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * {@link TtlCache} whose entries are shared with the other replicas over a {@link ClusterCacheBus}.
+ *
+ * A value this node loads from upstream is published, and every other node stores it as if it had
+ * loaded it itself, so a place geocoded on one replica is a cache hit on all of them. Explicit
+ * invalidations travel the same way. Messages are best effort; entries still expire after
+ * {@code ttl} on every node. Values travel as strings through the given codec.
+ */
+@Slf4j
+public class ClusteredCache<V> {
+
+    private final String name;
+    private final TtlCache<String, V> local;
+    private final ClusterCacheBus bus;
+    private final Function<V, String> encoder;
+    private final Function<String, V> decoder;
+
+    public ClusteredCache(String name, int maxSize, long ttl, TimeUnit unit, ClusterCacheBus bus,
+                          Function<V, String> encoder, Function<String, V> decoder) {
+        this.name = name;
+        this.local = new TtlCache<>(maxSize, ttl, unit);
+        this.bus = bus;
+        this.encoder = encoder;
+        this.decoder = decoder;
+        bus.subscribe(name, this::apply);
+    }
+
+    public V get(String key) {
+        return local.get(key);
+    }
+
+    /**
+     * Returns the cached value or loads it, caches it and publishes it to the other nodes.
+     * The loader runs outside any lock, at most once per key at a time (see
+     * {@link TtlCache#getOrLoad}). Null results are neither cached nor published.
+     */
+    public V getOrLoad(String key, Function<String, ? extends V> loader) {
+        return local.getOrLoad(key, k -> {
+            V value = loader.apply(k);
+            if (value != null) publish(k, value);
+            return value;
+        });
+    }
+
+    /**
+     * Caches the value here and on every other node.
+     */
+    public void put(String key, V value) {
+        local.put(key, value);
+        publish(key, value);
+    }
+
+    /**
+     * Caches the value on this node only, for values every node can derive itself.
+     */
+    public void putLocal(String key, V value) {
+        local.put(key, value);
+    }
+
+    /**
+     * Drops the entry here and on every other node.
+     */
+    public void invalidate(String key) {
+        local.remove(key);
+        bus.publish(new ClusterMessage(bus.nodeId(), name, ClusterMessage.Op.INVALIDATE, key, null));
+    }
+
+    public int size() {
+        return local.size();
+    }
+
+    private void publish(String key, V value) {
+        bus.publish(new ClusterMessage(bus.nodeId(), name, ClusterMessage.Op.PUT, key, encoder.apply(value)));
+    }
+
+    private void apply(ClusterMessage message) {
+        if (message.op() == ClusterMessage.Op.INVALIDATE || message.value() == null) {
+            local.remove(message.key());
+            return;
+        }
+        try {
+            V value = decoder.apply(message.value());
+            if (value != null) local.put(message.key(), value);
+        } catch (RuntimeException e) {
+            // An entry we can't read must not survive in its old form either
+            local.remove(message.key());
+            log.debug("Undecodable {} entry for {}: {}", name, message.key(), e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.demo.cluster;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * In-JVM transport: every node joined to the same {@link Network} receives the others' messages
+ * synchronously, on the publishing thread.
+ *
+ * A single node on its own network is the default transport, which makes every clustered cache
+ * behave like a plain local one. Several nodes on one network stand in for a cluster in tests:
+ * <pre>
+ * LoopbackClusterBus.Network network = new LoopbackClusterBus.Network();
+ * ClusterCacheBus a = network.join("a");
+ * ClusterCacheBus b = network.join("b");
+ * </pre>
+ */
+public class LoopbackClusterBus extends AbstractClusterBus {
+
+    public static final class Network {
+        private final List<LoopbackClusterBus> nodes = new CopyOnWriteArrayList<>();
+
+        public LoopbackClusterBus join(String nodeId) {
+            LoopbackClusterBus node = new LoopbackClusterBus(nodeId, this);
+            nodes.add(node);
+            return node;
+        }
+    }
+
+    private final Network network;
+
+    private LoopbackClusterBus(String nodeId, Network network) {
+        super(nodeId);
+        this.network = network;
+    }
+
+    @Override
+    public void publish(ClusterMessage message) {
+        sent.increment();
+        for (LoopbackClusterBus node : network.nodes) {
+            if (node != this) node.deliver(message);
+        }
+    }
+
+    @Override
+    public void close() {
+        network.nodes.remove(this);
+    }
+}
@@ -0,0 +1,198 @@
+package com.example.demo.cluster;
+
+import lombok.extern.slf4j.Slf4j;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.MulticastSocket;
+import java.net.NetworkInterface;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * UDP multicast transport for replicas on one network segment.
+ *
+ * Every message is one datagram holding a small JSON object. Nodes join the group given by
+ * {@code cluster.multicast.group} and {@code port}; the datagram TTL (default 1) keeps traffic
+ * on the local subnet. A PUT too large for one datagram is sent as an invalidation, so other
+ * nodes reload that entry instead of keeping a stale one.
+ *
+ * {@code cluster.secret} is required: every datagram carries an HMAC-SHA256 of its body and
+ * datagrams without a valid one are dropped, so other hosts on the segment can't write into the
+ * caches. The signed body includes the send time and a random nonce; a datagram more than
+ * {@code cluster.multicast.replay-window-ms} away from the receiver's clock, or whose nonce was
+ * already seen, is dropped too, so a captured datagram can't be replayed later to bring back an
+ * old value.
+ */
+@Slf4j
+public class MulticastClusterBus extends AbstractClusterBus {
+
+    // Largest UDP payload that fits in one IPv4 datagram
+    private static final int MAX_DATAGRAM = 65_507;
+    private static final int MAC_LENGTH = 32;
+    private static final String HMAC = "HmacSHA256";
+
+    private final MulticastSocket socket;
+    private final InetSocketAddress group;
+    private final NetworkInterface networkInterface;
+    private final SecretKeySpec secret;
+    private final long replayWindowMs;
+    private final SecureRandom random = new SecureRandom();
+    private final LongAdder rejected = new LongAdder();
+    // Receiver thread only: nonce -> when it was received, oldest first
+    private final LinkedHashMap<String, Long> seenNonces = new LinkedHashMap<>();
+    private final Thread receiver;
+    private volatile boolean running = true;
+
+    /**
+     * @param interfaceName  network interface to join the group on, or blank for the system default
+     * @param secret         shared secret for message authentication
+     * @param replayWindowMs how far a datagram's send time may be from this node's clock
+     * @throws IllegalArgumentException if the secret is blank
+     */
+    public MulticastClusterBus(String nodeId, String groupAddress, int port, int ttl,
+                               String interfaceName, String secret, long replayWindowMs) throws IOException {
+        super(nodeId);
+        if (secret == null || secret.isBlank()) {
+            throw new IllegalArgumentException("cluster.secret must be set for the multicast transport");
+        }
+        this.group = new InetSocketAddress(InetAddress.getByName(groupAddress), port);
+        this.networkInterface = interfaceName == null || interfaceName.isBlank()
+                ? null : NetworkInterface.getByName(interfaceName.trim());
+        this.secret = new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), HMAC);
+        this.replayWindowMs = replayWindowMs;
+
+        this.socket = new MulticastSocket(port);
+        socket.setTimeToLive(ttl);
+        if (networkInterface != null) socket.setNetworkInterface(networkInterface);
+        socket.joinGroup(group, networkInterface);
+
+        this.receiver = new Thread(this::receiveLoop, "cluster-bus-" + nodeId);
+        receiver.setDaemon(true);
+        receiver.start();
+        log.info("Cluster bus {} joined {}:{}", nodeId, groupAddress, port);
+    }
+
+    @Override
+    public void publish(ClusterMessage message) {
+        try {
+            byte[] datagram = encode(message);
+            if (datagram.length > MAX_DATAGRAM && message.op() == ClusterMessage.Op.PUT) {
+                datagram = encode(message.asInvalidation());
+            }
+            if (datagram.length > MAX_DATAGRAM) {
+                dropped.increment();
+                return;
+            }
+            socket.send(new DatagramPacket(datagram, datagram.length, group));
+            sent.increment();
+        } catch (Exception e) {
+            dropped.increment();
+            log.debug("Could not publish cluster message for {}: {}", message.cache(), e.getMessage());
+        }
+    }
+
+    private void receiveLoop() {
+        byte[] buffer = new byte[MAX_DATAGRAM];
+        while (running) {
+            DatagramPacket packet = new DatagramPacket(buffer, buffer.length);
+            try {
+                socket.receive(packet);
+                ClusterMessage message = decode(Arrays.copyOfRange(packet.getData(), packet.getOffset(),
+                        packet.getOffset() + packet.getLength()));
+                if (message == null) rejected.increment();
+                else deliver(message);
+            } catch (IOException e) {
+                if (running) log.warn("Cluster bus receive failed: {}", e.getMessage());
+            }
+        }
+    }
+
+    private byte[] encode(ClusterMessage message) throws GeneralSecurityException {
+        JSONObject json = new JSONObject();
+        json.put("o", message.origin());
+        json.put("c", message.cache());
+        json.put("op", message.op().name());
+        json.put("k", message.key());
+        if (message.value() != null) json.put("v", message.value());
+        json.put("ts", System.currentTimeMillis());
+        byte[] nonce = new byte[12];
+        random.nextBytes(nonce);
+        json.put("n", Base64.getEncoder().encodeToString(nonce));
+        byte[] body = json.toString().getBytes(StandardCharsets.UTF_8);
+
+        byte[] datagram = Arrays.copyOf(mac(body, 0, body.length), MAC_LENGTH + body.length);
+        System.arraycopy(body, 0, datagram, MAC_LENGTH, body.length);
+        return datagram;
+    }
+
+    // Null for anything that isn't a well-formed, correctly signed, fresh message
+    private ClusterMessage decode(byte[] datagram) {
+        if (datagram.length <= MAC_LENGTH) return null;
+        try {
+            byte[] expected = mac(datagram, MAC_LENGTH, datagram.length - MAC_LENGTH);
+            if (!MessageDigest.isEqual(expected, Arrays.copyOf(datagram, MAC_LENGTH))) return null;
+        } catch (GeneralSecurityException e) {
+            return null;
+        }
+        try {
+            JSONObject json = new JSONObject(new String(datagram, MAC_LENGTH, datagram.length - MAC_LENGTH, StandardCharsets.UTF_8));
+            if (!fresh(json.getLong("ts"), json.getString("n"))) return null;
+            return new ClusterMessage(json.getString("o"), json.getString("c"),
+                    ClusterMessage.Op.valueOf(json.getString("op")), json.getString("k"), json.optString("v", null));
+        } catch (JSONException | IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    // A send time inside the window and a nonce not seen before. A nonce accepted now can only be
+    // replayed within two windows of its arrival, so that is how long it is remembered.
+    private boolean fresh(long sentAt, String nonce) {
+        long now = System.currentTimeMillis();
+        if (Math.abs(now - sentAt) > replayWindowMs) return false;
+        Iterator<Map.Entry<String, Long>> oldest = seenNonces.entrySet().iterator();
+        while (oldest.hasNext() && now - oldest.next().getValue() > 2 * replayWindowMs) {
+            oldest.remove();
+        }
+        return seenNonces.putIfAbsent(nonce, now) == null;
+    }
+
+    @Override
+    public Map<String, Object> snapshot() {
+        Map<String, Object> stats = super.snapshot();
+        stats.put("rejected", rejected.sum());
+        return stats;
+    }
+
+    private byte[] mac(byte[] data, int offset, int length) throws GeneralSecurityException {
+        Mac mac = Mac.getInstance(HMAC);
+        mac.init(secret);
+        mac.update(data, offset, length);
+        return mac.doFinal();
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        try {
+            socket.leaveGroup(group, networkInterface);
+        } catch (IOException e) {
+            log.debug("Leaving multicast group failed: {}", e.getMessage());
+        }
+        socket.close();
+    }
+}
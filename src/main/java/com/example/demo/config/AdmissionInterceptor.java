@@ -0,0 +1,45 @@
+package com.example.demo.config;
+
+import com.example.demo.service.AdmissionLimiter;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+/**
+ * Rejects requests over the client's or the global budget with 429 and Retry-After before they
+ * reach a controller. Clients are identified by X-Vehicle-Id, falling back to the remote address.
+ * A request is charged once: the async re-dispatch that writes a Mono handler's reply passes through.
+ */
+@Component
+public class AdmissionInterceptor implements HandlerInterceptor {
+
+    private final AdmissionLimiter admissionLimiter;
+
+    public AdmissionInterceptor(AdmissionLimiter admissionLimiter) {
+        this.admissionLimiter = admissionLimiter;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws Exception {
+        // Already admitted on the original dispatch; the reply is computed and only needs writing
+        if (request.getDispatcherType() == DispatcherType.ASYNC) return true;
+
+        String clientId = request.getHeader("X-Vehicle-Id");
+        if (clientId == null || clientId.isBlank()) clientId = request.getRemoteAddr();
+
+        long retryAfterMs = admissionLimiter.tryAdmit(clientId);
+        if (retryAfterMs == 0) return true;
+
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        // Retry-After is whole seconds; round up so a client that honours it is admitted
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString((retryAfterMs + 999) / 1000));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.getWriter().write("{\"error\":\"Too many requests, please slow down.\",\"retryAfterMs\":" + retryAfterMs + "}");
+        return false;
+    }
+}
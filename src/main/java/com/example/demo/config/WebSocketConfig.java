@@ -0,0 +1,23 @@
+package com.example.demo.config;
+
+import com.example.demo.controller.AlertnessWebSocketHandler;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.socket.config.annotation.EnableWebSocket;
+import org.springframework.web.socket.config.annotation.WebSocketConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketHandlerRegistry;
+
+@Configuration
+@EnableWebSocket
+public class WebSocketConfig implements WebSocketConfigurer {
+
+    private final AlertnessWebSocketHandler alertnessWebSocketHandler;
+
+    public WebSocketConfig(AlertnessWebSocketHandler alertnessWebSocketHandler) {
+        this.alertnessWebSocketHandler = alertnessWebSocketHandler;
+    }
+
+    @Override
+    public void registerWebSocketHandlers(WebSocketHandlerRegistry registry) {
+        registry.addHandler(alertnessWebSocketHandler, "/ws/alertness");
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.demo.controller;
+
+import com.example.demo.alert.AlertDispatcher;
+import com.example.demo.alert.AlertRecord;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/alerts")
+public class AlertController {
+
+    private final AlertDispatcher alertDispatcher;
+
+    public AlertController(AlertDispatcher alertDispatcher) {
+        this.alertDispatcher = alertDispatcher;
+    }
+
+    /**
+     * POST /api/alerts
+     * Body: {"type": "HIJACK", "message": "..."}; vehicle from X-Vehicle-Id or "vehicleId".
+     * Returns 202 once the alert is journaled, or 200 with duplicate=true if it was suppressed.
+     */
+    @PostMapping
+    public ResponseEntity<?> raiseAlert(@RequestBody Map<String, String> body,
+                                        @RequestHeader(value = "X-Vehicle-Id", required = false) String vehicleId) {
+        String type = body.get("type");
+        if (type == null || type.isBlank()) {
+            Map<String, String> error = new HashMap<>();
+            error.put("error", "Alert type is required.");
+            return ResponseEntity.status(400).body(error);
+        }
+        if (vehicleId == null || vehicleId.isBlank()) vehicleId = body.getOrDefault("vehicleId", "unknown");
+
+        AlertRecord alert = alertDispatcher.submit(vehicleId, type, body.get("message"), System.currentTimeMillis());
+        Map<String, Object> result = new HashMap<>();
+        if (alert == null) {
+            result.put("duplicate", true);
+            return ResponseEntity.ok(result);
+        }
+        result.put("duplicate", false);
+        result.put("id", alert.id());
+        return ResponseEntity.status(202).body(result);
+    }
+
+    /**
+     * GET /api/alerts/stats
+     * Returns dedupe, delivery and retry counters of the alert pipeline.
+     */
+    @GetMapping("/stats")
+    public Map<String, Object> getStats() {
+        return alertDispatcher.getStats();
+    }
+}
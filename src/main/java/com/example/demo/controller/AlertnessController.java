@@ -0,0 +1,46 @@
+package com.example.demo.controller;
+
+import com.example.demo.service.AlertnessService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/alertness")
+public class AlertnessController {
+
+    private final AlertnessService alertnessService;
+
+    public AlertnessController(AlertnessService alertnessService) {
+        this.alertnessService = alertnessService;
+    }
+
+    /**
+     * GET /api/alertness/stats
+     * Returns node-wide ingestion counters.
+     */
+    @GetMapping("/stats")
+    public Map<String, Object> getStats() {
+        return alertnessService.getStats();
+    }
+
+    /**
+     * GET /api/alertness/{vehicleId}
+     * Returns the current drowsiness / hijack state and window aggregates for one vehicle.
+     */
+    @GetMapping("/{vehicleId}")
+    public ResponseEntity<?> getVehicleStatus(@PathVariable String vehicleId) {
+        Map<String, Object> status = alertnessService.getVehicleStatus(vehicleId);
+        if (status == null) {
+            Map<String, String> error = new HashMap<>();
+            error.put("error", "No recent alertness samples for this vehicle.");
+            return ResponseEntity.status(404).body(error);
+        }
+        return ResponseEntity.ok(status);
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.demo.controller;
+
+import com.example.demo.service.AlertnessService;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.BinaryWebSocketHandler;
+import org.springframework.web.util.UriComponentsBuilder;
+
+/**
+ * WebSocket endpoint /ws/alertness?vehicleId=ID: receives binary sample batches from one vehicle
+ * (format documented on {@link AlertnessService}). The vehicle is fixed when the connection opens;
+ * connections without a valid vehicle id are refused, and batches naming another vehicle or
+ * otherwise malformed close the session.
+ */
+@Component
+public class AlertnessWebSocketHandler extends BinaryWebSocketHandler {
+
+    private static final String VEHICLE_ID = "vehicleId";
+
+    private final AlertnessService alertnessService;
+
+    public AlertnessWebSocketHandler(AlertnessService alertnessService) {
+        this.alertnessService = alertnessService;
+    }
+
+    @Override
+    public void afterConnectionEstablished(WebSocketSession session) throws Exception {
+        String vehicleId = session.getUri() == null ? null
+                : UriComponentsBuilder.fromUri(session.getUri()).build().getQueryParams().getFirst(VEHICLE_ID);
+        if (!AlertnessService.isValidVehicleId(vehicleId)) {
+            session.close(CloseStatus.POLICY_VIOLATION.withReason("vehicleId query parameter required"));
+            return;
+        }
+        session.getAttributes().put(VEHICLE_ID, vehicleId);
+    }
+
+    @Override
+    protected void handleBinaryMessage(WebSocketSession session, BinaryMessage message) throws Exception {
+        Object vehicleId = session.getAttributes().get(VEHICLE_ID);
+        if (vehicleId == null) return;
+        try {
+            alertnessService.ingest((String) vehicleId, message.getPayload());
+        } catch (IllegalArgumentException e) {
+            session.close(CloseStatus.BAD_DATA.withReason(e.getMessage()));
+        }
+    }
+}
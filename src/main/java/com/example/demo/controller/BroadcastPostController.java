@@ -2,6 +2,7 @@ package com.example.demo.controller;
 
 import com.example.demo.entity.BroadcastPost;
 import com.example.demo.repository.BroadcastPostRepository;
+import com.example.demo.service.BroadcastFeedCache;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import java.util.HashMap;
@@ -12,15 +13,17 @@ import java.util.Map;
 @RequestMapping("/api/broadcast")
 public class BroadcastPostController {
     private final BroadcastPostRepository repo;
+    private final BroadcastFeedCache feedCache;
 
-    public BroadcastPostController(BroadcastPostRepository repo) {
+    public BroadcastPostController(BroadcastPostRepository repo, BroadcastFeedCache feedCache) {
         this.repo = repo;
+        this.feedCache = feedCache;
     }
 
     @GetMapping
     public ResponseEntity<?> getPosts() {
         try {
-            List<BroadcastPost> posts = repo.findTop8ByOrderByCreatedAtDesc();
+            List<BroadcastPost> posts = feedCache.newest();
             return ResponseEntity.ok(posts);
         } catch (Exception e) {
             Map<String, String> error = new HashMap<>();
@@ -29,11 +32,21 @@ public class BroadcastPostController {
         }
     }
 
+    /**
+     * GET /api/broadcast/cache
+     * Returns hit, load and cross-node update counts of the feed cache and the cluster bus counters.
+     */
+    @GetMapping("/cache")
+    public Map<String, Object> getCacheStats() {
+        return feedCache.snapshot();
+    }
+
     @PostMapping
     public ResponseEntity<?> addPost(@RequestBody BroadcastPost post) {
         try {
             post.setId(null);
             BroadcastPost saved = repo.save(post);
+            feedCache.added(saved);
             return ResponseEntity.ok(saved);
         } catch (Exception e) {
             Map<String, String> error = new HashMap<>();
@@ -46,6 +59,7 @@ public class BroadcastPostController {
     public ResponseEntity<?> deletePost(@PathVariable Long id) {
         try {
             repo.deleteById(id);
+            feedCache.deleted(id);
             return ResponseEntity.ok().build();
         } catch (Exception e) {
             Map<String, String> error = new HashMap<>();
@@ -1,6 +1,11 @@
 package com.example.demo.controller;
 
+import com.example.demo.journal.QueryJournal;
+import com.example.demo.service.AdmissionLimiter;
+import com.example.demo.service.GeminiGovernor;
 import com.example.demo.service.GeminiService;
+import com.example.demo.service.GeneralAnswerCache;
+import com.example.demo.service.IntentCache;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.*;
@@ -13,6 +18,11 @@ import java.util.Map;
 public class GeminiController {
 
     private final GeminiService geminiService;
+    private final GeminiGovernor geminiGovernor;
+    private final AdmissionLimiter admissionLimiter;
+    private final GeneralAnswerCache generalAnswerCache;
+    private final IntentCache intentCache;
+    private final QueryJournal queryJournal;
 
     @GetMapping("/ask")
     public String askGeminiAPI(@RequestBody String prompt){
@@ -20,5 +30,55 @@ public class GeminiController {
         return geminiService.askGemini(prompt);
     }
 
+    /**
+     * GET /api/gemini/stats
+     * Returns in-flight count, queue depth per lane, wait times and shed/coalesced counters.
+     */
+    @GetMapping("/stats")
+    public Map<String, Object> getGovernorStats(){
+
+        return geminiGovernor.snapshot();
+    }
+
+    /**
+     * GET /api/gemini/admission
+     * Returns admitted and throttled (per-client / global) counts and the number of tracked clients.
+     */
+    @GetMapping("/admission")
+    public Map<String, Object> getAdmissionStats(){
+
+        return admissionLimiter.snapshot();
+    }
+
+    /**
+     * GET /api/gemini/general-cache
+     * Returns entries, hits and misses of the paraphrase-tolerant general answer cache.
+     */
+    @GetMapping("/general-cache")
+    public Map<String, Object> getGeneralCacheStats(){
+
+        return generalAnswerCache.snapshot();
+    }
+
+    /**
+     * GET /api/gemini/intent-cache
+     * Returns entries, hits and misses of the command classification cache.
+     */
+    @GetMapping("/intent-cache")
+    public Map<String, Object> getIntentCacheStats(){
+
+        return intentCache.snapshot();
+    }
+
+    /**
+     * GET /api/gemini/journal
+     * Returns recorded, dropped, pending and written counts of the query journal.
+     */
+    @GetMapping("/journal")
+    public Map<String, Object> getJournalStats(){
+
+        return queryJournal.snapshot();
+    }
+
 
 }
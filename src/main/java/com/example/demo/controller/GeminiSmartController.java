@@ -1,26 +1,52 @@
 package com.example.demo.controller;
 
+import com.example.demo.service.BatchQueryService;
 import com.example.demo.service.GeminiSmartService;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
 @RestController
 @RequestMapping("/api/gemini")
 public class GeminiSmartController {
 
     private final GeminiSmartService geminiSmartService;
+    private final BatchQueryService batchQueryService;
 
-    public GeminiSmartController(GeminiSmartService geminiSmartService) {
+    public GeminiSmartController(GeminiSmartService geminiSmartService, BatchQueryService batchQueryService) {
         this.geminiSmartService = geminiSmartService;
+        this.batchQueryService = batchQueryService;
     }
 
     /**
      * POST /api/gemini/smart
      * JSON body: { "text": "user query here" }
+     * Optional header X-Vehicle-Id keeps follow-up questions ("weather there?") in context.
      * Returns the response text after NLU and dispatching.
      */
     @PostMapping("/smart")
-    public String handleSmartQuery(@RequestBody QueryRequest request) {
-        return geminiSmartService.handleQuery(request.getText());
+    public String handleSmartQuery(@RequestBody QueryRequest request,
+                                   @RequestHeader(value = "X-Vehicle-Id", required = false) String vehicleId) {
+        return geminiSmartService.handleQuery(request.getText(), vehicleId);
+    }
+
+    /**
+     * POST /api/gemini/smart/batch
+     * JSON body: [ { "text": "weather in Pune", "vehicleId": "car-17" }, ... ] (vehicleId optional)
+     * Returns { "replies": [...] } in input order, plus how many upstream lookups were shared.
+     */
+    @PostMapping("/smart/batch")
+    public ResponseEntity<?> handleSmartBatch(@RequestBody List<BatchQueryService.BatchItem> queries) {
+        try {
+            return ResponseEntity.ok(batchQueryService.handleBatch(queries));
+        } catch (IllegalArgumentException e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("error", e.getMessage());
+            return ResponseEntity.status(400).body(error);
+        }
     }
 
     public static class QueryRequest {
@@ -0,0 +1,48 @@
+package com.example.demo.controller;
+
+import com.example.demo.service.ReachabilityService;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/reachability")
+public class ReachabilityController {
+
+    private final ReachabilityService reachabilityService;
+
+    public ReachabilityController(ReachabilityService reachabilityService) {
+        this.reachabilityService = reachabilityService;
+    }
+
+    /**
+     * GET /api/reachability?from=PLACE1&to=PLACE2&soc=45
+     * Tells whether the destination is reachable on the current charge.
+     * When soc is omitted the live telemetry state of charge is used, if the X-Vehicle-Id header
+     * names the vehicle attached to this node.
+     */
+    @GetMapping
+    public String canReach(@RequestParam String from,
+                           @RequestParam String to,
+                           @RequestParam(value = "soc", required = false) Double soc,
+                           @RequestHeader(value = "X-Vehicle-Id", required = false) String vehicleId) {
+        return reachabilityService.canReach(from, to, soc, vehicleId);
+    }
+
+    /**
+     * GET /api/reachability/chargers?near=PLACE&soc=30&lat=18.52&lon=73.85
+     * Lists the closest charging stations near the place that are within usable range of the
+     * vehicle at lat/lon. Without a position, range is measured from the place itself.
+     */
+    @GetMapping("/chargers")
+    public String reachableChargers(@RequestParam("near") String place,
+                                    @RequestParam(value = "soc", required = false) Double soc,
+                                    @RequestParam(value = "lat", required = false) Double lat,
+                                    @RequestParam(value = "lon", required = false) Double lon,
+                                    @RequestHeader(value = "X-Vehicle-Id", required = false) String vehicleId) {
+        double[] origin = lat != null && lon != null ? new double[]{lon, lat} : null;
+        return reachabilityService.reachableChargers(place, soc, vehicleId, origin);
+    }
+}
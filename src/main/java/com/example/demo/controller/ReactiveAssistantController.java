@@ -0,0 +1,76 @@
+package com.example.demo.controller;
+
+import com.example.demo.service.GeminiSmartService;
+import com.example.demo.service.ReactiveAssistantService;
+import com.example.demo.service.StartupMetrics;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+
+/**
+ * Non-blocking variants of the assistant endpoints.
+ *
+ * Each handler returns a {@link Mono}, so the servlet thread is released as soon as the request is
+ * dispatched and the response is written when the composed upstream calls complete. Request and
+ * response shapes match the blocking endpoints they mirror.
+ */
+@RestController
+@RequestMapping("/api/reactive")
+public class ReactiveAssistantController {
+
+    private final ReactiveAssistantService reactiveAssistantService;
+    private final GeminiSmartService geminiSmartService;
+    private final StartupMetrics startupMetrics;
+
+    public ReactiveAssistantController(ReactiveAssistantService reactiveAssistantService,
+                                       GeminiSmartService geminiSmartService,
+                                       StartupMetrics startupMetrics) {
+        this.reactiveAssistantService = reactiveAssistantService;
+        this.geminiSmartService = geminiSmartService;
+        this.startupMetrics = startupMetrics;
+    }
+
+    /**
+     * POST /api/reactive/voice-command, same contract as /api/voice-command.
+     */
+    @PostMapping("/voice-command")
+    public Mono<Map<String, String>> handleVoiceCommand(@RequestBody homeController.QueryRequest request,
+                                                       @RequestHeader(value = "X-Vehicle-Id", required = false) String vehicleId) {
+        String command = request.getText();
+        if (command == null || command.trim().isEmpty()) {
+            return Mono.just(Map.of("reply", "I didn't catch that, please try again."));
+        }
+        geminiSmartService.rememberPosition(vehicleId, request.getLat(), request.getLon());
+        return reactiveAssistantService.handleQuery(command, vehicleId)
+                .doOnNext(reply -> {
+                    if (GeminiSmartService.isAnswered(reply)) startupMetrics.recordVoiceReply();
+                })
+                .map(reply -> Map.of("reply", reply));
+    }
+
+    /**
+     * POST /api/reactive/smart, same contract as /api/gemini/smart.
+     */
+    @PostMapping("/smart")
+    public Mono<String> handleSmartQuery(@RequestBody GeminiSmartController.QueryRequest request,
+                                         @RequestHeader(value = "X-Vehicle-Id", required = false) String vehicleId) {
+        return reactiveAssistantService.handleQuery(request.getText(), vehicleId);
+    }
+
+    /**
+     * GET /api/reactive/weather?place=PLACE, same contract as /api/weather.
+     */
+    @GetMapping("/weather")
+    public Mono<String> getWeather(@RequestParam("place") String place) {
+        return reactiveAssistantService.getCurrentWeather(place);
+    }
+
+    /**
+     * GET /api/reactive/route?from=PLACE1&to=PLACE2, same contract as /api/route.
+     */
+    @GetMapping("/route")
+    public Mono<String> getRoute(@RequestParam String from, @RequestParam String to) {
+        return reactiveAssistantService.getRouteSummary(from, to);
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.demo.controller;
+
+import com.example.demo.entity.VehicleState;
+import com.example.demo.telemetry.TelemetryService;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/telemetry")
+public class TelemetryController {
+
+    private final TelemetryService telemetryService;
+
+    public TelemetryController(TelemetryService telemetryService) {
+        this.telemetryService = telemetryService;
+    }
+
+    /**
+     * GET /api/telemetry
+     * Returns the latest state of charge, speed and battery temperature.
+     */
+    @GetMapping
+    public VehicleState getLatestState() {
+        return telemetryService.getLatestState();
+    }
+
+    /**
+     * GET /api/telemetry/status
+     * Returns the telemetry source and ring buffer counters (backlog, dropped and ignored frames).
+     */
+    @GetMapping("/status")
+    public Map<String, Object> getStatus() {
+        return telemetryService.getStatus();
+    }
+}
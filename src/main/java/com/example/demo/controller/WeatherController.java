@@ -1,5 +1,6 @@
 package com.example.demo.controller;
 
+import com.example.demo.service.RouteWeatherService;
 import com.example.demo.service.WeatherService;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestParam;
@@ -9,13 +10,24 @@ import org.springframework.web.bind.annotation.RestController;
 public class WeatherController {
 
     private final WeatherService weatherService;
+    private final RouteWeatherService routeWeatherService;
 
-    public WeatherController(WeatherService weatherService) {
+    public WeatherController(WeatherService weatherService, RouteWeatherService routeWeatherService) {
         this.weatherService = weatherService;
+        this.routeWeatherService = routeWeatherService;
     }
 
     @GetMapping("/api/weather")
     public String getWeather(@RequestParam("place") String place) {
         return weatherService.getCurrentWeather(place);
     }
+
+    /**
+     * GET /api/weather/route?from=Pune&to=Mumbai
+     * Returns the forecast at points along the route for the time the car reaches them, leaving now.
+     */
+    @GetMapping("/api/weather/route")
+    public String getRouteWeather(@RequestParam("from") String from, @RequestParam("to") String to) {
+        return routeWeatherService.getRouteWeather(from, to);
+    }
 }
@@ -1,6 +1,7 @@
 package com.example.demo.controller;
 
 import com.example.demo.service.GeminiSmartService;
+import com.example.demo.service.StartupMetrics;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
@@ -20,9 +21,12 @@ public class homeController {
     @Autowired
     private GeminiSmartService geminiSmartService;
 
+    private final StartupMetrics startupMetrics;
+
     @Autowired
-    public homeController(GeminiSmartService geminiSmartService) {
+    public homeController(GeminiSmartService geminiSmartService, StartupMetrics startupMetrics) {
         this.geminiSmartService = geminiSmartService;
+        this.startupMetrics = startupMetrics;
     }
 
     @GetMapping("/")
@@ -34,17 +38,18 @@ public class homeController {
     // Use QueryRequest as the @RequestBody type for proper mapping
     @PostMapping("/api/voice-command")
     @ResponseBody
-    public ResponseEntity<Map<String, String>> handleVoiceCommand(@RequestBody QueryRequest request) {
+    public ResponseEntity<Map<String, String>> handleVoiceCommand(@RequestBody QueryRequest request,
+                                                                  @RequestHeader(value = "X-Vehicle-Id", required = false) String vehicleId) {
         String command = request.getText();
         String reply;
 
-        System.out.println(command);
-
         if (command == null || command.trim().isEmpty()) {
             reply = "I didn't catch that, please try again.";
         } else {
+            geminiSmartService.rememberPosition(vehicleId, request.getLat(), request.getLon());
             // Fallback to AI service if no known command matched
-            reply = getAIResponseForFrontend(command);
+            reply = getAIResponseForFrontend(command, vehicleId);
+            if (GeminiSmartService.isAnswered(reply)) startupMetrics.recordVoiceReply();
         }
 
         Map<String, String> response = new HashMap<>();
@@ -52,14 +57,17 @@ public class homeController {
         return ResponseEntity.ok(response);
     }
 
-    private String getAIResponseForFrontend(String command) {
-        // Call your AI service with the command text. Example:
-        return geminiSmartService.handleQuery(command);
+    private String getAIResponseForFrontend(String command, String vehicleId) {
+        // Call your AI service with the command text; the vehicle id keeps follow-ups in context
+        return geminiSmartService.handleQuery(command, vehicleId);
     }
 
     // Data class for request payload
     public static class QueryRequest {
         private String text;
+        // Optional vehicle position, so "chargers I can reach" is measured from where the vehicle is
+        private Double lat;
+        private Double lon;
 
         public String getText() {
             return text;
@@ -68,5 +76,21 @@ public class homeController {
         public void setText(String text) {
             this.text = text;
         }
+
+        public Double getLat() {
+            return lat;
+        }
+
+        public void setLat(Double lat) {
+            this.lat = lat;
+        }
+
+        public Double getLon() {
+            return lon;
+        }
+
+        public void setLon(Double lon) {
+            this.lon = lon;
+        }
     }
 }
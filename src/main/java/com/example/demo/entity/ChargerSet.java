@@ -0,0 +1,16 @@
+package com.example.demo.entity;
+
+/**
+ * Candidate charging stations stored column-wise, so the reachability engine can scan
+ * coordinates as primitive arrays.
+ *
+ * @param names station names
+ * @param lats  latitudes
+ * @param lons  longitudes
+ */
+public record ChargerSet(String[] names, double[] lats, double[] lons) {
+
+    public int size() {
+        return lats.length;
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.demo.entity;
+
+/**
+ * Current conditions at one coordinate as returned by Open-Meteo.
+ *
+ * @param temperature temperature in °C
+ * @param windspeed   wind speed in km/h
+ * @param weathercode Open-Meteo weather condition code
+ */
+public record CurrentWeather(double temperature, double windspeed, int weathercode) {
+}
@@ -0,0 +1,14 @@
+package com.example.demo.entity;
+
+/**
+ * A safety condition detected for one vehicle, published as a Spring application event.
+ *
+ * @param vehicleId        vehicle the samples came from
+ * @param type             what was detected
+ * @param detectedAtMillis wall-clock time of detection
+ * @param detail           short human-readable description
+ */
+public record DriverAlertEvent(String vehicleId, Type type, long detectedAtMillis, String detail) {
+
+    public enum Type { DROWSINESS, HIJACK }
+}
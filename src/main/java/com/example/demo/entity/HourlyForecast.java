@@ -0,0 +1,23 @@
+package com.example.demo.entity;
+
+/**
+ * Hourly Open-Meteo forecast for one location, stored column-wise.
+ *
+ * @param epochSeconds             start of each hour (UTC)
+ * @param temperatures             air temperature at 2 m in °C
+ * @param precipitationProbability chance of precipitation in %
+ * @param precipitationMm          precipitation in mm during the hour
+ * @param weathercodes             WMO weather codes
+ */
+public record HourlyForecast(long[] epochSeconds, double[] temperatures, int[] precipitationProbability,
+                             double[] precipitationMm, int[] weathercodes) {
+
+    /**
+     * Index of the hour containing {@code epochSecond}, clamped to the forecast range.
+     */
+    public int indexAt(long epochSecond) {
+        if (epochSeconds.length == 0) return -1;
+        int index = (int) Math.floorDiv(epochSecond - epochSeconds[0], 3600L);
+        return Math.max(0, Math.min(epochSeconds.length - 1, index));
+    }
+}
@@ -7,6 +7,7 @@ public class IntentData {
     private String toPlace;
     private String response;
     private String poiType;      // NEW for dynamic POI search
+    private Double batteryPercent;   // battery level the driver mentioned, for reachability
     // Getters and setters
     public String getIntent() { return intent; }
     public void setIntent(String intent) { this.intent = intent; }
@@ -23,4 +24,6 @@ public class IntentData {
     // getters/setters for all fields as usual
     public String getPoiType() { return poiType; }
     public void setPoiType(String poiType) { this.poiType = poiType; }
+    public Double getBatteryPercent() { return batteryPercent; }
+    public void setBatteryPercent(Double batteryPercent) { this.batteryPercent = batteryPercent; }
 }
\ No newline at end of file
@@ -0,0 +1,20 @@
+package com.example.demo.entity;
+
+/**
+ * A place name the assistant has already resolved, with its coordinates.
+ * Coordinates are NaN when the name was understood but not geocoded yet.
+ *
+ * @param name display name as the user said it
+ * @param lon  longitude
+ * @param lat  latitude
+ */
+public record ResolvedPlace(String name, double lon, double lat) {
+
+    public boolean hasCoords() {
+        return !Double.isNaN(lon) && !Double.isNaN(lat);
+    }
+
+    public double[] coords() {
+        return new double[]{lon, lat};
+    }
+}
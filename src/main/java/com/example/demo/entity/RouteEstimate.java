@@ -0,0 +1,10 @@
+package com.example.demo.entity;
+
+/**
+ * Distance and driving time of the best route OSRM found.
+ *
+ * @param distanceKm  route length in kilometres
+ * @param durationHrs expected driving time in hours
+ */
+public record RouteEstimate(double distanceKm, double durationHrs) {
+}
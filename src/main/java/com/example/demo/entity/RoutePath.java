@@ -0,0 +1,17 @@
+package com.example.demo.entity;
+
+/**
+ * Full geometry of the best route OSRM found, with the expected time to reach every point.
+ *
+ * @param lons        longitudes of the route points, start to destination
+ * @param lats        latitudes of the route points
+ * @param etaSeconds  driving seconds from the start to each point, non-decreasing
+ * @param distanceKm  route length in kilometres
+ * @param durationHrs expected driving time in hours
+ */
+public record RoutePath(double[] lons, double[] lats, double[] etaSeconds, double distanceKm, double durationHrs) {
+
+    public int size() {
+        return lats.length;
+    }
+}
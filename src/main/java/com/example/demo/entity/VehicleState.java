@@ -0,0 +1,24 @@
+package com.example.demo.entity;
+
+/**
+ * Latest vehicle telemetry as one consistent snapshot.
+ *
+ * @param stateOfChargePercent battery state of charge in %, NaN if never reported
+ * @param speedKmh             vehicle speed in km/h, NaN if never reported
+ * @param batteryTempC         battery pack temperature in °C, NaN if never reported
+ * @param updatedAtMillis      wall-clock time of the last parsed frame, 0 if none yet
+ * @param framesParsed         number of frames applied so far
+ */
+public record VehicleState(double stateOfChargePercent,
+                           double speedKmh,
+                           double batteryTempC,
+                           long updatedAtMillis,
+                           long framesParsed) {
+
+    /**
+     * True when a frame was parsed within the last {@code maxAgeMillis} milliseconds.
+     */
+    public boolean isFresh(long maxAgeMillis) {
+        return updatedAtMillis > 0 && System.currentTimeMillis() - updatedAtMillis <= maxAgeMillis;
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.demo.intent;
+
+import com.example.demo.service.FetchScope;
+import com.example.demo.service.GeocodeService;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * One upstream lookup an intent depends on. Places are normalized, so "Pune" and " pune" are
+ * the same dependency.
+ */
+public record Dependency(Kind kind, String place, String toPlace) {
+
+    public enum Kind { GEOCODE, WEATHER, ROUTE, CHARGERS }
+
+    public static Dependency geocode(String place) {
+        return new Dependency(Kind.GEOCODE, GeocodeService.normalize(place), null);
+    }
+
+    public static Dependency weather(String place) {
+        return new Dependency(Kind.WEATHER, GeocodeService.normalize(place), null);
+    }
+
+    public static Dependency route(String from, String to) {
+        return new Dependency(Kind.ROUTE, GeocodeService.normalize(from), GeocodeService.normalize(to));
+    }
+
+    public static Dependency chargers(String place) {
+        return new Dependency(Kind.CHARGERS, GeocodeService.normalize(place), null);
+    }
+
+    /**
+     * The lookups whose results this one is computed from.
+     */
+    public List<Dependency> prerequisites() {
+        return switch (kind) {
+            case GEOCODE -> List.of();
+            case WEATHER, CHARGERS -> List.of(geocode(place));
+            case ROUTE -> List.of(geocode(place), geocode(toPlace));
+        };
+    }
+
+    /**
+     * Starts (or joins) the lookup in the scope. Prerequisites are chained by the scope itself.
+     */
+    CompletableFuture<?> start(FetchScope scope) {
+        return switch (kind) {
+            case GEOCODE -> scope.geocode(place);
+            case WEATHER -> scope.weather(place);
+            case ROUTE -> scope.route(place, toPlace);
+            case CHARGERS -> scope.chargers(place);
+        };
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.demo.intent;
+
+import com.example.demo.entity.IntentData;
+import com.example.demo.service.GeminiService;
+import com.example.demo.service.GeneralAnswerCache;
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * Free-form questions. Uses the answer Gemini gave during classification, then an earlier answer
+ * to the same or a paraphrased question, and only then asks Gemini directly, in the caller's lane
+ * and without holding a planner thread while Gemini answers.
+ */
+@Component
+public class GeneralIntentHandler implements IntentHandler {
+
+    private final GeminiService geminiService;
+    private final GeneralAnswerCache generalAnswerCache;
+
+    public GeneralIntentHandler(GeminiService geminiService, GeneralAnswerCache generalAnswerCache) {
+        this.geminiService = geminiService;
+        this.generalAnswerCache = generalAnswerCache;
+    }
+
+    @Override
+    public Set<String> intents() {
+        return Set.of("general");
+    }
+
+    @Override
+    public String handle(IntentData intent, IntentContext context) {
+        return handleAsync(intent, context, Runnable::run).join();
+    }
+
+    @Override
+    public CompletableFuture<String> handleAsync(IntentData intent, IntentContext context, Executor executor) {
+        if (!isNullOrEmpty(intent.getResponse())) {
+            return CompletableFuture.completedFuture(intent.getResponse());
+        }
+        String cached = generalAnswerCache.find(context.userQuery());
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
+        }
+        CompletableFuture<String> fallback;
+        try {
+            fallback = geminiService.askGeminiAsync("Answer concisely:\n" + context.userQuery(), context.lane());
+        } catch (Exception e) {
+            fallback = CompletableFuture.failedFuture(e);
+        }
+        return fallback.handle((answer, e) -> {
+            if (e != null) {
+                return "I had trouble generating a response. Please try again.";
+            }
+            if (isNullOrEmpty(answer)) {
+                return "Sorry, I don't have an answer for that.";
+            }
+            generalAnswerCache.remember(context.userQuery(), answer.trim());
+            return answer.trim();
+        });
+    }
+
+    private boolean isNullOrEmpty(String s) {
+        return s == null || s.isBlank();
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.demo.intent;
+
+import com.example.demo.entity.ChargerSet;
+import com.example.demo.entity.CurrentWeather;
+import com.example.demo.entity.RouteEstimate;
+import com.example.demo.service.FetchScope;
+import com.example.demo.service.GeminiGovernor;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * What a handler gets while answering: the original query, the asking vehicle and its position when
+ * known, the Gemini lane of the caller and the lookups of its plan. Values declared as dependencies are already fetched; anything else is
+ * fetched on demand in the same scope. Failed lookups rethrow the original exception.
+ */
+public class IntentContext {
+
+    private final String userQuery;
+    private final FetchScope scope;
+    private final String vehicleId;
+    private final double[] origin;
+    private final GeminiGovernor.Lane lane;
+
+    public IntentContext(String userQuery, FetchScope scope, String vehicleId, double[] origin,
+                         GeminiGovernor.Lane lane) {
+        this.userQuery = userQuery;
+        this.scope = scope;
+        this.vehicleId = vehicleId;
+        this.origin = origin;
+        this.lane = lane;
+    }
+
+    public String userQuery() {
+        return userQuery;
+    }
+
+    public FetchScope scope() {
+        return scope;
+    }
+
+    /**
+     * The vehicle that asked, or null when the reply is shared by several vehicles or the client
+     * didn't say.
+     */
+    public String vehicleId() {
+        return vehicleId;
+    }
+
+    /**
+     * Where the vehicle is, as {longitude, latitude}, or null when the client didn't say.
+     */
+    public double[] origin() {
+        return origin;
+    }
+
+    /**
+     * Lane for any Gemini call made while answering: interactive for a driver waiting on the
+     * reply, background for bulk callers.
+     */
+    public GeminiGovernor.Lane lane() {
+        return lane;
+    }
+
+    public double[] geocode(String place) {
+        return value(scope.geocode(place));
+    }
+
+    public CurrentWeather weather(String place) {
+        return value(scope.weather(place));
+    }
+
+    public RouteEstimate route(String from, String to) {
+        return value(scope.route(from, to));
+    }
+
+    public ChargerSet chargers(String place) {
+        return value(scope.chargers(place));
+    }
+
+    private static <T> T value(CompletableFuture<T> lookup) {
+        try {
+            return lookup.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException re) throw re;
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.demo.intent;
+
+import com.example.demo.entity.IntentData;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * Answers one or more intents returned by Gemini's classification.
+ *
+ * Handlers are Spring beans picked up by the {@link IntentPlanner}. Before any handler runs, the
+ * planner asks each one which lookups its intent needs, fetches the union of them once and in
+ * parallel, and only then calls {@link #handle}, where the lookups are already complete.
+ */
+public interface IntentHandler {
+
+    /**
+     * Intent names this handler answers, lower case, e.g. "weather".
+     */
+    Set<String> intents();
+
+    /**
+     * Lookups the intent needs. Only called for intents this handler answers.
+     */
+    default List<Dependency> dependencies(IntentData intent) {
+        return List.of();
+    }
+
+    /**
+     * Builds the reply for the intent, or returns null to contribute nothing.
+     */
+    String handle(IntentData intent, IntentContext context);
+
+    /**
+     * Called by the planner instead of {@link #handle}. By default runs {@link #handle} on the
+     * planner's handler threads; handlers that wait on a remote call override it so no thread
+     * is held while they wait.
+     */
+    default CompletableFuture<String> handleAsync(IntentData intent, IntentContext context, Executor executor) {
+        return CompletableFuture.supplyAsync(() -> handle(intent, context), executor);
+    }
+}
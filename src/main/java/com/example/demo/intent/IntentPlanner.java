@@ -0,0 +1,195 @@
+package com.example.demo.intent;
+
+import com.example.demo.entity.IntentData;
+import com.example.demo.service.ChargerDirectoryService;
+import com.example.demo.service.FetchScope;
+import com.example.demo.service.GeminiGovernor;
+import com.example.demo.service.GeocodeService;
+import com.example.demo.service.RouteService;
+import com.example.demo.service.WeatherService;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Executes the intents of a query through their {@link IntentHandler}s.
+ *
+ * The planner first collects the {@link Dependency}s of all intents into one de-duplicated graph
+ * (a place used by the weather, charger and reachability intents is geocoded once), starts every
+ * lookup in a {@link FetchScope} so independent ones run concurrently, and runs each handler as
+ * soon as its own dependencies are done. Replies are joined in the order of the intents.
+ *
+ * Lookups and handlers run on separate pools ({@code assistant.planner.threads} and
+ * {@code assistant.planner.handler-threads}), so handlers waiting on an on-demand lookup can never
+ * occupy every thread the lookup needs. Any Gemini call a handler makes goes in the caller's lane.
+ */
+@Slf4j
+@Service
+public class IntentPlanner {
+
+    public static final String UNPROCESSED_REPLY = "Sorry, I couldn't process your request. Please try rephrasing.";
+
+    private final Map<String, IntentHandler> handlers = new HashMap<>();
+    private final GeocodeService geocodeService;
+    private final WeatherService weatherService;
+    private final RouteService routeService;
+    private final ChargerDirectoryService chargerDirectoryService;
+    private final ExecutorService executor;
+    private final ExecutorService handlerExecutor;
+
+    public IntentPlanner(List<IntentHandler> intentHandlers,
+                         GeocodeService geocodeService,
+                         WeatherService weatherService,
+                         RouteService routeService,
+                         ChargerDirectoryService chargerDirectoryService,
+                         @Value("${assistant.planner.threads:16}") int threads,
+                         @Value("${assistant.planner.handler-threads:8}") int handlerThreads) {
+        for (IntentHandler handler : intentHandlers) {
+            for (String intent : handler.intents()) {
+                IntentHandler previous = handlers.put(intent, handler);
+                if (previous != null) {
+                    throw new IllegalStateException("Intent '" + intent + "' is handled by both "
+                            + previous.getClass().getSimpleName() + " and " + handler.getClass().getSimpleName());
+                }
+            }
+        }
+        this.geocodeService = geocodeService;
+        this.weatherService = weatherService;
+        this.routeService = routeService;
+        this.chargerDirectoryService = chargerDirectoryService;
+
+        this.executor = Executors.newFixedThreadPool(threads, daemonThreads("intent-planner-"));
+        this.handlerExecutor = Executors.newFixedThreadPool(handlerThreads, daemonThreads("intent-handler-"));
+    }
+
+    private static ThreadFactory daemonThreads(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return r -> {
+            Thread t = new Thread(r, prefix + counter.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        };
+    }
+
+    /**
+     * A fresh scope whose lookups run on the planner's threads. Pass the same scope to several
+     * {@link #execute} calls to share lookups between queries.
+     */
+    public FetchScope newScope() {
+        return new FetchScope(geocodeService, weatherService, routeService, chargerDirectoryService, executor);
+    }
+
+    /**
+     * Answers all intents of one query for a driver waiting on the reply.
+     *
+     * @param vehicleId the asking vehicle, or null when unknown
+     * @param origin    vehicle position as {longitude, latitude}, or null when unknown
+     * @return the non-empty replies joined in intent order, or an apology if there are none
+     */
+    public CompletableFuture<String> execute(List<IntentData> intents, String userQuery, FetchScope scope,
+                                             String vehicleId, double[] origin) {
+        return execute(intents, userQuery, scope, vehicleId, origin, GeminiGovernor.Lane.INTERACTIVE);
+    }
+
+    /**
+     * Answers all intents of one query, making any Gemini call in {@code lane}.
+     */
+    public CompletableFuture<String> execute(List<IntentData> intents, String userQuery, FetchScope scope,
+                                             String vehicleId, double[] origin, GeminiGovernor.Lane lane) {
+        IntentContext context = new IntentContext(userQuery, scope, vehicleId, origin, lane);
+
+        // Plan: every handled intent with the lookups it needs, then the union of those lookups
+        List<IntentData> planned = new ArrayList<>();
+        List<IntentHandler> plannedHandlers = new ArrayList<>();
+        List<List<Dependency>> plannedDependencies = new ArrayList<>();
+        Map<Dependency, CompletableFuture<?>> graph = new LinkedHashMap<>();
+        for (IntentData intent : intents) {
+            IntentHandler handler = handlerFor(intent);
+            if (handler == null) continue;
+            List<Dependency> dependencies = handler.dependencies(intent);
+            planned.add(intent);
+            plannedHandlers.add(handler);
+            plannedDependencies.add(dependencies);
+            for (Dependency dependency : dependencies) addToGraph(dependency, graph);
+        }
+
+        // Execute: start each lookup once, prerequisites first; the scope chains them
+        graph.replaceAll((dependency, none) -> dependency.start(scope));
+        log.debug("Planned {} lookup(s) for {} intent(s)", graph.size(), planned.size());
+
+        List<CompletableFuture<String>> replies = new ArrayList<>(planned.size());
+        for (int i = 0; i < planned.size(); i++) {
+            IntentData intent = planned.get(i);
+            IntentHandler handler = plannedHandlers.get(i);
+            CompletableFuture<?>[] needed = plannedDependencies.get(i).stream()
+                    .map(graph::get)
+                    .toArray(CompletableFuture[]::new);
+            // Failed lookups don't stop the handler; it sees the failure and words the reply itself
+            replies.add(CompletableFuture.allOf(needed)
+                    .handle((v, e) -> null)
+                    .thenCompose(v -> handler.handleAsync(intent, context, handlerExecutor)));
+        }
+
+        return CompletableFuture.allOf(replies.toArray(new CompletableFuture[0])).thenApply(v -> {
+            StringBuilder combinedResponse = new StringBuilder();
+            for (CompletableFuture<String> reply : replies) {
+                String res = reply.join();
+                if (res != null && !res.isEmpty()) {
+                    combinedResponse.append(res).append("\n\n");
+                }
+            }
+            return combinedResponse.isEmpty()
+                    ? UNPROCESSED_REPLY
+                    : combinedResponse.toString().trim();
+        });
+    }
+
+    /**
+     * Answers a single intent; completes with null when no handler replies. Intents of one query
+     * handled one by one should share a scope so their lookups are still fetched once.
+     */
+    public CompletableFuture<String> handle(IntentData intent, String userQuery, FetchScope scope,
+                                            String vehicleId, double[] origin) {
+        IntentHandler handler = handlerFor(intent);
+        if (handler == null) return CompletableFuture.completedFuture(null);
+
+        CompletableFuture<?>[] needed = handler.dependencies(intent).stream()
+                .map(dependency -> dependency.start(scope))
+                .toArray(CompletableFuture[]::new);
+        IntentContext context = new IntentContext(userQuery, scope, vehicleId, origin,
+                GeminiGovernor.Lane.INTERACTIVE);
+        return CompletableFuture.allOf(needed)
+                .handle((v, e) -> null)
+                .thenCompose(v -> handler.handleAsync(intent, context, handlerExecutor));
+    }
+
+    private IntentHandler handlerFor(IntentData intent) {
+        if (intent == null || intent.getIntent() == null || intent.getIntent().isBlank()) return null;
+        return handlers.get(intent.getIntent().trim().toLowerCase(Locale.ROOT));
+    }
+
+    private void addToGraph(Dependency dependency, Map<Dependency, CompletableFuture<?>> graph) {
+        if (graph.containsKey(dependency)) return;
+        for (Dependency prerequisite : dependency.prerequisites()) addToGraph(prerequisite, graph);
+        graph.put(dependency, null);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        handlerExecutor.shutdownNow();
+        executor.shutdownNow();
+    }
+}
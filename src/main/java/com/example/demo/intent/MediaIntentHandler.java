@@ -0,0 +1,23 @@
+package com.example.demo.intent;
+
+import com.example.demo.entity.IntentData;
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+
+@Component
+public class MediaIntentHandler implements IntentHandler {
+
+    @Override
+    public Set<String> intents() {
+        return Set.of("media_play");
+    }
+
+    @Override
+    public String handle(IntentData intent, IntentContext context) {
+        if (intent.getResponse() != null && !intent.getResponse().isBlank()) {
+            return intent.getResponse();
+        }
+        return "Playing your requested media shortly.";
+    }
+}
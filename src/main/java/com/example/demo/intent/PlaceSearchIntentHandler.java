@@ -0,0 +1,64 @@
+package com.example.demo.intent;
+
+import com.example.demo.entity.IntentData;
+import org.springframework.stereotype.Component;
+
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Charging stations, hotels and other points of interest, answered with a Google Maps search link.
+ */
+@Component
+public class PlaceSearchIntentHandler implements IntentHandler {
+
+    @Override
+    public Set<String> intents() {
+        return Set.of("charging", "hotel", "poi_search");
+    }
+
+    @Override
+    public String handle(IntentData intent, IntentContext context) {
+        switch (intent.getIntent().trim().toLowerCase(Locale.ROOT)) {
+            case "charging":
+                if (isNullOrEmpty(intent.getPlace())) {
+                    return "Please specify the location to find nearby charging stations.";
+                }
+                return generatePoiSearchResponse("charging station", intent.getPlace());
+
+            case "hotel":
+                if (isNullOrEmpty(intent.getPlace())) {
+                    return "Please specify the location to find hotels.";
+                }
+                return generatePoiSearchResponse("hotel", intent.getPlace());
+
+            default:
+                if (isNullOrEmpty(intent.getPoiType())) {
+                    return "Please specify what type of place you're looking for.";
+                }
+                String place = intent.getPlace() != null ? intent.getPlace() : "";
+                return generatePoiSearchResponse(intent.getPoiType(), place);
+        }
+    }
+
+    private String generatePoiSearchResponse(String poiType, String place) {
+        try {
+            String query = poiType.trim();
+            if (!place.isBlank()) {
+                query += " near " + place.trim();
+            }
+            String encodedQuery = URLEncoder.encode(query, StandardCharsets.UTF_8);
+            String mapsUrl = "https://www.google.com/maps/search/" + encodedQuery;
+
+            return "Here are some " + query + ":\n" + mapsUrl;
+        } catch (Exception e) {
+            return "Sorry, I couldn't generate a map link for your request.";
+        }
+    }
+
+    private boolean isNullOrEmpty(String s) {
+        return s == null || s.isBlank();
+    }
+}
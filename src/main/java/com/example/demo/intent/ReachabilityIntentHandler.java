@@ -0,0 +1,58 @@
+package com.example.demo.intent;
+
+import com.example.demo.entity.IntentData;
+import com.example.demo.service.ReachabilityService;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+@Component
+public class ReachabilityIntentHandler implements IntentHandler {
+
+    private final ReachabilityService reachabilityService;
+
+    public ReachabilityIntentHandler(ReachabilityService reachabilityService) {
+        this.reachabilityService = reachabilityService;
+    }
+
+    @Override
+    public Set<String> intents() {
+        return Set.of("reachability", "reachable_chargers");
+    }
+
+    @Override
+    public List<Dependency> dependencies(IntentData intent) {
+        if (isChargerSearch(intent)) {
+            if (isNullOrEmpty(intent.getPlace())) return List.of();
+            return List.of(Dependency.chargers(intent.getPlace()), Dependency.weather(intent.getPlace()));
+        }
+        if (isNullOrEmpty(intent.getFromPlace()) || isNullOrEmpty(intent.getToPlace())) return List.of();
+        return List.of(Dependency.route(intent.getFromPlace(), intent.getToPlace()), Dependency.weather(intent.getFromPlace()));
+    }
+
+    @Override
+    public String handle(IntentData intent, IntentContext context) {
+        if (isChargerSearch(intent)) {
+            if (isNullOrEmpty(intent.getPlace())) {
+                return "Please specify the location to check reachable charging stations.";
+            }
+            return reachabilityService.reachableChargers(intent.getPlace(), intent.getBatteryPercent(),
+                    context.vehicleId(), context.origin(), context.scope());
+        }
+        if (isNullOrEmpty(intent.getFromPlace()) || isNullOrEmpty(intent.getToPlace())) {
+            return "Please tell me where you are starting from and where you want to go.";
+        }
+        return reachabilityService.canReach(intent.getFromPlace(), intent.getToPlace(), intent.getBatteryPercent(),
+                context.vehicleId(), context.scope());
+    }
+
+    private boolean isChargerSearch(IntentData intent) {
+        return intent.getIntent().trim().toLowerCase(Locale.ROOT).equals("reachable_chargers");
+    }
+
+    private boolean isNullOrEmpty(String s) {
+        return s == null || s.isBlank();
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.demo.intent;
+
+import com.example.demo.entity.IntentData;
+import com.example.demo.service.GoogleMapsRouteService;
+import com.example.demo.service.PrefetchService;
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+
+@Component
+public class RouteIntentHandler implements IntentHandler {
+
+    private final GoogleMapsRouteService googleMapsRouteService;
+    private final PrefetchService prefetchService;
+
+    public RouteIntentHandler(GoogleMapsRouteService googleMapsRouteService, PrefetchService prefetchService) {
+        this.googleMapsRouteService = googleMapsRouteService;
+        this.prefetchService = prefetchService;
+    }
+
+    @Override
+    public Set<String> intents() {
+        return Set.of("route");
+    }
+
+    @Override
+    public String handle(IntentData intent, IntentContext context) {
+        if (isNullOrEmpty(intent.getFromPlace()) || isNullOrEmpty(intent.getToPlace())) {
+            return "Please specify both origin and destination for the route.";
+        }
+        String routeReply = googleMapsRouteService.getGoogleMapsRouteLink(intent.getFromPlace(), intent.getToPlace());
+        // The next command is usually about the destination, so warm its data in the background
+        prefetchService.warmDestination(intent.getToPlace());
+        return routeReply;
+    }
+
+    private boolean isNullOrEmpty(String s) {
+        return s == null || s.isBlank();
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.demo.intent;
+
+import com.example.demo.entity.IntentData;
+import com.example.demo.service.RouteWeatherService;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Set;
+
+@Component
+public class RouteWeatherIntentHandler implements IntentHandler {
+
+    private final RouteWeatherService routeWeatherService;
+
+    public RouteWeatherIntentHandler(RouteWeatherService routeWeatherService) {
+        this.routeWeatherService = routeWeatherService;
+    }
+
+    @Override
+    public Set<String> intents() {
+        return Set.of("route_weather");
+    }
+
+    @Override
+    public List<Dependency> dependencies(IntentData intent) {
+        if (isNullOrEmpty(intent.getFromPlace()) || isNullOrEmpty(intent.getToPlace())) return List.of();
+        return List.of(Dependency.geocode(intent.getFromPlace()), Dependency.geocode(intent.getToPlace()));
+    }
+
+    @Override
+    public String handle(IntentData intent, IntentContext context) {
+        String from = intent.getFromPlace();
+        String to = intent.getToPlace();
+        if (isNullOrEmpty(from) || isNullOrEmpty(to)) {
+            return "Please specify both origin and destination to check the weather along the route.";
+        }
+        try {
+            return routeWeatherService.getRouteWeather(from, to, context.geocode(from), context.geocode(to));
+        } catch (Exception e) {
+            return "Sorry, I couldn't find one of the locations or route. Please try a more specific place name.";
+        }
+    }
+
+    private boolean isNullOrEmpty(String s) {
+        return s == null || s.isBlank();
+    }
+}
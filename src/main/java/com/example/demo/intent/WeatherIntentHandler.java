@@ -0,0 +1,50 @@
+package com.example.demo.intent;
+
+import com.example.demo.entity.CurrentWeather;
+import com.example.demo.entity.IntentData;
+import com.example.demo.service.WeatherService;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Set;
+
+@Component
+public class WeatherIntentHandler implements IntentHandler {
+
+    private final WeatherService weatherService;
+
+    public WeatherIntentHandler(WeatherService weatherService) {
+        this.weatherService = weatherService;
+    }
+
+    @Override
+    public Set<String> intents() {
+        return Set.of("weather");
+    }
+
+    @Override
+    public List<Dependency> dependencies(IntentData intent) {
+        return isNullOrEmpty(intent.getPlace()) ? List.of() : List.of(Dependency.weather(intent.getPlace()));
+    }
+
+    @Override
+    public String handle(IntentData intent, IntentContext context) {
+        String place = intent.getPlace();
+        if (isNullOrEmpty(place)) {
+            return "Please specify the location for the weather information.";
+        }
+        try {
+            CurrentWeather current = context.weather(place);
+            if (current == null) {
+                return "Sorry, I couldn't get the current weather data for " + place + ".";
+            }
+            return weatherService.formatCurrentWeather(place, current);
+        } catch (Exception e) {
+            return "Sorry, I couldn't get the weather for \"" + place + "\". Please try again.";
+        }
+    }
+
+    private boolean isNullOrEmpty(String s) {
+        return s == null || s.isBlank();
+    }
+}
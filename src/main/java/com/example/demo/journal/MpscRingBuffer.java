@@ -0,0 +1,102 @@
+package com.example.demo.journal;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Bounded multi-producer / single-consumer ring of object references.
+ *
+ * Every slot carries a sequence number that tells whose turn it is. A producer claims the next
+ * position with one CAS on {@code tail}, stores its element and publishes it by advancing the
+ * slot's sequence; the consumer reads published slots in order and hands them back to producers
+ * by advancing the sequence a full lap. No locks, and producers never wait for the consumer:
+ * when the ring is full the element is dropped and counted.
+ */
+public class MpscRingBuffer<E> {
+
+    private final AtomicReferenceArray<E> slots;
+    private final AtomicLongArray sequences;
+    private final int mask;
+
+    // Next position producers claim; next position the consumer reads (consumer thread writes only)
+    private final AtomicLong tail = new AtomicLong();
+    private volatile long head;
+    private final LongAdder dropped = new LongAdder();
+
+    /**
+     * @param capacity number of slots, rounded up to a power of two
+     */
+    public MpscRingBuffer(int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+        this.slots = new AtomicReferenceArray<>(size);
+        this.sequences = new AtomicLongArray(size);
+        this.mask = size - 1;
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    /**
+     * Adds the element if there is room. Safe from any thread.
+     *
+     * @return false if the ring was full and the element was dropped
+     */
+    public boolean offer(E element) {
+        long position = tail.get();
+        while (true) {
+            int slot = (int) (position & mask);
+            long lag = sequences.get(slot) - position;
+            if (lag == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    slots.lazySet(slot, element);
+                    sequences.lazySet(slot, position + 1);
+                    return true;
+                }
+                position = tail.get();
+            } else if (lag < 0) {
+                // The slot still holds the element from one lap ago
+                dropped.increment();
+                return false;
+            } else {
+                position = tail.get();
+            }
+        }
+    }
+
+    /**
+     * Hands up to {@code max} published elements to {@code consumer}, oldest first. Consumer thread only.
+     *
+     * @return number of elements consumed
+     */
+    public int drainTo(Consumer<? super E> consumer, int max) {
+        long position = head;
+        int count = 0;
+        while (count < max) {
+            int slot = (int) (position & mask);
+            // A claimed but not yet published slot ends the drain; its producer is mid-store
+            if (sequences.get(slot) != position + 1) break;
+            E element = slots.get(slot);
+            slots.lazySet(slot, null);
+            sequences.lazySet(slot, position + mask + 1);
+            head = ++position;
+            count++;
+            consumer.accept(element);
+        }
+        return count;
+    }
+
+    public int size() {
+        return (int) Math.max(0, tail.get() - head);
+    }
+
+    public int capacity() {
+        return mask + 1;
+    }
+
+    public long droppedCount() {
+        return dropped.sum();
+    }
+}
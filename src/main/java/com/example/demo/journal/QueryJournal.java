@@ -0,0 +1,351 @@
+package com.example.demo.journal;
+
+import com.example.demo.entity.IntentData;
+import com.example.demo.service.GeocodeService;
+import com.example.demo.service.IntentCache;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.EOFException;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipException;
+
+/**
+ * Asynchronous journal of answered assistant queries.
+ *
+ * Request threads only put a {@link QueryRecord} into a lock-free {@link MpscRingBuffer}; when the
+ * ring is full the record is dropped rather than slowing the reply. A single writer thread drains
+ * the ring in batches and appends one compact JSON line per query (normalized text, session
+ * context, intents without answer text, places, latency) to a gzip file under
+ * {@code assistant.journal.dir}. Intents that came with answer text are marked {@code "r":true}
+ * so a replay knows their classification alone can't reproduce the reply. The stream is
+ * sync-flushed about once a second, so after a crash everything but the last moments is readable.
+ * Files roll over once {@code max-file-mb} of compressed data is written or by age, and only the
+ * newest {@code assistant.journal.max-files} are kept.
+ *
+ * {@link #replay} reads the records back, newest first, for {@link QueryJournalWarmup}.
+ */
+@Slf4j
+@Service
+public class QueryJournal {
+
+    private static final String FILE_PREFIX = "queries-";
+    private static final String FILE_SUFFIX = ".jsonl.gz";
+    private static final DateTimeFormatter FILE_TIME = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss-SSS", Locale.ROOT);
+    private static final int DRAIN_BATCH = 256;
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
+
+    // Counts the compressed bytes that reach the file
+    private static final class CountingOutputStream extends FilterOutputStream {
+        long count;
+
+        CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+    }
+
+    private final boolean enabled;
+    private final Path dir;
+    private final long maxFileBytes;
+    private final long rollMillis;
+    private final int maxFiles;
+    private final long flushIntervalMillis;
+    private final MpscRingBuffer<QueryRecord> ring;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final LongAdder recorded = new LongAdder();
+    private final LongAdder written = new LongAdder();
+    private final LongAdder writeErrors = new LongAdder();
+
+    // Writer thread only
+    private OutputStream out;
+    private CountingOutputStream compressedBytes;
+    private volatile Path currentFile;
+    private long currentOpenedAt;
+    private long lastFlushAt;
+    private boolean unflushed;
+
+    private volatile boolean running;
+    private final Thread writer;
+
+    public QueryJournal(@Value("${assistant.journal.enabled:true}") boolean enabled,
+                        @Value("${assistant.journal.dir:data/journal}") String dir,
+                        @Value("${assistant.journal.capacity:8192}") int capacity,
+                        @Value("${assistant.journal.max-file-mb:16}") long maxFileMb,
+                        @Value("${assistant.journal.roll-minutes:60}") long rollMinutes,
+                        @Value("${assistant.journal.max-files:48}") int maxFiles,
+                        @Value("${assistant.journal.flush-interval-ms:1000}") long flushIntervalMillis) {
+        this.enabled = enabled;
+        this.dir = Path.of(dir);
+        this.maxFileBytes = Math.max(1, maxFileMb) * 1024 * 1024;
+        this.rollMillis = TimeUnit.MINUTES.toMillis(Math.max(1, rollMinutes));
+        this.maxFiles = Math.max(1, maxFiles);
+        this.flushIntervalMillis = flushIntervalMillis;
+        this.ring = new MpscRingBuffer<>(capacity);
+
+        this.running = enabled;
+        this.writer = new Thread(this::writeLoop, "query-journal");
+        this.writer.setDaemon(true);
+        if (enabled) writer.start();
+    }
+
+    /**
+     * Queues a record for the writer thread. Never blocks.
+     */
+    public void record(QueryRecord record) {
+        if (!running || record == null) return;
+        if (ring.offer(record)) recorded.increment();
+    }
+
+    /**
+     * Feeds the newest {@code maxRecords} readable journal lines to {@code consumer}, newest
+     * first. A truncated file tail (crash mid-write) ends that file quietly.
+     *
+     * @return number of lines replayed
+     */
+    public int replay(int maxRecords, Consumer<JsonNode> consumer) {
+        int count = 0;
+        for (Path file : journalFiles()) {
+            if (count >= maxRecords) break;
+            // Lines are appended oldest first; keep the newest that still fit and hand them out backwards
+            ArrayDeque<String> newest = new ArrayDeque<>();
+            int room = maxRecords - count;
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                    new GZIPInputStream(Files.newInputStream(file)), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    newest.addLast(line);
+                    if (newest.size() > room) newest.removeFirst();
+                }
+            } catch (EOFException | ZipException e) {
+                log.debug("Journal file {} ends early: {}", file.getFileName(), e.getMessage());
+            } catch (IOException e) {
+                log.warn("Could not read journal file {}: {}", file, e.getMessage());
+            }
+            while (!newest.isEmpty()) {
+                try {
+                    consumer.accept(objectMapper.readTree(newest.removeLast()));
+                    count++;
+                } catch (IOException e) {
+                    log.debug("Skipping unreadable journal line in {}", file.getFileName());
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Counters for the stats endpoint.
+     */
+    public Map<String, Object> snapshot() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("recorded", recorded.sum());
+        stats.put("dropped", ring.droppedCount());
+        stats.put("pending", ring.size());
+        stats.put("written", written.sum());
+        stats.put("writeErrors", writeErrors.sum());
+        Path file = currentFile;
+        stats.put("currentFile", file == null ? null : file.getFileName().toString());
+        return stats;
+    }
+
+    private void writeLoop() {
+        List<QueryRecord> batch = new ArrayList<>(DRAIN_BATCH);
+        while (running || ring.size() > 0) {
+            ring.drainTo(batch::add, DRAIN_BATCH);
+            if (batch.isEmpty()) {
+                flushIfDue(System.currentTimeMillis());
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+                continue;
+            }
+            for (QueryRecord record : batch) {
+                write(record);
+            }
+            batch.clear();
+            flushIfDue(System.currentTimeMillis());
+        }
+        closeFile();
+    }
+
+    private void write(QueryRecord record) {
+        try {
+            byte[] line = toLine(record);
+            long now = System.currentTimeMillis();
+            // Compressed output lags behind by what the deflater still buffers, at most one flush interval
+            if (out != null && (compressedBytes.count >= maxFileBytes || now - currentOpenedAt >= rollMillis)) {
+                closeFile();
+            }
+            if (out == null) openFile(now);
+
+            out.write(line);
+            unflushed = true;
+            written.increment();
+        } catch (Exception e) {
+            writeErrors.increment();
+            log.warn("Could not write query journal: {}", e.getMessage());
+            // Start a fresh file with the next record instead of appending to a broken stream
+            closeFile();
+        }
+    }
+
+    private byte[] toLine(QueryRecord record) throws IOException {
+        ObjectNode node = objectMapper.createObjectNode();
+        node.put("t", record.timestampMillis());
+        node.put("q", IntentCache.normalize(record.text()));
+        if (record.context() != null) node.put("c", record.context());
+
+        ArrayNode intents = node.putArray("i");
+        Set<String> places = new LinkedHashSet<>();
+        if (record.intents() != null) {
+            for (IntentData intent : record.intents()) {
+                if (intent == null || intent.getIntent() == null) continue;
+                // The classification only; answer text stays out of the journal
+                ObjectNode item = intents.addObject();
+                item.put("intent", intent.getIntent());
+                if (intent.getResponse() != null && !intent.getResponse().isBlank()) item.put("r", true);
+                putIfPresent(item, "place", intent.getPlace(), places);
+                putIfPresent(item, "fromPlace", intent.getFromPlace(), places);
+                putIfPresent(item, "toPlace", intent.getToPlace(), places);
+                putIfPresent(item, "poiType", intent.getPoiType(), null);
+                if (intent.getBatteryPercent() != null) item.put("batteryPercent", intent.getBatteryPercent());
+            }
+        }
+        ArrayNode placeArray = node.putArray("p");
+        places.forEach(placeArray::add);
+        node.put("ms", record.latencyMs());
+
+        byte[] json = objectMapper.writeValueAsBytes(node);
+        byte[] line = new byte[json.length + 1];
+        System.arraycopy(json, 0, line, 0, json.length);
+        line[json.length] = '\n';
+        return line;
+    }
+
+    private static void putIfPresent(ObjectNode item, String field, String value, Set<String> places) {
+        if (value == null || value.isBlank()) return;
+        item.put(field, value.trim());
+        if (places != null) places.add(GeocodeService.normalize(value));
+    }
+
+    private void openFile(long now) throws IOException {
+        Files.createDirectories(dir);
+        Path file = dir.resolve(FILE_PREFIX + LocalDateTime.now().format(FILE_TIME) + FILE_SUFFIX);
+        // syncFlush: every flush() ends a deflate block, so flushed lines are readable after a crash
+        compressedBytes = new CountingOutputStream(new BufferedOutputStream(
+                Files.newOutputStream(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)));
+        out = new GZIPOutputStream(compressedBytes, 8192, true);
+        currentFile = file;
+        currentOpenedAt = now;
+        lastFlushAt = now;
+        deleteOldFiles();
+    }
+
+    private void flushIfDue(long now) {
+        if (out == null || !unflushed || now - lastFlushAt < flushIntervalMillis) return;
+        try {
+            out.flush();
+        } catch (IOException e) {
+            writeErrors.increment();
+            log.warn("Could not flush query journal: {}", e.getMessage());
+            closeFile();
+        }
+        lastFlushAt = now;
+        unflushed = false;
+    }
+
+    private void closeFile() {
+        if (out == null) return;
+        try {
+            out.close();
+        } catch (IOException e) {
+            log.debug("Closing journal file {} failed: {}", currentFile, e.getMessage());
+        }
+        out = null;
+        compressedBytes = null;
+        currentFile = null;
+        unflushed = false;
+    }
+
+    // Keeps the newest maxFiles files, counting the one just opened
+    private void deleteOldFiles() {
+        List<Path> files = journalFiles();
+        for (int i = maxFiles; i < files.size(); i++) {
+            try {
+                Files.deleteIfExists(files.get(i));
+            } catch (IOException e) {
+                log.debug("Could not delete old journal file {}: {}", files.get(i), e.getMessage());
+            }
+        }
+    }
+
+    // Newest first; file names start with their creation time, so name order is age order
+    private List<Path> journalFiles() {
+        List<Path> files = new ArrayList<>();
+        if (!Files.isDirectory(dir)) return files;
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir, FILE_PREFIX + "*" + FILE_SUFFIX)) {
+            stream.forEach(files::add);
+        } catch (IOException e) {
+            log.warn("Could not list journal directory {}: {}", dir, e.getMessage());
+        }
+        files.sort(Comparator.comparing((Path p) -> p.getFileName().toString()).reversed());
+        return files;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (!running) return;
+        running = false;
+        LockSupport.unpark(writer);
+        try {
+            writer.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
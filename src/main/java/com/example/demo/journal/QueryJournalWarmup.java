@@ -0,0 +1,159 @@
+package com.example.demo.journal;
+
+import com.example.demo.entity.IntentData;
+import com.example.demo.service.GeocodeService;
+import com.example.demo.service.IntentCache;
+import com.example.demo.service.WeatherService;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Pre-populates the caches from what drivers actually asked before the last restart.
+ *
+ * Once the HTTP port is open, a background thread reads the newest {@code max-records} lines of
+ * the {@link QueryJournal} and counts places and commands. The classifications of the
+ * {@code top-commands} most frequent commands that needed no session context go straight into the
+ * {@link IntentCache}, so they are understood without Gemini. Commands whose reply came with the
+ * classification (marked {@code "r"}, such as "Playing ..." for media) are skipped, since the
+ * journal doesn't keep that text. The {@code top-places} most
+ * mentioned places are geocoded and their current weather fetched; geocoding is paced by
+ * {@code geocode-pace-ms} to stay within Nominatim's usage policy.
+ */
+@Slf4j
+@Service
+@Lazy(false)
+@ConditionalOnProperty(name = "assistant.journal.warmup.enabled", havingValue = "true", matchIfMissing = true)
+public class QueryJournalWarmup {
+
+    private static final TypeReference<List<IntentData>> INTENT_LIST = new TypeReference<>() {};
+
+    private static final class Count {
+        final String value;
+        final JsonNode intents;
+        int count;
+
+        Count(String value, JsonNode intents) {
+            this.value = value;
+            this.intents = intents;
+        }
+    }
+
+    private final QueryJournal journal;
+    private final ObjectProvider<IntentCache> intentCache;
+    private final ObjectProvider<GeocodeService> geocodeService;
+    private final ObjectProvider<WeatherService> weatherService;
+    private final int maxRecords;
+    private final int topPlaces;
+    private final int topCommands;
+    private final long geocodePaceMs;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    public QueryJournalWarmup(QueryJournal journal,
+                              ObjectProvider<IntentCache> intentCache,
+                              ObjectProvider<GeocodeService> geocodeService,
+                              ObjectProvider<WeatherService> weatherService,
+                              @Value("${assistant.journal.warmup.max-records:50000}") int maxRecords,
+                              @Value("${assistant.journal.warmup.top-places:20}") int topPlaces,
+                              @Value("${assistant.journal.warmup.top-commands:200}") int topCommands,
+                              @Value("${assistant.journal.warmup.geocode-pace-ms:1000}") long geocodePaceMs) {
+        this.journal = journal;
+        this.intentCache = intentCache;
+        this.geocodeService = geocodeService;
+        this.weatherService = weatherService;
+        this.maxRecords = maxRecords;
+        this.topPlaces = topPlaces;
+        this.topCommands = topCommands;
+        this.geocodePaceMs = geocodePaceMs;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUpInBackground() {
+        Thread thread = new Thread(this::warmUp, "journal-warmup");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private void warmUp() {
+        long start = System.currentTimeMillis();
+        Map<String, Count> places = new HashMap<>();
+        Map<String, Count> commands = new HashMap<>();
+
+        int replayed = journal.replay(maxRecords, line -> {
+            JsonNode intents = line.path("i");
+            for (JsonNode intent : intents) {
+                for (String field : new String[]{"place", "fromPlace", "toPlace"}) {
+                    String place = intent.path(field).asText("");
+                    if (!place.isBlank()) {
+                        places.computeIfAbsent(GeocodeService.normalize(place), k -> new Count(place.trim(), null)).count++;
+                    }
+                }
+            }
+            // Lines are newest first, so each command keeps its most recent classification
+            String query = line.path("q").asText("");
+            if (!query.isEmpty() && !line.hasNonNull("c") && intents.size() > 0 && !hasReplyText(intents)) {
+                commands.computeIfAbsent(query, k -> new Count(query, intents)).count++;
+            }
+        });
+        if (replayed == 0) return;
+
+        int restored = 0;
+        IntentCache cache = intentCache.getObject();
+        for (Count command : top(commands, topCommands)) {
+            try {
+                cache.put(command.value, null, objectMapper.convertValue(command.intents, INTENT_LIST));
+                restored++;
+            } catch (IllegalArgumentException e) {
+                log.debug("Skipping journaled command '{}': {}", command.value, e.getMessage());
+            }
+        }
+
+        int warmed = 0;
+        GeocodeService geocoder = geocodeService.getObject();
+        WeatherService weather = weatherService.getObject();
+        for (Count place : top(places, topPlaces)) {
+            try {
+                double[] coords = geocoder.getCached(place.value);
+                if (coords == null) {
+                    coords = geocoder.geocode(place.value);
+                    Thread.sleep(geocodePaceMs);
+                }
+                weather.getWeatherAt(coords);
+                warmed++;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                log.debug("Warm-up for {} failed: {}", place.value, e.getMessage());
+            }
+        }
+        log.info("Replayed {} journaled queries: {} commands and {} places warmed in {} ms",
+                replayed, restored, warmed, System.currentTimeMillis() - start);
+    }
+
+    private static boolean hasReplyText(JsonNode intents) {
+        for (JsonNode intent : intents) {
+            if (intent.path("r").asBoolean(false)) return true;
+        }
+        return false;
+    }
+
+    private static List<Count> top(Map<String, Count> counts, int n) {
+        List<Count> sorted = new ArrayList<>(counts.values());
+        sorted.sort((a, b) -> Integer.compare(b.count, a.count));
+        return sorted.subList(0, Math.min(n, sorted.size()));
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.demo.journal;
+
+import com.example.demo.entity.IntentData;
+
+import java.util.List;
+
+/**
+ * One answered assistant query, as handed to the {@link QueryJournal}. Normalizing the text and
+ * extracting places happens on the journal's writer thread, not here.
+ *
+ * @param context   name of the session place the query was resolved against, or null
+ * @param latencyMs time from receiving the query to having the reply
+ */
+public record QueryRecord(long timestampMillis, String text, String context, List<IntentData> intents, long latencyMs) {
+}
@@ -0,0 +1,130 @@
+package com.example.demo.service;
+
+import com.example.demo.cache.TtlCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-client and global rate limits for the endpoints that end up calling Gemini.
+ *
+ * Each bucket is a GCRA (generic cell rate algorithm) token bucket held in a single
+ * {@link AtomicLong}: the "theoretical arrival time" of the next request. Admitting a request is
+ * one read and one compare-and-set, with no timer thread and no refill loop. Client buckets live
+ * in a bounded {@link TtlCache} that forgets clients idle for longer than a full refill, which
+ * loses nothing since an idle bucket is simply full.
+ *
+ * The global budget defaults to the Gemini governor's capacity: {@code max-in-flight} requests
+ * per second with a burst of {@code max-queued}, so traffic beyond what the upstream can absorb
+ * gets a fast 429 instead of queueing.
+ */
+@Service
+public class AdmissionLimiter {
+
+    static final class Bucket {
+        final long intervalNanos;
+        final long toleranceNanos;
+        final AtomicLong nextArrival = new AtomicLong(Long.MIN_VALUE);
+
+        Bucket(double perSecond, int burst) {
+            this.intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / perSecond);
+            this.toleranceNanos = intervalNanos * Math.max(0, burst - 1L);
+        }
+
+        /**
+         * Returns 0 if a token was taken, otherwise the nanoseconds until one is available.
+         */
+        long tryAcquire(long now) {
+            while (true) {
+                long tat = nextArrival.get();
+                long base = tat == Long.MIN_VALUE || tat - now < 0 ? now : tat;
+                long wait = base - toleranceNanos - now;
+                if (wait > 0) return wait;
+                if (nextArrival.compareAndSet(tat, base + intervalNanos)) return 0;
+            }
+        }
+
+        /**
+         * Gives back a token taken by {@link #tryAcquire} for a request that was rejected later.
+         */
+        void refund() {
+            nextArrival.addAndGet(-intervalNanos);
+        }
+    }
+
+    private final boolean enabled;
+    private final double clientPerSecond;
+    private final int clientBurst;
+    private final Bucket global;
+    private final TtlCache<String, Bucket> clients;
+
+    private final LongAdder admitted = new LongAdder();
+    private final LongAdder throttledClient = new LongAdder();
+    private final LongAdder throttledGlobal = new LongAdder();
+
+    public AdmissionLimiter(@Value("${admission.enabled:true}") boolean enabled,
+                            @Value("${admission.client.per-second:1}") double clientPerSecond,
+                            @Value("${admission.client.burst:5}") int clientBurst,
+                            @Value("${admission.global.per-second:${gemini.governor.max-in-flight:4}}") double globalPerSecond,
+                            @Value("${admission.global.burst:${gemini.governor.max-queued:64}}") int globalBurst,
+                            @Value("${admission.max-clients:50000}") int maxClients) {
+        this.enabled = enabled;
+        this.clientPerSecond = clientPerSecond;
+        this.clientBurst = clientBurst;
+        this.global = new Bucket(globalPerSecond, globalBurst);
+        // An idle client's bucket refills completely within burst / rate seconds
+        long idleNanos = (long) (TimeUnit.SECONDS.toNanos(1) * Math.max(1, clientBurst) / clientPerSecond);
+        this.clients = new TtlCache<>(maxClients, idleNanos, TimeUnit.NANOSECONDS, true);
+    }
+
+    /**
+     * Takes a token from the client's bucket and from the global budget.
+     *
+     * @param clientId vehicle id or remote address
+     * @return 0 if the request is admitted, otherwise how many milliseconds to wait before retrying
+     */
+    public long tryAdmit(String clientId) {
+        if (!enabled) return 0;
+        long now = System.nanoTime();
+
+        Bucket client = clients.computeIfAbsent(clientId, k -> new Bucket(clientPerSecond, clientBurst));
+        long wait = client.tryAcquire(now);
+        if (wait > 0) {
+            throttledClient.increment();
+            return toRetryMillis(wait);
+        }
+
+        wait = global.tryAcquire(now);
+        if (wait > 0) {
+            // Not this client's fault, don't charge it for the rejected request
+            client.refund();
+            throttledGlobal.increment();
+            return toRetryMillis(wait);
+        }
+
+        admitted.increment();
+        return 0;
+    }
+
+    /**
+     * Admission counters for the stats endpoint.
+     */
+    public Map<String, Object> snapshot() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("admitted", admitted.sum());
+        stats.put("throttledClient", throttledClient.sum());
+        stats.put("throttledGlobal", throttledGlobal.sum());
+        stats.put("trackedClients", clients.size());
+        return stats;
+    }
+
+    private static long toRetryMillis(long waitNanos) {
+        return Math.max(1, TimeUnit.NANOSECONDS.toMillis(waitNanos + 999_999));
+    }
+}
@@ -0,0 +1,181 @@
+package com.example.demo.service;
+
+import com.example.demo.cache.TtlCache;
+import com.example.demo.entity.DriverAlertEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Server-side driver alertness detection from batched eye-aspect-ratio and hand samples.
+ *
+ * Batches arrive in a compact binary format (big-endian):
+ * <pre>
+ *   byte   version (1)
+ *   byte   vehicle id length n (1..64)
+ *   n      vehicle id, UTF-8; must be the vehicle the connection was opened for
+ *   short  sample count
+ *   per sample (5 bytes):
+ *     short  EAR × 10000 (unsigned)
+ *     byte   flags: bit 0 face detected, bit 1 hand raised above the face
+ *     short  milliseconds since the previous sample (unsigned)
+ * </pre>
+ * The vehicle is that of the connection, not whatever a batch claims, so one client can't feed or
+ * raise alerts for other vehicles' windows. Each vehicle gets an {@link AlertnessWindow}; when
+ * drowsiness or a hijack starts a
+ * {@link DriverAlertEvent} is published. Windows of vehicles that stop sending are dropped after
+ * the idle timeout, and at most {@code maxVehicles} are kept.
+ */
+@Service
+public class AlertnessService {
+
+    public static final int FORMAT_VERSION = 1;
+    private static final int MAX_VEHICLE_ID_BYTES = 64;
+    private static final int SAMPLE_BYTES = 5;
+
+    private final ApplicationEventPublisher eventPublisher;
+    private final TtlCache<String, AlertnessWindow> windows;
+
+    private final int windowSize;
+    private final int earThresholdScaled;
+    private final long drowsyClosedMs;
+    private final double perclosThreshold;
+    private final long hijackRaisedMs;
+    private final long handGraceMs;
+
+    private final LongAdder samplesIngested = new LongAdder();
+    private final LongAdder batchesIngested = new LongAdder();
+    private final LongAdder batchesRejected = new LongAdder();
+
+    public AlertnessService(ApplicationEventPublisher eventPublisher,
+                            @Value("${alertness.max-vehicles:50000}") int maxVehicles,
+                            @Value("${alertness.idle-minutes:10}") long idleMinutes,
+                            @Value("${alertness.window-size:90}") int windowSize,
+                            @Value("${alertness.ear-threshold:0.18}") double earThreshold,
+                            @Value("${alertness.drowsy-closed-ms:400}") long drowsyClosedMs,
+                            @Value("${alertness.perclos-threshold:0.4}") double perclosThreshold,
+                            @Value("${alertness.hijack-raised-ms:2000}") long hijackRaisedMs,
+                            @Value("${alertness.hand-grace-ms:170}") long handGraceMs) {
+        this.eventPublisher = eventPublisher;
+        this.windows = new TtlCache<>(maxVehicles, idleMinutes, TimeUnit.MINUTES, true);
+        this.windowSize = windowSize;
+        this.earThresholdScaled = (int) Math.round(earThreshold * AlertnessWindow.EAR_SCALE);
+        this.drowsyClosedMs = drowsyClosedMs;
+        this.perclosThreshold = perclosThreshold;
+        this.hijackRaisedMs = hijackRaisedMs;
+        this.handGraceMs = handGraceMs;
+    }
+
+    /**
+     * Whether {@code vehicleId} can name a connection: 1 to 64 bytes of letters, digits, '.', '_' or '-'.
+     */
+    public static boolean isValidVehicleId(String vehicleId) {
+        return vehicleId != null && !vehicleId.isEmpty()
+                && vehicleId.getBytes(StandardCharsets.UTF_8).length <= MAX_VEHICLE_ID_BYTES
+                && vehicleId.chars().allMatch(c -> c < 128 && (Character.isLetterOrDigit(c) || c == '.' || c == '_' || c == '-'));
+    }
+
+    /**
+     * Decodes one binary batch received on a connection and applies its samples to that
+     * connection's vehicle.
+     *
+     * @param vehicleId vehicle the connection was opened for
+     * @return number of samples applied
+     * @throws IllegalArgumentException if the batch is malformed or names another vehicle
+     */
+    public int ingest(String vehicleId, ByteBuffer batch) {
+        try {
+            int version = batch.get() & 0xFF;
+            if (version != FORMAT_VERSION) {
+                throw new IllegalArgumentException("Unsupported alertness batch version " + version);
+            }
+            int idLength = batch.get() & 0xFF;
+            if (idLength == 0 || idLength > MAX_VEHICLE_ID_BYTES) {
+                throw new IllegalArgumentException("Invalid vehicle id length " + idLength);
+            }
+            byte[] idBytes = new byte[idLength];
+            batch.get(idBytes);
+            if (!vehicleId.equals(new String(idBytes, StandardCharsets.UTF_8))) {
+                throw new IllegalArgumentException("Batch names a different vehicle than the connection");
+            }
+
+            int count = batch.getShort() & 0xFFFF;
+            if (batch.remaining() < count * SAMPLE_BYTES) {
+                throw new IllegalArgumentException("Batch declares " + count + " samples but is truncated");
+            }
+
+            AlertnessWindow window = windows.computeIfAbsent(vehicleId, id -> newWindow());
+            long now = System.currentTimeMillis();
+            for (int i = 0; i < count; i++) {
+                int ear = batch.getShort() & 0xFFFF;
+                int flags = batch.get();
+                int dtMs = batch.getShort() & 0xFFFF;
+                AlertnessWindow.Detection detection = window.add(ear, flags, dtMs, now);
+                if (detection != AlertnessWindow.Detection.NONE) {
+                    publish(vehicleId, detection, now);
+                }
+            }
+
+            samplesIngested.add(count);
+            batchesIngested.increment();
+            return count;
+        } catch (BufferUnderflowException | IllegalArgumentException e) {
+            batchesRejected.increment();
+            throw e instanceof IllegalArgumentException iae ? iae : new IllegalArgumentException("Truncated alertness batch");
+        }
+    }
+
+    /**
+     * Current window state for one vehicle, or null if it has not sent samples recently.
+     */
+    public Map<String, Object> getVehicleStatus(String vehicleId) {
+        AlertnessWindow window = windows.get(vehicleId);
+        if (window == null) return null;
+
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("vehicleId", vehicleId);
+        status.put("drowsy", window.isDrowsy());
+        status.put("hijack", window.isHijack());
+        status.put("averageEar", window.averageEar());
+        status.put("perclos", window.perclos());
+        status.put("samples", window.samples());
+        status.put("lastSampleAt", window.lastSampleAtMillis());
+        return status;
+    }
+
+    /**
+     * Node-wide ingestion counters.
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("vehicles", windows.size());
+        stats.put("samplesIngested", samplesIngested.sum());
+        stats.put("batchesIngested", batchesIngested.sum());
+        stats.put("batchesRejected", batchesRejected.sum());
+        return stats;
+    }
+
+    private AlertnessWindow newWindow() {
+        return new AlertnessWindow(windowSize, earThresholdScaled, drowsyClosedMs, perclosThreshold,
+                hijackRaisedMs, handGraceMs);
+    }
+
+    private void publish(String vehicleId, AlertnessWindow.Detection detection, long now) {
+        if (detection == AlertnessWindow.Detection.DROWSINESS || detection == AlertnessWindow.Detection.BOTH) {
+            eventPublisher.publishEvent(new DriverAlertEvent(vehicleId, DriverAlertEvent.Type.DROWSINESS, now,
+                    "Driver eyes closed for a prolonged period"));
+        }
+        if (detection == AlertnessWindow.Detection.HIJACK || detection == AlertnessWindow.Detection.BOTH) {
+            eventPublisher.publishEvent(new DriverAlertEvent(vehicleId, DriverAlertEvent.Type.HIJACK, now,
+                    "Hand held raised above the face (hijack signal)"));
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com.example.demo.service;
+
+/**
+ * Sliding-window alertness state for one vehicle, kept in primitive ring buffers of exactly
+ * {@code windowSize} samples, so PERCLOS is measured over the configured window.
+ *
+ * Mirrors the rules drowsiness.js applies in the browser, but on timestamps instead of frame
+ * counts so it does not depend on the camera frame rate:
+ * - drowsiness when the eyes stay closed (EAR under the threshold) for long enough, or when the
+ *   share of closed-eye samples in the window (PERCLOS) gets too high;
+ * - hijack when a hand stays raised above the face long enough, tolerating short gaps in hand
+ *   detection.
+ * Each condition fires once when it starts and re-arms after it clears.
+ */
+class AlertnessWindow {
+
+    static final int FLAG_FACE = 1;
+    static final int FLAG_HAND_RAISED = 2;
+    // Eye aspect ratios travel and are stored as fixed point, EAR × EAR_SCALE
+    static final int EAR_SCALE = 10_000;
+
+    enum Detection { NONE, DROWSINESS, HIJACK, BOTH }
+
+    private final short[] earScaled;
+    private final boolean[] closed;
+    private int next;
+    private int filled;
+    private int closedInWindow;
+
+    private final int earThresholdScaled;
+    private final long drowsyClosedMs;
+    private final double perclosThreshold;
+    private final long hijackRaisedMs;
+    private final long handGraceMs;
+
+    private long closedRunMs;
+    private long raisedRunMs;
+    private long handMissingMs;
+    private boolean drowsyActive;
+    private boolean hijackActive;
+    private long samples;
+    private long lastSampleAtMillis;
+
+    /**
+     * @param earThresholdScaled eye-closed threshold, EAR × {@link #EAR_SCALE}
+     */
+    AlertnessWindow(int windowSize, int earThresholdScaled, long drowsyClosedMs, double perclosThreshold,
+                    long hijackRaisedMs, long handGraceMs) {
+        int capacity = Math.max(1, windowSize);
+        this.earScaled = new short[capacity];
+        this.closed = new boolean[capacity];
+        this.earThresholdScaled = earThresholdScaled;
+        this.drowsyClosedMs = drowsyClosedMs;
+        this.perclosThreshold = perclosThreshold;
+        this.hijackRaisedMs = hijackRaisedMs;
+        this.handGraceMs = handGraceMs;
+    }
+
+    /**
+     * Applies one sample and reports which conditions started with it.
+     *
+     * @param ear     eye aspect ratio × {@link #EAR_SCALE}
+     * @param flags   {@link #FLAG_FACE} and {@link #FLAG_HAND_RAISED} bits
+     * @param dtMs    milliseconds since the previous sample
+     */
+    synchronized Detection add(int ear, int flags, int dtMs, long nowMillis) {
+        samples++;
+        lastSampleAtMillis = nowMillis;
+        boolean drowsyStarted = false;
+        boolean hijackStarted = false;
+
+        if ((flags & FLAG_FACE) != 0) {
+            boolean isClosed = ear < earThresholdScaled;
+
+            // Slide the window: forget the oldest sample once full
+            if (filled == earScaled.length) {
+                if (closed[next]) closedInWindow--;
+            } else {
+                filled++;
+            }
+            earScaled[next] = (short) ear;
+            closed[next] = isClosed;
+            if (isClosed) closedInWindow++;
+            next = next + 1 == earScaled.length ? 0 : next + 1;
+
+            closedRunMs = isClosed ? closedRunMs + dtMs : 0;
+            boolean drowsy = closedRunMs >= drowsyClosedMs
+                    || (filled == earScaled.length && closedInWindow >= perclosThreshold * filled);
+            drowsyStarted = drowsy && !drowsyActive;
+            drowsyActive = drowsy;
+        }
+
+        if ((flags & FLAG_HAND_RAISED) != 0) {
+            raisedRunMs += dtMs;
+            handMissingMs = 0;
+        } else if (raisedRunMs > 0) {
+            handMissingMs += dtMs;
+            if (handMissingMs > handGraceMs) {
+                raisedRunMs = Math.max(0, raisedRunMs - dtMs);
+            }
+        }
+        boolean hijack = raisedRunMs >= hijackRaisedMs;
+        hijackStarted = hijack && !hijackActive;
+        // Stays latched until the hand has been down for the whole run, like the browser's alert lock
+        hijackActive = hijack || (hijackActive && raisedRunMs > 0);
+
+        if (drowsyStarted && hijackStarted) return Detection.BOTH;
+        if (drowsyStarted) return Detection.DROWSINESS;
+        if (hijackStarted) return Detection.HIJACK;
+        return Detection.NONE;
+    }
+
+    synchronized double averageEar() {
+        if (filled == 0) return Double.NaN;
+        long sum = 0;
+        // Stored as short; values above Short.MAX_VALUE (EAR > 3.27) wrap, read them back unsigned
+        for (int i = 0; i < filled; i++) sum += earScaled[i] & 0xFFFF;
+        return sum / (double) EAR_SCALE / filled;
+    }
+
+    synchronized double perclos() {
+        return filled == 0 ? 0 : (double) closedInWindow / filled;
+    }
+
+    synchronized boolean isDrowsy() { return drowsyActive; }
+
+    synchronized boolean isHijack() { return hijackActive; }
+
+    synchronized long samples() { return samples; }
+
+    synchronized long lastSampleAtMillis() { return lastSampleAtMillis; }
+}
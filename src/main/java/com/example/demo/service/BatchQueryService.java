@@ -0,0 +1,161 @@
+package com.example.demo.service;
+
+import com.example.demo.entity.IntentData;
+import com.example.demo.entity.ResolvedPlace;
+import com.example.demo.intent.IntentPlanner;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Answers many assistant queries in one call, for the dispatch backend that works on behalf of
+ * a whole fleet.
+ *
+ * Identical queries (same text and same conversation context) are classified and answered once.
+ * Commands not in the {@link IntentCache} go to Gemini in the background lane, in waves of at most
+ * {@link GeminiGovernor#backgroundCapacity()} so a large batch is not shed by the governor, and
+ * every unique query is written to the query journal. Every query is then
+ * executed by the {@link IntentPlanner} in a single {@link FetchScope} shared by the whole batch,
+ * so a place mentioned by fifty vehicles is looked up once, and all unique lookups run in
+ * parallel. Replies come back in input order; queries still unanswered at
+ * {@code assistant.batch.timeout-ms} are cancelled, and their waves not yet sent are never sent.
+ */
+@Service
+public class BatchQueryService {
+
+    public record BatchItem(String text, String vehicleId) {
+    }
+
+    private static final class Group {
+        final String text;
+        final ResolvedPlace lastPlace;
+        CompletableFuture<List<IntentData>> intents;
+        CompletableFuture<String> reply;
+
+        Group(String text, ResolvedPlace lastPlace) {
+            this.text = text;
+            this.lastPlace = lastPlace;
+        }
+    }
+
+    private final GeminiSmartService geminiSmartService;
+    private final IntentPlanner intentPlanner;
+    private final GeminiGovernor geminiGovernor;
+    private final int maxBatchSize;
+    private final long timeoutMs;
+
+    public BatchQueryService(GeminiSmartService geminiSmartService,
+                             IntentPlanner intentPlanner,
+                             GeminiGovernor geminiGovernor,
+                             @Value("${assistant.batch.max-size:200}") int maxBatchSize,
+                             @Value("${assistant.batch.timeout-ms:30000}") long timeoutMs) {
+        this.geminiSmartService = geminiSmartService;
+        this.intentPlanner = intentPlanner;
+        this.geminiGovernor = geminiGovernor;
+        this.maxBatchSize = maxBatchSize;
+        this.timeoutMs = timeoutMs;
+    }
+
+    /**
+     * Answers every query of the batch.
+     *
+     * @return "replies" in input order plus counters showing how much upstream work was shared
+     * @throws IllegalArgumentException if the batch is larger than {@code assistant.batch.max-size}
+     */
+    public Map<String, Object> handleBatch(List<BatchItem> items) {
+        if (items.size() > maxBatchSize) {
+            throw new IllegalArgumentException("A batch can hold at most " + maxBatchSize + " queries.");
+        }
+
+        long start = System.nanoTime();
+        FetchScope scope = intentPlanner.newScope();
+        LinkedHashMap<String, Group> groups = new LinkedHashMap<>();
+        List<Group> groupOfItem = new ArrayList<>(items.size());
+        for (int i = 0; i < items.size(); i++) {
+            BatchItem item = items.get(i);
+            String text = item.text() == null ? "" : item.text().trim();
+            ResolvedPlace lastPlace = geminiSmartService.lastPlaceFor(item.vehicleId());
+            String key = text.toLowerCase(Locale.ROOT) + '|' + (lastPlace == null ? "" : lastPlace.name());
+            Group group = groups.computeIfAbsent(key, k -> new Group(text, lastPlace));
+            groupOfItem.add(group);
+        }
+
+        int waveSize = Math.max(1, geminiGovernor.backgroundCapacity());
+        List<CompletableFuture<List<IntentData>>> wave = new ArrayList<>(waveSize);
+        CompletableFuture<Void> previousWave = CompletableFuture.completedFuture(null);
+        for (Group group : groups.values()) {
+            if (group.text.isEmpty()) {
+                group.intents = CompletableFuture.completedFuture(List.of());
+                group.reply = CompletableFuture.completedFuture("I didn't catch that, please try again.");
+                continue;
+            }
+            if (wave.size() == waveSize) {
+                // The next wave goes out once this one is settled, answered or not
+                previousWave = CompletableFuture.allOf(wave.toArray(new CompletableFuture[0])).handle((v, e) -> null);
+                wave.clear();
+            }
+            CompletableFuture<Void> gate = previousWave;
+            group.intents = gate.thenCompose(v ->
+                    geminiSmartService.classifyAsync(group.text, group.lastPlace, GeminiGovernor.Lane.BACKGROUND));
+            wave.add(group.intents);
+            group.reply = group.intents
+                    // Vehicles share a group's reply, so none of their ids or positions applies to it
+                    .thenCompose(intents -> intentPlanner.execute(intents, group.text, scope, null, null,
+                            GeminiGovernor.Lane.BACKGROUND))
+                    .exceptionally(e -> GeminiSmartService.ERROR_REPLY);
+            group.reply.thenRun(() -> {
+                List<IntentData> intents = group.intents.getNow(null);
+                if (intents != null) geminiSmartService.journal(group.text, group.lastPlace, intents, start);
+            });
+        }
+
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+        List<String> replies = new ArrayList<>(items.size());
+        for (int i = 0; i < items.size(); i++) {
+            Group group = groupOfItem.get(i);
+            replies.add(await(group.reply, deadline));
+            List<IntentData> intents = group.intents.getNow(null);
+            if (intents != null) geminiSmartService.rememberPlaces(items.get(i).vehicleId(), intents);
+        }
+
+        int timedOut = 0;
+        // Nobody is waiting for these any more. Latest first: cancelling a wave releases the next
+        // one's gate, which must already be cancelled so that wave is never sent
+        for (Group group : groups.sequencedValues().reversed()) {
+            if (!group.reply.isDone()) {
+                group.intents.cancel(true);
+                group.reply.cancel(true);
+                timedOut++;
+            }
+        }
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("replies", replies);
+        result.put("uniqueQueries", groups.size());
+        result.put("timedOut", timedOut);
+        result.put("lookupsRequested", scope.requestedCount());
+        result.put("lookupsPerformed", scope.uniqueCount());
+        return result;
+    }
+
+    private String await(CompletableFuture<String> reply, long deadline) {
+        try {
+            return reply.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            return "Sorry, that took too long. Please try again.";
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return GeminiSmartService.ERROR_REPLY;
+        } catch (Exception e) {
+            return GeminiSmartService.ERROR_REPLY;
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package com.example.demo.service;
+
+import com.example.demo.cluster.ClusterCacheBus;
+import com.example.demo.cluster.ClusterMessage;
+import com.example.demo.entity.BroadcastPost;
+import com.example.demo.repository.BroadcastPostRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.json.JSONObject;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The broadcast board's newest posts, kept coherent across replicas.
+ *
+ * The feed is read from MySQL once and then kept up to date in place: the node that saves a post
+ * inserts it into its copy and publishes it on the {@link ClusterCacheBus}, and every other node
+ * inserts the same post into theirs, so nobody re-queries the database for a new post. A deleted
+ * post is removed the same way; only a node whose feed was full has to reload, because the next
+ * older post is not in its copy. The feed is still reloaded after {@code broadcast.feed.ttl-seconds}
+ * in case a message was lost.
+ */
+@Slf4j
+@Service
+public class BroadcastFeedCache {
+
+    private static final String CACHE_NAME = "broadcast-feed";
+    private static final int FEED_SIZE = 8;
+    private static final Comparator<BroadcastPost> NEWEST_FIRST = Comparator.comparing(
+            BroadcastPost::getCreatedAt, Comparator.nullsLast(Comparator.reverseOrder()));
+
+    private final BroadcastPostRepository repo;
+    private final ClusterCacheBus bus;
+    private final long ttlNanos;
+
+    // Guarded by this; feed is null when it has to be (re)loaded
+    private List<BroadcastPost> feed;
+    private long loadedAt;
+    private long version;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder loads = new LongAdder();
+    private final LongAdder remoteUpdates = new LongAdder();
+
+    public BroadcastFeedCache(BroadcastPostRepository repo,
+                              ClusterCacheBus bus,
+                              @Value("${broadcast.feed.ttl-seconds:60}") long ttlSeconds) {
+        this.repo = repo;
+        this.bus = bus;
+        this.ttlNanos = TimeUnit.SECONDS.toNanos(ttlSeconds);
+        bus.subscribe(CACHE_NAME, this::apply);
+    }
+
+    /**
+     * The newest posts, newest first, from the cached feed when it is fresh.
+     */
+    public List<BroadcastPost> newest() {
+        long loadingVersion;
+        synchronized (this) {
+            if (feed != null && System.nanoTime() - loadedAt < ttlNanos) {
+                hits.increment();
+                return feed;
+            }
+            loadingVersion = version;
+        }
+
+        List<BroadcastPost> loaded = List.copyOf(repo.findTop8ByOrderByCreatedAtDesc());
+        loads.increment();
+        synchronized (this) {
+            // A change that arrived during the query may be missing from the result; the next read reloads
+            if (version == loadingVersion) {
+                feed = loaded;
+                loadedAt = System.nanoTime();
+            }
+        }
+        return loaded;
+    }
+
+    /**
+     * Adds a just saved post to the feed here and on every other node.
+     */
+    public void added(BroadcastPost post) {
+        if (post == null || post.getId() == null) return;
+        insert(post);
+        bus.publish(new ClusterMessage(bus.nodeId(), CACHE_NAME, ClusterMessage.Op.PUT,
+                post.getId().toString(), encode(post)));
+    }
+
+    /**
+     * Removes a deleted post from the feed here and on every other node.
+     */
+    public void deleted(Long id) {
+        if (id == null) return;
+        remove(id);
+        bus.publish(new ClusterMessage(bus.nodeId(), CACHE_NAME, ClusterMessage.Op.INVALIDATE, id.toString(), null));
+    }
+
+    /**
+     * Hit, load and remote update counts plus the cluster bus counters, for the stats endpoint.
+     */
+    public Map<String, Object> snapshot() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("hits", hits.sum());
+        stats.put("loads", loads.sum());
+        stats.put("remoteUpdates", remoteUpdates.sum());
+        stats.put("cluster", bus.snapshot());
+        return stats;
+    }
+
+    private synchronized void insert(BroadcastPost post) {
+        version++;
+        if (feed == null) return;
+        List<BroadcastPost> updated = new ArrayList<>(feed);
+        updated.removeIf(p -> Objects.equals(p.getId(), post.getId()));
+        updated.add(post);
+        updated.sort(NEWEST_FIRST);
+        feed = List.copyOf(updated.subList(0, Math.min(FEED_SIZE, updated.size())));
+    }
+
+    private synchronized void remove(Long id) {
+        version++;
+        if (feed == null || feed.stream().noneMatch(p -> id.equals(p.getId()))) return;
+        if (feed.size() >= FEED_SIZE) {
+            // The post that moves up into the feed isn't in our copy
+            feed = null;
+            return;
+        }
+        List<BroadcastPost> updated = new ArrayList<>(feed);
+        updated.removeIf(p -> id.equals(p.getId()));
+        feed = List.copyOf(updated);
+    }
+
+    private void apply(ClusterMessage message) {
+        remoteUpdates.increment();
+        try {
+            if (message.op() == ClusterMessage.Op.PUT && message.value() != null) {
+                insert(decode(message.value()));
+            } else {
+                remove(Long.valueOf(message.key()));
+            }
+        } catch (RuntimeException e) {
+            log.debug("Unreadable broadcast feed update {}: {}", message.key(), e.getMessage());
+            synchronized (this) {
+                version++;
+                feed = null;
+            }
+        }
+    }
+
+    private static String encode(BroadcastPost post) {
+        JSONObject json = new JSONObject();
+        json.put("id", post.getId());
+        json.put("content", post.getContent());
+        if (post.getCreatedAt() != null) json.put("createdAt", post.getCreatedAt().toString());
+        return json.toString();
+    }
+
+    private static BroadcastPost decode(String value) {
+        JSONObject json = new JSONObject(value);
+        BroadcastPost post = new BroadcastPost();
+        post.setId(json.getLong("id"));
+        post.setContent(json.optString("content", null));
+        String createdAt = json.optString("createdAt", null);
+        post.setCreatedAt(createdAt == null ? null : LocalDateTime.parse(createdAt));
+        return post;
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.demo.service;
+
+import com.example.demo.cache.TtlCache;
+import com.example.demo.entity.ChargerSet;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestTemplate;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+@Service
+public class ChargerDirectoryService {
+
+    private static final int MAX_RESULTS = 500;
+    // Grid cell size in degrees, about 11 km north-south
+    private static final double CELL_DEGREES = 0.1;
+
+    private final RestTemplate restTemplate;
+    private final int searchRadiusKm;
+
+    // Charging stations change slowly; keyed by the grid cell of the search centre
+    private final TtlCache<String, ChargerSet> cache = new TtlCache<>(256, 6, TimeUnit.HOURS);
+
+    public ChargerDirectoryService(@Value("${ev.chargers.search-radius-km:50}") int searchRadiusKm,
+                                   @Value("${assistant.http.connect-timeout-ms:3000}") long connectTimeoutMs,
+                                   @Value("${assistant.http.read-timeout-ms:12000}") long readTimeoutMs) {
+        this.searchRadiusKm = searchRadiusKm;
+        this.restTemplate = RestTemplates.withTimeouts(connectTimeoutMs, readTimeoutMs);
+    }
+
+    /**
+     * Charging stations within the configured radius of the centre of the coordinates' 0.1° grid
+     * cell, from OpenStreetMap via the Overpass API. Searching from the cell centre gives every
+     * point in the cell the same cached result, which covers at least the radius less half the
+     * cell diagonal (about 8 km) around each of them.
+     *
+     * @param coords search point as {longitude, latitude}
+     * @return candidate stations, possibly empty
+     */
+    public ChargerSet findNear(double[] coords) {
+        double[] centre = cellCentre(coords);
+        return cache.getOrLoad(cellKey(coords), k -> fetch(centre));
+    }
+
+    /**
+     * Centre of the grid cell containing the coordinates, as {longitude, latitude}.
+     */
+    static double[] cellCentre(double[] coords) {
+        return new double[]{centreOfCell(coords[0]), centreOfCell(coords[1])};
+    }
+
+    /**
+     * Cache key of the grid cell containing the coordinates; the same for every point in the cell.
+     */
+    public static String cellKey(double[] coords) {
+        double[] centre = cellCentre(coords);
+        return String.format(Locale.ROOT, "%.2f,%.2f", centre[1], centre[0]);
+    }
+
+    private static double centreOfCell(double degrees) {
+        return (Math.floor(degrees / CELL_DEGREES) + 0.5) * CELL_DEGREES;
+    }
+
+    private ChargerSet fetch(double[] coords) {
+        String query = String.format(Locale.ROOT,
+                "[out:json][timeout:10];node[\"amenity\"=\"charging_station\"](around:%d,%.5f,%.5f);out %d;",
+                searchRadiusKm * 1000, coords[1], coords[0], MAX_RESULTS);
+        String url = "https://overpass-api.de/api/interpreter?data=" + URLEncoder.encode(query, StandardCharsets.UTF_8);
+
+        String response = restTemplate.getForObject(URI.create(url), String.class);
+        JSONArray elements = new JSONObject(response).optJSONArray("elements");
+        int n = elements == null ? 0 : elements.length();
+
+        String[] names = new String[n];
+        double[] lats = new double[n];
+        double[] lons = new double[n];
+        for (int i = 0; i < n; i++) {
+            JSONObject element = elements.getJSONObject(i);
+            JSONObject tags = element.optJSONObject("tags");
+            String name = tags == null ? null : tags.optString("name", tags.optString("operator", null));
+            names[i] = name == null || name.isBlank() ? "Charging station" : name;
+            lats[i] = element.getDouble("lat");
+            lons[i] = element.getDouble("lon");
+        }
+        return new ChargerSet(names, lats, lons);
+    }
+}
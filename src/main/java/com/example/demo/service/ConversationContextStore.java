@@ -0,0 +1,107 @@
+package com.example.demo.service;
+
+import com.example.demo.cache.TtlCache;
+import com.example.demo.entity.ResolvedPlace;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Remembers the last few places each vehicle (or browser session) talked about, so follow-ups
+ * like "what's the weather there?" reuse the resolved place instead of asking Gemini and
+ * Nominatim again.
+ *
+ * Memory is capped: at most {@code maxSessions} sessions are kept, each holding at most
+ * {@link SessionContext#MAX_PLACES} places, and sessions idle for longer than the configured
+ * timeout are dropped. When the cap is reached the least recently active session goes first.
+ */
+@Service
+public class ConversationContextStore {
+
+    /**
+     * Per-session state. Only a handful of entries, so a small array under the instance lock is enough.
+     */
+    public static class SessionContext {
+        static final int MAX_PLACES = 4;
+
+        private final ResolvedPlace[] places = new ResolvedPlace[MAX_PLACES];
+        private int count;
+        private double[] position;
+        private long positionAtMillis;
+
+        /** Most recently mentioned place first, or null when nothing was resolved yet. */
+        public synchronized ResolvedPlace lastPlace() {
+            return count == 0 ? null : places[0];
+        }
+
+        /** Vehicle position as {longitude, latitude} if reported within {@code maxAgeMillis}, else null. */
+        public synchronized double[] position(long maxAgeMillis) {
+            if (position == null || System.currentTimeMillis() - positionAtMillis > maxAgeMillis) return null;
+            return position.clone();
+        }
+
+        synchronized void rememberPosition(double[] coords) {
+            position = coords.clone();
+            positionAtMillis = System.currentTimeMillis();
+        }
+
+        synchronized void remember(ResolvedPlace place) {
+            // Move an existing entry with the same name to the front instead of duplicating it
+            int existing = count;
+            for (int i = 0; i < count; i++) {
+                if (places[i].name().equalsIgnoreCase(place.name())) {
+                    existing = i;
+                    break;
+                }
+            }
+            int shiftFrom = Math.min(existing, MAX_PLACES - 1);
+            System.arraycopy(places, 0, places, 1, shiftFrom);
+            places[0] = place;
+            if (existing == count && count < MAX_PLACES) count++;
+        }
+    }
+
+    // Idle sessions are swept every this many writes, besides being dropped when looked up
+    private static final int SWEEP_INTERVAL = 1024;
+
+    private final TtlCache<String, SessionContext> sessions;
+    private final AtomicInteger writes = new AtomicInteger();
+
+    public ConversationContextStore(@Value("${assistant.context.max-sessions:20000}") int maxSessions,
+                                    @Value("${assistant.context.idle-minutes:30}") long idleMinutes) {
+        this.sessions = new TtlCache<>(maxSessions, idleMinutes, TimeUnit.MINUTES, true);
+    }
+
+    /**
+     * Returns the context for the session, or null when the session is unknown or has expired.
+     */
+    public SessionContext get(String sessionId) {
+        if (sessionId == null || sessionId.isBlank()) return null;
+        return sessions.get(sessionId);
+    }
+
+    /**
+     * Records a resolved place as the most recent one for the session.
+     */
+    public void remember(String sessionId, ResolvedPlace place) {
+        if (sessionId == null || sessionId.isBlank() || place == null) return;
+        sessions.computeIfAbsent(sessionId, id -> new SessionContext()).remember(place);
+        if (writes.incrementAndGet() % SWEEP_INTERVAL == 0) {
+            sessions.evictExpired();
+        }
+    }
+
+    /**
+     * Records the session's vehicle position as {longitude, latitude}.
+     */
+    public void rememberPosition(String sessionId, double[] coords) {
+        if (sessionId == null || sessionId.isBlank() || coords == null) return;
+        sessions.computeIfAbsent(sessionId, id -> new SessionContext()).rememberPosition(coords);
+    }
+
+    public int activeSessions() {
+        return sessions.size();
+    }
+}
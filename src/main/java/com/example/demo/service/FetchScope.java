@@ -0,0 +1,120 @@
+package com.example.demo.service;
+
+import com.example.demo.entity.ChargerSet;
+import com.example.demo.entity.CurrentWeather;
+import com.example.demo.entity.RouteEstimate;
+
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Memoizes upstream lookups for the lifetime of one unit of work (a query or a batch of queries).
+ *
+ * Every lookup is keyed; the first request for a key starts it on the executor and every later
+ * request for the same key gets the same future. Lookups that need another lookup's result
+ * (weather needs coordinates, a route needs both ends) are chained onto it, so independent work
+ * runs in parallel and nothing is fetched twice within the scope.
+ *
+ * With a direct executor ({@code Runnable::run}) every lookup runs inline in the calling thread,
+ * which lets blocking callers share code with the planned, parallel path.
+ */
+public class FetchScope {
+
+    private final GeocodeService geocodeService;
+    private final WeatherService weatherService;
+    private final RouteService routeService;
+    private final ChargerDirectoryService chargerDirectoryService;
+    private final Executor executor;
+
+    private final ConcurrentHashMap<String, CompletableFuture<?>> lookups = new ConcurrentHashMap<>();
+    private final LongAdder requested = new LongAdder();
+
+    public FetchScope(GeocodeService geocodeService, WeatherService weatherService, RouteService routeService,
+                      ChargerDirectoryService chargerDirectoryService, Executor executor) {
+        this.geocodeService = geocodeService;
+        this.weatherService = weatherService;
+        this.routeService = routeService;
+        this.chargerDirectoryService = chargerDirectoryService;
+        this.executor = executor;
+    }
+
+    /**
+     * Coordinates of the place as {lon, lat}.
+     */
+    public CompletableFuture<double[]> geocode(String place) {
+        return memoize("geocode:" + GeocodeService.normalize(place),
+                () -> CompletableFuture.supplyAsync(() -> geocodeService.geocode(place), executor));
+    }
+
+    /**
+     * Current weather at the place.
+     */
+    public CompletableFuture<CurrentWeather> weather(String place) {
+        return geocode(place).thenCompose(this::weatherAt);
+    }
+
+    /**
+     * Current weather at the coordinates, keyed the same way as the weather cache (~1 km grid).
+     */
+    public CompletableFuture<CurrentWeather> weatherAt(double[] coords) {
+        return memoize(String.format(Locale.ROOT, "weather:%.2f,%.2f", coords[1], coords[0]),
+                () -> CompletableFuture.supplyAsync(() -> weatherService.getWeatherAt(coords), executor));
+    }
+
+    /**
+     * Driving distance and duration between two places; completes with null if there is no route.
+     */
+    public CompletableFuture<RouteEstimate> route(String from, String to) {
+        return memoize("route:" + GeocodeService.normalize(from) + "->" + GeocodeService.normalize(to),
+                () -> geocode(from).thenCombine(geocode(to), (fromCoords, toCoords) -> new double[][]{fromCoords, toCoords})
+                        .thenApplyAsync(ends -> routeService.getRouteEstimate(ends[0], ends[1]), executor));
+    }
+
+    /**
+     * Charging stations around the place, keyed the same way as the charger directory cache.
+     */
+    public CompletableFuture<ChargerSet> chargers(String place) {
+        return geocode(place).thenCompose(this::chargersAt);
+    }
+
+    public CompletableFuture<ChargerSet> chargersAt(double[] coords) {
+        return memoize("chargers:" + ChargerDirectoryService.cellKey(coords),
+                () -> CompletableFuture.supplyAsync(() -> chargerDirectoryService.findNear(coords), executor));
+    }
+
+    /**
+     * Number of lookups asked for, including repeats served by an existing future.
+     */
+    public long requestedCount() {
+        return requested.sum();
+    }
+
+    /**
+     * Number of distinct lookups actually started.
+     */
+    public int uniqueCount() {
+        return lookups.size();
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> CompletableFuture<T> memoize(String key, Supplier<CompletableFuture<T>> start) {
+        requested.increment();
+        CompletableFuture<?> existing = lookups.get(key);
+        if (existing != null) return (CompletableFuture<T>) existing;
+
+        // Created outside computeIfAbsent: starting a chained lookup re-enters this map
+        CompletableFuture<T> mine = new CompletableFuture<>();
+        existing = lookups.putIfAbsent(key, mine);
+        if (existing != null) return (CompletableFuture<T>) existing;
+
+        start.get().whenComplete((value, err) -> {
+            if (err != null) mine.completeExceptionally(err);
+            else mine.complete(value);
+        });
+        return mine;
+    }
+}
@@ -0,0 +1,334 @@
+package com.example.demo.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Sits in front of the Gemini client so a traffic spike cannot blow through the upstream quota.
+ *
+ * - At most {@code maxInFlight} calls run at once; the rest wait in one of two priority lanes.
+ * - Each lane has its own queue capacity, so background work can never fill up the room voice
+ *   requests need; interactive (voice) requests are always admitted before background work.
+ * - Identical prompts that are already in flight share the same upstream call, but only within a
+ *   lane or from background onto interactive: a voice request never waits on a background call.
+ * - Requests whose deadline passes while queued are shed instead of being sent late.
+ */
+@Service
+public class GeminiGovernor {
+
+    public enum Lane { INTERACTIVE, BACKGROUND }
+
+    /**
+     * Thrown when a request is shed because the queue is full or its deadline passed while waiting.
+     */
+    public static class GeminiBusyException extends RuntimeException {
+        public GeminiBusyException(String message) { super(message); }
+    }
+
+    private static final class Ticket {
+        final CompletableFuture<Void> future = new CompletableFuture<>();
+        final Lane lane;
+        final long enqueuedAt = System.nanoTime();
+        final long deadline;
+
+        Ticket(Lane lane, long deadlineMs) {
+            this.lane = lane;
+            this.deadline = enqueuedAt + TimeUnit.MILLISECONDS.toNanos(deadlineMs);
+        }
+    }
+
+    private final int maxInFlight;
+    private final int maxQueuedInteractive;
+    private final int maxQueuedBackground;
+    private final long interactiveDeadlineMs;
+    private final long backgroundDeadlineMs;
+
+    // Guards the two queues and the in-flight counter
+    private final Object lock = new Object();
+    private final ArrayDeque<Ticket> interactiveQueue = new ArrayDeque<>();
+    private final ArrayDeque<Ticket> backgroundQueue = new ArrayDeque<>();
+    private int inFlight;
+
+    // Lane + prompt -> result of the call currently running for it
+    private final ConcurrentHashMap<String, CompletableFuture<String>> pending = new ConcurrentHashMap<>();
+
+    private final LongAdder admitted = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder shed = new LongAdder();
+    private final LongAdder totalWaitNanos = new LongAdder();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+
+    public GeminiGovernor(@Value("${gemini.governor.max-in-flight:4}") int maxInFlight,
+                          @Value("${gemini.governor.max-queued:64}") int maxQueuedInteractive,
+                          @Value("${gemini.governor.max-queued-background:64}") int maxQueuedBackground,
+                          @Value("${gemini.governor.interactive-deadline-ms:8000}") long interactiveDeadlineMs,
+                          @Value("${gemini.governor.background-deadline-ms:30000}") long backgroundDeadlineMs) {
+        this.maxInFlight = maxInFlight;
+        this.maxQueuedInteractive = maxQueuedInteractive;
+        this.maxQueuedBackground = maxQueuedBackground;
+        this.interactiveDeadlineMs = interactiveDeadlineMs;
+        this.backgroundDeadlineMs = backgroundDeadlineMs;
+    }
+
+    /**
+     * Runs {@code upstream} once a slot is free, or joins an identical call that is already running.
+     *
+     * @param prompt   the prompt text, used with the lane as the coalescing key
+     * @param lane     priority lane of the caller
+     * @param upstream the actual Gemini call
+     * @return the upstream answer
+     */
+    public String call(String prompt, Lane lane, Supplier<String> upstream) {
+        long deadlineMs = deadlineFor(lane);
+        String key = key(lane, prompt);
+        CompletableFuture<String> mine = new CompletableFuture<>();
+        CompletableFuture<String> existing = joinable(lane, prompt, key, mine);
+        if (existing != null) {
+            coalesced.increment();
+            return await(existing, deadlineMs);
+        }
+
+        try {
+            try {
+                admit(lane).join();
+            } catch (CompletionException e) {
+                GeminiBusyException busy = new GeminiBusyException("Gemini is busy, request was shed after waiting in the " + lane + " lane.");
+                mine.completeExceptionally(busy);
+                throw busy;
+            }
+            try {
+                String result = upstream.get();
+                mine.complete(result);
+                return result;
+            } catch (RuntimeException e) {
+                mine.completeExceptionally(e);
+                throw e;
+            } finally {
+                release();
+            }
+        } finally {
+            pending.remove(key, mine);
+        }
+    }
+
+    /**
+     * Non-blocking variant of {@link #call}: no thread is parked while the request waits for a
+     * slot or for an identical in-flight call. The returned future fails with
+     * {@link GeminiBusyException} when the request is shed.
+     */
+    public CompletableFuture<String> callAsync(String prompt, Lane lane, Supplier<CompletableFuture<String>> upstream) {
+        long deadlineMs = deadlineFor(lane);
+        String key = key(lane, prompt);
+        CompletableFuture<String> mine = new CompletableFuture<>();
+        CompletableFuture<String> existing = joinable(lane, prompt, key, mine);
+        if (existing != null) {
+            coalesced.increment();
+            CompletableFuture<String> joined = new CompletableFuture<>();
+            existing.copy().orTimeout(deadlineMs, TimeUnit.MILLISECONDS).whenComplete((result, err) -> {
+                if (err == null) {
+                    joined.complete(result);
+                } else if (unwrap(err) instanceof TimeoutException) {
+                    shed.increment();
+                    joined.completeExceptionally(new GeminiBusyException("Gemini is busy, timed out waiting for an identical request."));
+                } else {
+                    joined.completeExceptionally(unwrap(err));
+                }
+            });
+            return joined;
+        }
+
+        admit(lane).whenComplete((granted, admitErr) -> {
+            if (admitErr != null) {
+                pending.remove(key, mine);
+                mine.completeExceptionally(new GeminiBusyException("Gemini is busy, request was shed after waiting in the " + lane + " lane."));
+                return;
+            }
+            CompletableFuture<String> call;
+            try {
+                call = upstream.get();
+            } catch (RuntimeException e) {
+                call = CompletableFuture.failedFuture(e);
+            }
+            call.whenComplete((result, err) -> {
+                release();
+                pending.remove(key, mine);
+                if (err != null) {
+                    mine.completeExceptionally(unwrap(err));
+                } else {
+                    mine.complete(result);
+                }
+            });
+        });
+        return mine;
+    }
+
+    /**
+     * Returns a future that completes once a slot has been granted to the caller,
+     * or fails with a {@link TimeoutException} if the request is shed.
+     */
+    CompletableFuture<Void> admit(Lane lane) {
+        Ticket ticket;
+        synchronized (lock) {
+            if (inFlight < maxInFlight) {
+                inFlight++;
+                admitted.increment();
+                return CompletableFuture.completedFuture(null);
+            }
+            if (queueFor(lane).size() >= maxQueuedFor(lane)) {
+                shed.increment();
+                return CompletableFuture.failedFuture(new TimeoutException("queue full"));
+            }
+            ticket = new Ticket(lane, deadlineFor(lane));
+            queueFor(lane).addLast(ticket);
+        }
+
+        ticket.future.orTimeout(deadlineFor(lane), TimeUnit.MILLISECONDS).whenComplete((v, err) -> {
+            if (err != null) {
+                synchronized (lock) {
+                    queueFor(ticket.lane).remove(ticket);
+                }
+                shed.increment();
+            }
+        });
+        return ticket.future;
+    }
+
+    void release() {
+        List<Ticket> granted = null;
+        List<Ticket> expired = null;
+        synchronized (lock) {
+            inFlight--;
+            Ticket next;
+            while (inFlight < maxInFlight && (next = pollNext()) != null) {
+                long now = System.nanoTime();
+                if (now - next.deadline >= 0) {
+                    if (expired == null) expired = new ArrayList<>();
+                    expired.add(next);
+                    continue;
+                }
+                inFlight++;
+                admitted.increment();
+                recordWait(now - next.enqueuedAt);
+                if (granted == null) granted = new ArrayList<>();
+                granted.add(next);
+            }
+        }
+
+        // Waiters are woken outside the lock, since async callers start their upstream call right here
+        if (expired != null) {
+            // Expired while queued, the timeout callback counts it as shed
+            for (Ticket ticket : expired) ticket.future.completeExceptionally(new TimeoutException("deadline passed"));
+        }
+        if (granted != null) {
+            for (Ticket ticket : granted) {
+                // complete() fails if the ticket timed out concurrently; hand its slot to the next waiter
+                if (!ticket.future.complete(null)) {
+                    admitted.decrement();
+                    release();
+                }
+            }
+        }
+    }
+
+    /**
+     * Number of background requests that can be running or waiting at once; larger background
+     * bursts are shed, so bulk callers should submit at most this many at a time.
+     */
+    public int backgroundCapacity() {
+        return maxInFlight + maxQueuedBackground;
+    }
+
+    /**
+     * Current queue depth, wait time and shedding counters, for the stats endpoint.
+     */
+    public Map<String, Object> snapshot() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        synchronized (lock) {
+            stats.put("inFlight", inFlight);
+            stats.put("maxInFlight", maxInFlight);
+            stats.put("queuedInteractive", interactiveQueue.size());
+            stats.put("queuedBackground", backgroundQueue.size());
+        }
+        long admittedCount = admitted.sum();
+        stats.put("admitted", admittedCount);
+        stats.put("coalesced", coalesced.sum());
+        stats.put("shed", shed.sum());
+        stats.put("avgWaitMs", admittedCount == 0 ? 0.0 : totalWaitNanos.sum() / 1_000_000.0 / admittedCount);
+        stats.put("maxWaitMs", maxWaitNanos.get() / 1_000_000.0);
+        return stats;
+    }
+
+    private Ticket pollNext() {
+        Ticket next = interactiveQueue.pollFirst();
+        return next != null ? next : backgroundQueue.pollFirst();
+    }
+
+    private ArrayDeque<Ticket> queueFor(Lane lane) {
+        return lane == Lane.INTERACTIVE ? interactiveQueue : backgroundQueue;
+    }
+
+    private int maxQueuedFor(Lane lane) {
+        return lane == Lane.INTERACTIVE ? maxQueuedInteractive : maxQueuedBackground;
+    }
+
+    private static String key(Lane lane, String prompt) {
+        return lane.name() + '\n' + prompt;
+    }
+
+    /**
+     * The in-flight call this request can share, or null after registering {@code mine} as the
+     * call for {@code key}. Background requests may also join an interactive call for the same
+     * prompt; interactive requests only join interactive calls, so they never inherit a
+     * background call's place in the queue or its deadline.
+     */
+    private CompletableFuture<String> joinable(Lane lane, String prompt, String key, CompletableFuture<String> mine) {
+        if (lane == Lane.BACKGROUND) {
+            CompletableFuture<String> interactive = pending.get(key(Lane.INTERACTIVE, prompt));
+            if (interactive != null) return interactive;
+        }
+        return pending.putIfAbsent(key, mine);
+    }
+
+    private long deadlineFor(Lane lane) {
+        return lane == Lane.INTERACTIVE ? interactiveDeadlineMs : backgroundDeadlineMs;
+    }
+
+    private void recordWait(long waitNanos) {
+        totalWaitNanos.add(waitNanos);
+        maxWaitNanos.accumulateAndGet(waitNanos, Math::max);
+    }
+
+    private static Throwable unwrap(Throwable err) {
+        return err instanceof CompletionException && err.getCause() != null ? err.getCause() : err;
+    }
+
+    private String await(CompletableFuture<String> future, long deadlineMs) {
+        try {
+            return future.get(deadlineMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            shed.increment();
+            throw new GeminiBusyException("Gemini is busy, timed out waiting for an identical request.");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException re) throw re;
+            throw new RuntimeException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new GeminiBusyException("Interrupted while waiting for Gemini.");
+        }
+    }
+}
@@ -5,20 +5,45 @@ import com.google.genai.types.GenerateContentResponse;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
+import java.util.concurrent.CompletableFuture;
+
 @Service
 @RequiredArgsConstructor
 public class GeminiService {
 
+    private static final String MODEL = "gemini-2.0-flash-001";
+
     private final Client client;
+    private final GeminiGovernor governor;
 
 
     public String askGemini(String prompt){
 
-        GenerateContentResponse response =
-                client.models.generateContent("gemini-2.0-flash-001", prompt, null);
+        return askGemini(prompt, GeminiGovernor.Lane.INTERACTIVE);
+    }
+
+    /**
+     * Sends the prompt through the {@link GeminiGovernor} in the given priority lane.
+     */
+    public String askGemini(String prompt, GeminiGovernor.Lane lane){
+
+        return governor.call(prompt, lane, () -> {
+            GenerateContentResponse response =
+                    client.models.generateContent(MODEL, prompt, null);
+
+            return response.text();
+        });
+    }
 
+    /**
+     * Non-blocking variant used by the reactive endpoints; uses the client's async API and the
+     * governor's async admission, so no thread waits for Gemini.
+     */
+    public CompletableFuture<String> askGeminiAsync(String prompt, GeminiGovernor.Lane lane){
 
-        return response.text();
+        return governor.callAsync(prompt, lane, () ->
+                client.async.models.generateContent(MODEL, prompt, null)
+                        .thenApply(GenerateContentResponse::text));
     }
 
 
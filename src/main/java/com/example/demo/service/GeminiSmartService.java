@@ -1,162 +1,321 @@
 package com.example.demo.service;
 
 import com.example.demo.entity.IntentData;
+import com.example.demo.entity.ResolvedPlace;
+import com.example.demo.intent.IntentPlanner;
+import com.example.demo.journal.QueryJournal;
+import com.example.demo.journal.QueryRecord;
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
-import java.net.URLEncoder;
-import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.List;
-
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+@Slf4j
 @Service
 public class GeminiSmartService {
 
+    public static final String ERROR_REPLY = "An error occurred while processing your request.";
+
+    // A moving vehicle's reported position is only used for this long
+    private static final long POSITION_MAX_AGE_MS = TimeUnit.MINUTES.toMillis(5);
+
+    // Phrases that point back at the last place of the conversation ("weather there?", "chargers at my destination")
+    private static final Pattern PLACE_REFERENCE = Pattern.compile(
+            "\\b(in|at|near|around|over) there\\b|(?<!\\b(is|are) )\\bthere\\s*\\??$|\\bthat place\\b|\\b(my|the) destination\\b");
+    private static final Set<String> PLACE_REFERENCE_WORDS = Set.of(
+            "there", "that place", "destination", "my destination", "the destination", "same place");
+
+    // Words a follow-up answered locally may consist of; anything else ("play music", "with 20%")
+    // means the utterance asks for more than the shortcut covers, so Gemini has to classify it
+    private static final Pattern FOLLOW_UP_TOPIC = Pattern.compile("weather|temperature|rain\\w*|charg\\w*|hotels?|ev|stations?");
+    private static final Set<String> FOLLOW_UP_FILLER = Set.of(
+            "what", "whats", "s", "is", "it", "the", "how", "about", "any", "are", "there", "in", "at", "near",
+            "around", "over", "show", "me", "find", "list", "and", "like", "please", "tell", "check", "my", "a",
+            "an", "that", "place", "destination", "same", "today", "now", "currently", "right", "nearby", "going",
+            "to", "will", "be", "of", "for", "some", "close", "by", "also", "points", "point", "options", "good");
+
     private final GeminiService geminiService;
-    private final WeatherService weatherService;
-    private final GoogleMapsRouteService googleMapsRouteService;
-    private final EVChargingService evChargingService;
+    private final GeocodeService geocodeService;
+    private final ConversationContextStore contextStore;
+    private final IntentPlanner intentPlanner;
+    private final IntentCache intentCache;
+    private final QueryJournal queryJournal;
     private final ObjectMapper objectMapper;
 
 
     public GeminiSmartService(GeminiService geminiService,
-                              WeatherService weatherService,
-                              GoogleMapsRouteService googleMapsRouteService,
-                              EVChargingService evChargingService) {
+                              GeocodeService geocodeService,
+                              ConversationContextStore contextStore,
+                              IntentPlanner intentPlanner,
+                              IntentCache intentCache,
+                              QueryJournal queryJournal) {
         this.geminiService = geminiService;
-        this.weatherService = weatherService;
-        this.googleMapsRouteService = googleMapsRouteService;
-        this.evChargingService = evChargingService;
+        this.geocodeService = geocodeService;
+        this.contextStore = contextStore;
+        this.intentPlanner = intentPlanner;
+        this.intentCache = intentCache;
+        this.queryJournal = queryJournal;
         this.objectMapper = new ObjectMapper();
     }
 
     public String handleQuery(String userQuery) {
+        return handleQuery(userQuery, null);
+    }
+
+    /**
+     * Handles a query in the context of a vehicle or browser session. Follow-ups such as
+     * "what's the weather there?" are resolved against the places this session mentioned before,
+     * without another Gemini round trip or geocode when possible. Commands understood before are
+     * taken from the {@link IntentCache}, and every answered query goes to the {@link QueryJournal}.
+     *
+     * @param userQuery the user's command text
+     * @param sessionId vehicle or session id, or null for a stateless request
+     */
+    public String handleQuery(String userQuery, String sessionId) {
+        long start = System.nanoTime();
         try {
-            String prompt = buildMultiIntentPrompt(userQuery);
-            String rawResponse = geminiService.askGemini(prompt);
-            rawResponse = cleanRawResponse(rawResponse);
+            ResolvedPlace lastPlace = lastPlaceFor(sessionId);
+
+            List<IntentData> intents = resolveFollowUp(userQuery, lastPlace);
+            if (intents == null) intents = intentCache.get(userQuery, lastPlace);
+            if (intents == null) {
+                String prompt = buildMultiIntentPrompt(userQuery, lastPlace);
+                String rawResponse = geminiService.askGemini(prompt);
+                intents = parseIntents(rawResponse, lastPlace);
+                intentCache.put(userQuery, lastPlace, intents);
+            }
 
-            System.out.println("Gemini raw response: " + rawResponse);
+            String reply = answer(intents, userQuery, sessionId, positionFor(sessionId));
+            rememberPlaces(sessionId, intents);
+            journal(userQuery, lastPlace, intents, start);
+            return reply;
 
-            List<IntentData> intents = objectMapper.readValue(rawResponse, new TypeReference<List<IntentData>>() {});
+        } catch (Exception e) {
+            e.printStackTrace();
+            return ERROR_REPLY;
+        }
+    }
 
-            StringBuilder combinedResponse = new StringBuilder();
+    /**
+     * True when a reply of {@link #handleQuery} answers the command, rather than reporting that it
+     * failed or wasn't understood.
+     */
+    public static boolean isAnswered(String reply) {
+        return reply != null && !reply.equals(ERROR_REPLY) && !reply.equals(IntentPlanner.UNPROCESSED_REPLY);
+    }
 
-            boolean anyResponse = false;
-            for (IntentData intent : intents) {
-                String res = processSingleIntent(intent, userQuery);
-                if (res != null && !res.isEmpty()) {
-                    combinedResponse.append(res).append("\n\n");
-                    anyResponse = true;
-                }
-            }
+    /**
+     * Non-blocking classification for the reactive and batch paths: a local follow-up, a cached
+     * classification, or Gemini in the given lane. Gemini's answer is cached for the next time.
+     */
+    CompletableFuture<List<IntentData>> classifyAsync(String userQuery, ResolvedPlace lastPlace, GeminiGovernor.Lane lane) {
+        List<IntentData> known = resolveFollowUp(userQuery, lastPlace);
+        if (known == null) known = intentCache.get(userQuery, lastPlace);
+        if (known != null) return CompletableFuture.completedFuture(known);
+
+        return geminiService.askGeminiAsync(buildMultiIntentPrompt(userQuery, lastPlace), lane)
+                .thenApply(raw -> {
+                    try {
+                        List<IntentData> intents = parseIntents(raw, lastPlace);
+                        intentCache.put(userQuery, lastPlace, intents);
+                        return intents;
+                    } catch (Exception e) {
+                        throw new CompletionException(e);
+                    }
+                });
+    }
 
-            if (!anyResponse) {
-                return "Sorry, I couldn't process your request. Please try rephrasing.";
-            }
+    /**
+     * Hands an answered query to the journal; returns immediately.
+     *
+     * @param startNanos {@link System#nanoTime()} when the query arrived
+     */
+    void journal(String userQuery, ResolvedPlace lastPlace, List<IntentData> intents, long startNanos) {
+        queryJournal.record(new QueryRecord(System.currentTimeMillis(), userQuery,
+                lastPlace == null ? null : lastPlace.name(), intents,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos)));
+    }
 
-            return combinedResponse.toString().trim();
+    /**
+     * Runs the intents through the {@link IntentPlanner}: shared lookups are fetched once and
+     * independent intents are answered in parallel. Replies are joined in intent order.
+     */
+    String answer(List<IntentData> intents, String userQuery, String vehicleId, double[] origin) {
+        return intentPlanner.execute(intents, userQuery, intentPlanner.newScope(), vehicleId, origin).join();
+    }
 
-        } catch (Exception e) {
-            e.printStackTrace();
-            return "An error occurred while processing your request.";
-        }
+    /**
+     * Records where the session's vehicle is, as reported with its latest command. Out-of-range
+     * or missing coordinates are ignored.
+     */
+    public void rememberPosition(String sessionId, Double latitude, Double longitude) {
+        if (latitude == null || longitude == null || Math.abs(latitude) > 90 || Math.abs(longitude) > 180) return;
+        contextStore.rememberPosition(sessionId, new double[]{longitude, latitude});
+    }
+
+    /**
+     * The vehicle's recent position as {longitude, latitude}, or null when it didn't report one.
+     */
+    double[] positionFor(String sessionId) {
+        ConversationContextStore.SessionContext context = contextStore.get(sessionId);
+        return context != null ? context.position(POSITION_MAX_AGE_MS) : null;
     }
 
-    private String processSingleIntent(IntentData intent, String userQuery) {
-        if (intent == null) return null;
+    /**
+     * The place "there" refers to for this session, or null. Its coordinates are seeded into the
+     * shared geocode cache so the follow-up never triggers a fresh lookup.
+     */
+    ResolvedPlace lastPlaceFor(String sessionId) {
+        ConversationContextStore.SessionContext context = contextStore.get(sessionId);
+        ResolvedPlace lastPlace = context != null ? context.lastPlace() : null;
+        if (lastPlace != null && lastPlace.hasCoords()) {
+            geocodeService.remember(lastPlace.name(), lastPlace.coords());
+        }
+        return lastPlace;
+    }
 
-        String intentName = intent.getIntent();
-        if (intentName == null || intentName.isBlank()) return null;
+    /**
+     * Parses Gemini's JSON array of intents and fills "there"-style places from the session context.
+     */
+    List<IntentData> parseIntents(String rawResponse, ResolvedPlace lastPlace) throws JsonProcessingException {
+        rawResponse = cleanRawResponse(rawResponse);
 
-        intentName = intentName.trim().toLowerCase();
+        log.debug("Gemini raw response: {}", rawResponse);
 
-        switch (intentName) {
-            case "weather":
-                if (isNullOrEmpty(intent.getPlace())) {
-                    return "Please specify the location for the weather information.";
-                }
-                return weatherService.getCurrentWeather(intent.getPlace());
+        List<IntentData> intents = objectMapper.readValue(rawResponse, new TypeReference<List<IntentData>>() {});
+        fillPlaceReferences(intents, lastPlace);
+        return intents;
+    }
 
-            case "route":
-                if (isNullOrEmpty(intent.getFromPlace()) || isNullOrEmpty(intent.getToPlace())) {
-                    return "Please specify both origin and destination for the route.";
-                }
-                return googleMapsRouteService.getGoogleMapsRouteLink(intent.getFromPlace(), intent.getToPlace());
+    /**
+     * Answers simple follow-ups ("weather there?", "chargers at my destination") locally when the
+     * session already knows the place. Returns null when Gemini is needed to understand the query,
+     * including when the utterance asks for anything beyond these intents ("weather there and play
+     * music", "can I reach a charger there with 20%"), so no part of it is dropped.
+     */
+    List<IntentData> resolveFollowUp(String userQuery, ResolvedPlace lastPlace) {
+        if (lastPlace == null || isNullOrEmpty(userQuery)) return null;
+
+        String query = userQuery.trim().toLowerCase(Locale.ROOT);
+        if (!PLACE_REFERENCE.matcher(query).find()) return null;
+
+        List<IntentData> intents = new ArrayList<>();
+        if (query.contains("weather") || query.contains("temperature") || query.contains("rain")) {
+            intents.add(followUpIntent("weather", lastPlace));
+        }
+        if (query.contains("charging") || query.contains("charger") || query.contains("ev station")) {
+            intents.add(followUpIntent("charging", lastPlace));
+        }
+        if (query.contains("hotel")) {
+            intents.add(followUpIntent("hotel", lastPlace));
+        }
+        if (!coveredByFollowUp(query)) return null;
+        return intents.isEmpty() ? null : intents;
+    }
 
-            case "charging":
-                if (isNullOrEmpty(intent.getPlace())) {
-                    return "Please specify the location to find nearby charging stations.";
-                }
-                return generatePoiSearchResponse("charging station", intent.getPlace());
+    private static boolean coveredByFollowUp(String query) {
+        for (String word : query.replace("'", "").split("[^\\p{L}\\p{N}]+")) {
+            if (word.isEmpty() || FOLLOW_UP_FILLER.contains(word) || FOLLOW_UP_TOPIC.matcher(word).matches()) continue;
+            return false;
+        }
+        return true;
+    }
 
-            case "hotel":
-                if (isNullOrEmpty(intent.getPlace())) {
-                    return "Please specify the location to find hotels.";
-                }
-                return generatePoiSearchResponse("hotel", intent.getPlace());
+    private IntentData followUpIntent(String intentName, ResolvedPlace place) {
+        IntentData intent = new IntentData();
+        intent.setIntent(intentName);
+        intent.setPlace(place.name());
+        return intent;
+    }
 
-            case "poi_search":
-                if (isNullOrEmpty(intent.getPoiType())) {
-                    return "Please specify what type of place you're looking for.";
+    /**
+     * Replaces missing places and references like "there" in Gemini's intents with the session's last place.
+     */
+    private void fillPlaceReferences(List<IntentData> intents, ResolvedPlace lastPlace) {
+        if (lastPlace == null || intents == null) return;
+
+        for (IntentData intent : intents) {
+            if (intent == null || intent.getIntent() == null) continue;
+            switch (intent.getIntent().trim().toLowerCase(Locale.ROOT)) {
+                case "weather", "charging", "hotel", "poi_search", "reachable_chargers" -> {
+                    if (isPlaceReference(intent.getPlace())) intent.setPlace(lastPlace.name());
                 }
-                String place = intent.getPlace() != null ? intent.getPlace() : "";
-                return generatePoiSearchResponse(intent.getPoiType(), place);
-
-            case "media_play":
-                if (!isNullOrEmpty(intent.getResponse())) {
-                    return intent.getResponse();
-                } else {
-                    return "Playing your requested media shortly.";
-                }
-
-            case "general":
-                if (!isNullOrEmpty(intent.getResponse())) {
-                    return intent.getResponse();
-                } else {
-                    try {
-                        String fallback = geminiService.askGemini("Answer concisely:\n" + userQuery);
-                        return isNullOrEmpty(fallback) ? "Sorry, I don't have an answer for that." : fallback.trim();
-                    } catch (Exception e) {
-                        return "I had trouble generating a response. Please try again.";
+                case "route", "reachability", "route_weather" -> {
+                    if (isPlaceReference(intent.getFromPlace()) && !isNullOrEmpty(intent.getFromPlace())) {
+                        intent.setFromPlace(lastPlace.name());
                     }
+                    if (isPlaceReference(intent.getToPlace())) intent.setToPlace(lastPlace.name());
                 }
-
-            default:
-                return null;
+                default -> { }
+            }
         }
     }
 
-    private String generatePoiSearchResponse(String poiType, String place) {
-        try {
-            String query = poiType.trim();
-            if (!place.isBlank()) {
-                query += " near " + place.trim();
-            }
-            String encodedQuery = URLEncoder.encode(query, StandardCharsets.UTF_8);
-            String mapsUrl = "https://www.google.com/maps/search/" + encodedQuery;
+    private boolean isPlaceReference(String place) {
+        return isNullOrEmpty(place) || PLACE_REFERENCE_WORDS.contains(place.trim().toLowerCase(Locale.ROOT));
+    }
 
-            return "Here are some " + query + ":\n" + mapsUrl;
-        } catch (Exception e) {
-            return "Sorry, I couldn't generate a map link for your request.";
+    /**
+     * Stores the places this query resolved as the session's most recent ones. Coordinates are
+     * taken from the geocode cache when the place was looked up; otherwise only the name is kept.
+     */
+    void rememberPlaces(String sessionId, List<IntentData> intents) {
+        if (sessionId == null || intents == null) return;
+
+        for (IntentData intent : intents) {
+            if (intent == null || intent.getIntent() == null) continue;
+            String intentName = intent.getIntent().trim().toLowerCase(Locale.ROOT);
+            if (intentName.equals("route") || intentName.equals("reachability") || intentName.equals("route_weather")) {
+                // Destination last, so it becomes the place "there" refers to
+                rememberPlace(sessionId, intent.getFromPlace());
+                rememberPlace(sessionId, intent.getToPlace());
+            } else {
+                rememberPlace(sessionId, intent.getPlace());
+            }
         }
     }
 
+    private void rememberPlace(String sessionId, String placeName) {
+        if (isNullOrEmpty(placeName)) return;
+        double[] coords = geocodeService.getCached(placeName);
+        contextStore.remember(sessionId, coords != null
+                ? new ResolvedPlace(placeName.trim(), coords[0], coords[1])
+                : new ResolvedPlace(placeName.trim(), Double.NaN, Double.NaN));
+    }
+
     private boolean isNullOrEmpty(String s) {
         return s == null || s.isBlank();
     }
 
-    private String buildMultiIntentPrompt(String userQuery) {
+    String buildMultiIntentPrompt(String userQuery, ResolvedPlace lastPlace) {
+        String context = lastPlace == null ? ""
+                : "The place the user mentioned most recently is \"" + lastPlace.name() + "\". "
+                + "If the query refers to it (there, that place, my destination), use \"" + lastPlace.name() + "\" as the place.\n";
         return "You are a smart assistant. Analyze the user query exactly: \"" + userQuery + "\".\n"
+                + context
                 + "Extract ALL intents present, and return ONLY a JSON array of objects with these fields:\n"
                 + "{\n"
-                + "  \"intent\": \"weather|route|charging|hotel|poi_search|media_play|general\",\n"
+                + "  \"intent\": \"weather|route|route_weather|charging|hotel|poi_search|reachability|reachable_chargers|media_play|general\",\n"
                 + "  \"place\": \"<location name or null>\",\n"
                 + "  \"fromPlace\": \"<origin or null>\",\n"
                 + "  \"toPlace\": \"<destination or null>\",\n"
                 + "  \"poiType\": \"<type of point of interest or null>\",\n"
+                + "  \"batteryPercent\": <battery percentage the user mentioned as a number, or null>,\n"
                 + "  \"response\": \"<free-form answer text or null>\"\n"
                 + "}\n"
+                + "Use \"route_weather\" when the user asks about the weather on the way or along the drive from fromPlace to toPlace.\n"
+                + "Use \"reachability\" when the user asks whether they can make it from fromPlace to toPlace on their charge, "
+                + "and \"reachable_chargers\" when they ask which charging stations near place they can reach.\n"
                 + "For example:\n"
                 + "[\n"
                 + "  {\"intent\":\"poi_search\", \"poiType\":\"coffee shop\", \"place\":\"Pune\", \"fromPlace\":null, \"toPlace\":null, \"response\":null},\n"
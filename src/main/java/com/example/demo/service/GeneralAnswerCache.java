@@ -0,0 +1,63 @@
+package com.example.demo.service;
+
+import com.example.demo.cache.NearDuplicateCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Answers to free-form ("general") questions, reused for paraphrases of a question asked before
+ * so "Nexon charging time" doesn't cost another Gemini call after "how long to charge a Nexon".
+ *
+ * Tuned with {@code assistant.general-cache.threshold} (Jaccard similarity of the normalized
+ * words and word pairs, 1.0 = same words only), {@code max-size} and {@code ttl-minutes}; questions
+ * with different numbers never share an answer.
+ */
+@Service
+public class GeneralAnswerCache {
+
+    private final boolean enabled;
+    private final NearDuplicateCache<String> cache;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public GeneralAnswerCache(@Value("${assistant.general-cache.enabled:true}") boolean enabled,
+                              @Value("${assistant.general-cache.threshold:0.7}") double threshold,
+                              @Value("${assistant.general-cache.max-size:2000}") int maxSize,
+                              @Value("${assistant.general-cache.ttl-minutes:360}") long ttlMinutes) {
+        this.enabled = enabled;
+        this.cache = new NearDuplicateCache<>(maxSize, ttlMinutes, TimeUnit.MINUTES, threshold);
+    }
+
+    /**
+     * A stored answer to this question or a close paraphrase of it, or null.
+     */
+    public String find(String question) {
+        if (!enabled) return null;
+        String answer = cache.get(question);
+        if (answer != null) hits.increment();
+        else misses.increment();
+        return answer;
+    }
+
+    public void remember(String question, String answer) {
+        if (enabled && answer != null && !answer.isBlank()) cache.put(question, answer);
+    }
+
+    /**
+     * Hit and miss counts, for the stats endpoint.
+     */
+    public Map<String, Object> snapshot() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("entries", cache.size());
+        stats.put("hits", hits.sum());
+        stats.put("misses", misses.sum());
+        return stats;
+    }
+}
@@ -0,0 +1,122 @@
+package com.example.demo.service;
+
+import com.example.demo.cluster.ClusterCacheBus;
+import com.example.demo.cluster.ClusteredCache;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestTemplate;
+
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+@Service
+public class GeocodeService {
+
+    private final RestTemplate restTemplate;
+    private final long connectTimeoutMs;
+    private final long readTimeoutMs;
+
+    // Place names rarely move, so resolved coordinates are kept for a day, and shared with the other replicas
+    private final ClusteredCache<double[]> cache;
+
+    public GeocodeService(ClusterCacheBus clusterCacheBus,
+                          @Value("${assistant.http.connect-timeout-ms:3000}") long connectTimeoutMs,
+                          @Value("${assistant.http.read-timeout-ms:12000}") long readTimeoutMs) {
+        this.connectTimeoutMs = connectTimeoutMs;
+        this.readTimeoutMs = readTimeoutMs;
+        this.restTemplate = RestTemplates.withTimeouts(connectTimeoutMs, readTimeoutMs);
+        this.cache = new ClusteredCache<>("geocode", 4096, 24, TimeUnit.HOURS, clusterCacheBus,
+                coords -> coords[0] + "," + coords[1],
+                GeocodeService::parseCoords);
+    }
+
+    /**
+     * Resolves a place name to coordinates using Nominatim, serving repeated names from cache.
+     * Shared by the weather, route and prefetch code so a place is only looked up once.
+     *
+     * @param placeName The name of the place (city, village, etc.)
+     * @return coordinates as {longitude, latitude}
+     */
+    public double[] geocode(String placeName) {
+        String key = normalize(placeName);
+        double[] coords = cache.getOrLoad(key, k -> lookup(placeName, restTemplate));
+        return coords.clone();
+    }
+
+    /**
+     * Like {@link #geocode(String)}, but a Nominatim lookup started by this call gives up after
+     * {@code timeoutMs}. For speculative work that must stay within a time budget.
+     */
+    public double[] geocode(String placeName, long timeoutMs) {
+        RestTemplate budgeted = RestTemplates.withTimeouts(Math.min(connectTimeoutMs, timeoutMs), Math.min(readTimeoutMs, timeoutMs));
+        double[] coords = cache.getOrLoad(normalize(placeName), k -> lookup(placeName, budgeted));
+        return coords.clone();
+    }
+
+    /**
+     * Returns cached coordinates for the place, or null if it has not been resolved yet.
+     */
+    public double[] getCached(String placeName) {
+        double[] coords = cache.get(normalize(placeName));
+        return coords == null ? null : coords.clone();
+    }
+
+    /**
+     * Stores coordinates freshly fetched from Nominatim outside {@link #geocode}, for example by the
+     * non-blocking path, and publishes them to the other replicas like a regular lookup.
+     */
+    public void store(String placeName, double[] coords) {
+        cache.put(normalize(placeName), coords.clone());
+    }
+
+    /**
+     * Seeds the cache with coordinates that were resolved earlier (for example kept in a
+     * conversation context), so the next lookup of that name skips Nominatim.
+     */
+    public void remember(String placeName, double[] coords) {
+        // Every node that knows the session can seed this itself, so it isn't broadcast
+        cache.putLocal(normalize(placeName), coords.clone());
+    }
+
+    private double[] lookup(String placeName, RestTemplate client) {
+        try {
+            String response = client.getForObject(searchUrl(placeName), String.class);
+            return parseFirstResult(placeName, response);
+        } catch (Exception e) {
+            throw new RuntimeException("Geocoding failed for " + placeName + ": " + e.getMessage());
+        }
+    }
+
+    String searchUrl(String placeName) {
+        return "https://nominatim.openstreetmap.org/search?q="
+                + URLEncoder.encode(placeName.trim(), StandardCharsets.UTF_8)
+                + "&format=json&limit=1";
+    }
+
+    double[] parseFirstResult(String placeName, String response) {
+        JSONArray arr = new JSONArray(response);
+
+        if (arr.length() == 0)
+            throw new RuntimeException("Place not found: " + placeName);
+
+        JSONObject first = arr.getJSONObject(0);
+        double lat = Double.parseDouble(first.getString("lat"));
+        double lon = Double.parseDouble(first.getString("lon"));
+
+        return new double[]{lon, lat};
+    }
+
+    // "lon,lat" as published to the other replicas
+    private static double[] parseCoords(String value) {
+        String[] parts = value.split(",");
+        return new double[]{Double.parseDouble(parts[0]), Double.parseDouble(parts[1])};
+    }
+
+    public static String normalize(String placeName) {
+        return placeName.trim().toLowerCase(Locale.ROOT).replaceAll("\\s+", " ");
+    }
+}
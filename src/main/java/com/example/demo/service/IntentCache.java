@@ -0,0 +1,116 @@
+package com.example.demo.service;
+
+import com.example.demo.cache.TtlCache;
+import com.example.demo.entity.IntentData;
+import com.example.demo.entity.ResolvedPlace;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Gemini's classification of a command, so a command heard before ("navigate to Pune",
+ * "chargers near Nashik") is understood without another Gemini round trip.
+ *
+ * Keyed by the normalized command text plus the session place it was resolved against, since
+ * "weather there?" means something else in every conversation. Classifications containing a
+ * {@code general} intent are not kept: their answer text is Gemini's reply itself and may be
+ * time-sensitive; paraphrased general questions are served by {@link GeneralAnswerCache} instead.
+ * Entries are stored as JSON and every hit gets its own copy, because callers fill in places.
+ */
+@Slf4j
+@Service
+public class IntentCache {
+
+    private static final TypeReference<List<IntentData>> INTENT_LIST = new TypeReference<>() {};
+
+    private final boolean enabled;
+    private final TtlCache<String, String> cache;
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .setSerializationInclusion(JsonInclude.Include.NON_NULL);
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public IntentCache(@Value("${assistant.intent-cache.enabled:true}") boolean enabled,
+                       @Value("${assistant.intent-cache.max-size:4096}") int maxSize,
+                       @Value("${assistant.intent-cache.ttl-minutes:720}") long ttlMinutes) {
+        this.enabled = enabled;
+        this.cache = new TtlCache<>(maxSize, ttlMinutes, TimeUnit.MINUTES);
+    }
+
+    /**
+     * Lower-cased command text with runs of whitespace collapsed and trailing punctuation removed,
+     * so "Weather in  Pune?" and "weather in pune" are the same command.
+     */
+    public static String normalize(String text) {
+        if (text == null) return "";
+        String normalized = text.trim().toLowerCase(Locale.ROOT).replaceAll("\\s+", " ");
+        return normalized.replaceAll("[\\s.!?,]+$", "");
+    }
+
+    /**
+     * A copy of the stored classification of this command, or null.
+     */
+    public List<IntentData> get(String query, ResolvedPlace lastPlace) {
+        if (!enabled) return null;
+        String json = cache.get(key(query, lastPlace));
+        if (json == null) {
+            misses.increment();
+            return null;
+        }
+        try {
+            List<IntentData> intents = objectMapper.readValue(json, INTENT_LIST);
+            hits.increment();
+            return intents;
+        } catch (Exception e) {
+            misses.increment();
+            return null;
+        }
+    }
+
+    /**
+     * Stores the classification of a command; {@code lastPlace} is null for commands understood
+     * without session context, which is also how the query journal replays them at startup.
+     */
+    public void put(String query, ResolvedPlace lastPlace, List<IntentData> intents) {
+        if (!enabled || intents == null || intents.isEmpty() || normalize(query).isEmpty()) return;
+        for (IntentData intent : intents) {
+            if (intent == null || intent.getIntent() == null || "general".equalsIgnoreCase(intent.getIntent().trim())) return;
+        }
+        try {
+            cache.put(key(query, lastPlace), objectMapper.writeValueAsString(intents));
+        } catch (Exception e) {
+            log.debug("Could not cache intents for '{}': {}", query, e.getMessage());
+        }
+    }
+
+    public int size() {
+        return cache.size();
+    }
+
+    /**
+     * Hit and miss counts, for the stats endpoint.
+     */
+    public Map<String, Object> snapshot() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("entries", cache.size());
+        stats.put("hits", hits.sum());
+        stats.put("misses", misses.sum());
+        return stats;
+    }
+
+    private static String key(String query, ResolvedPlace lastPlace) {
+        return normalize(query) + '|' + (lastPlace == null ? "" : GeocodeService.normalize(lastPlace.name()));
+    }
+}
@@ -0,0 +1,105 @@
+package com.example.demo.service;
+
+import com.example.demo.cache.TtlCache;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Speculatively warms the caches a follow-up command is likely to need.
+ *
+ * After a route is answered the next utterance is usually "weather at my destination" or
+ * "charging stations near X", so the destination's coordinates and current weather are fetched
+ * on low-priority background threads. Work beyond the configured budget (threads, queue slots
+ * and time per destination) is simply dropped; prefetching is never allowed to compete with
+ * live requests. Every upstream request gets only the time left in the budget as its timeout,
+ * and a live request for the same place joins the prefetch's lookup instead of repeating it.
+ */
+@Slf4j
+@Service
+public class PrefetchService {
+
+    private final GeocodeService geocodeService;
+    private final WeatherService weatherService;
+    private final ThreadPoolExecutor executor;
+    private final long budgetNanos;
+
+    // Destinations warmed recently, so repeated route requests don't queue the same work again
+    private final TtlCache<String, Boolean> recentlyWarmed = new TtlCache<>(512, 5, TimeUnit.MINUTES);
+
+    public PrefetchService(GeocodeService geocodeService,
+                           WeatherService weatherService,
+                           @Value("${assistant.prefetch.threads:2}") int threads,
+                           @Value("${assistant.prefetch.queue-size:16}") int queueSize,
+                           @Value("${assistant.prefetch.budget-ms:3000}") long budgetMs) {
+        this.geocodeService = geocodeService;
+        this.weatherService = weatherService;
+        this.budgetNanos = TimeUnit.MILLISECONDS.toNanos(budgetMs);
+
+        AtomicInteger counter = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 30, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueSize),
+                r -> {
+                    Thread t = new Thread(r, "prefetch-" + counter.incrementAndGet());
+                    t.setDaemon(true);
+                    t.setPriority(Thread.MIN_PRIORITY);
+                    return t;
+                });
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Queues a background warm-up of geocode and current weather for the destination.
+     * Returns immediately; does nothing when the prefetch queue is full.
+     */
+    public void warmDestination(String place) {
+        if (place == null || place.isBlank()) return;
+
+        String key = place.trim().toLowerCase(Locale.ROOT);
+        if (recentlyWarmed.get(key) != null) return;
+        recentlyWarmed.put(key, Boolean.TRUE);
+
+        try {
+            executor.execute(() -> warm(place, key));
+        } catch (RejectedExecutionException e) {
+            // Over budget: drop the speculative work rather than queue it
+            recentlyWarmed.remove(key);
+        }
+    }
+
+    private void warm(String place, String key) {
+        long deadline = System.nanoTime() + budgetNanos;
+        try {
+            long remainingMs = remainingMs(deadline);
+            if (remainingMs <= 0) return;
+            double[] coords = geocodeService.geocode(place, remainingMs);
+
+            remainingMs = remainingMs(deadline);
+            if (remainingMs <= 0) return;
+            // Charging and hotel answers are map links built from the place name alone,
+            // so the geocode and weather lookups are the only upstream work to warm.
+            weatherService.getWeatherAt(coords, remainingMs);
+        } catch (Exception e) {
+            log.debug("Prefetch for {} failed: {}", place, e.getMessage());
+            // A transient upstream error shouldn't keep the destination cold for the next route
+            recentlyWarmed.remove(key);
+        }
+    }
+
+    private static long remainingMs(long deadline) {
+        return TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.demo.service;
+
+import com.example.demo.entity.ChargerSet;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * Energy model behind "can I make it?" and "which chargers can I reach?".
+ *
+ * Consumption starts from a base Wh/km figure and is adjusted for temperature (cabin heating and
+ * battery losses below 20°C, air conditioning above 25°C) and speed (aerodynamic drag grows with
+ * the square of speed above a 60 km/h reference). Usable range keeps a reserve of charge back.
+ * Pure arithmetic, no I/O, so it can be called on any thread.
+ */
+@Service
+public class ReachabilityEngine {
+
+    private static final double EARTH_RADIUS_KM = 6371.0;
+    private static final double REFERENCE_SPEED_KMH = 60.0;
+
+    private final double batteryCapacityKwh;
+    private final double baseWhPerKm;
+    private final double reservePercent;
+    private final double roadFactor;
+
+    public ReachabilityEngine(@Value("${ev.battery.capacity-kwh:40.5}") double batteryCapacityKwh,
+                              @Value("${ev.consumption.base-wh-per-km:140}") double baseWhPerKm,
+                              @Value("${ev.reserve-percent:10}") double reservePercent,
+                              @Value("${ev.road-factor:1.25}") double roadFactor) {
+        this.batteryCapacityKwh = batteryCapacityKwh;
+        this.baseWhPerKm = baseWhPerKm;
+        this.reservePercent = reservePercent;
+        this.roadFactor = roadFactor;
+    }
+
+    /**
+     * Estimated consumption in Wh/km at the given ambient temperature and average speed.
+     */
+    public double consumptionWhPerKm(double tempC, double speedKmh) {
+        double tempFactor = 1.0;
+        if (tempC < 20) {
+            tempFactor += 0.015 * (20 - tempC);
+        } else if (tempC > 25) {
+            tempFactor += 0.01 * (tempC - 25);
+        }
+
+        double speedRatio = speedKmh / REFERENCE_SPEED_KMH;
+        double speedFactor = Math.max(0.9, 1.0 + 0.15 * (speedRatio * speedRatio - 1.0));
+
+        return baseWhPerKm * tempFactor * speedFactor;
+    }
+
+    /**
+     * Kilometres the vehicle can drive before reaching the reserve.
+     */
+    public double usableRangeKm(double socPercent, double tempC, double speedKmh) {
+        double usablePercent = Math.max(0, socPercent - reservePercent);
+        double usableWh = usablePercent / 100.0 * batteryCapacityKwh * 1000.0;
+        return usableWh / consumptionWhPerKm(tempC, speedKmh);
+    }
+
+    /**
+     * Checks every candidate in one pass over the coordinate arrays.
+     *
+     * Road distance is estimated as great-circle distance times the configured road factor and
+     * written to {@code roadDistanceKm[i]}; a candidate is reachable when that is within {@code rangeKm}.
+     *
+     * @return number of reachable candidates
+     */
+    public int evaluateCandidates(double originLat, double originLon, ChargerSet candidates,
+                                  double rangeKm, double[] roadDistanceKm) {
+        double[] lats = candidates.lats();
+        double[] lons = candidates.lons();
+        double lat0 = Math.toRadians(originLat);
+        double lon0 = Math.toRadians(originLon);
+        double cosLat0 = Math.cos(lat0);
+        double factor = 2 * EARTH_RADIUS_KM * roadFactor;
+
+        int reachable = 0;
+        for (int i = 0; i < lats.length; i++) {
+            double lat = Math.toRadians(lats[i]);
+            double sinDLat = Math.sin((lat - lat0) * 0.5);
+            double sinDLon = Math.sin((Math.toRadians(lons[i]) - lon0) * 0.5);
+            double h = sinDLat * sinDLat + cosLat0 * Math.cos(lat) * sinDLon * sinDLon;
+            double km = factor * Math.asin(Math.sqrt(Math.min(1.0, h)));
+            roadDistanceKm[i] = km;
+            if (km <= rangeKm) reachable++;
+        }
+        return reachable;
+    }
+
+    public double getReservePercent() {
+        return reservePercent;
+    }
+}
@@ -0,0 +1,208 @@
+package com.example.demo.service;
+
+import com.example.demo.entity.ChargerSet;
+import com.example.demo.entity.CurrentWeather;
+import com.example.demo.entity.RouteEstimate;
+import com.example.demo.entity.VehicleState;
+import com.example.demo.telemetry.TelemetryService;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Answers "can I make it?" and "which chargers can I reach?" by combining the route from
+ * {@link RouteService}, the temperature from {@link WeatherService}, the battery level (given by
+ * the driver or read from {@link TelemetryService}) and the {@link ReachabilityEngine} model.
+ *
+ * Telemetry describes the one vehicle attached to this node, so it only stands in for a missing
+ * battery level or speed when that vehicle is the one asking. Anyone else is asked for the level.
+ */
+@Service
+public class ReachabilityService {
+
+    // Telemetry older than this is not trusted as the current battery level
+    private static final long TELEMETRY_MAX_AGE_MS = 60_000;
+    // Assumed ambient temperature and speed when weather or route data is unavailable
+    private static final double DEFAULT_TEMP_C = 20.0;
+    private static final double DEFAULT_SPEED_KMH = 60.0;
+    private static final int NEAREST_TO_LIST = 3;
+
+    private final ReachabilityEngine engine;
+    private final GeocodeService geocodeService;
+    private final RouteService routeService;
+    private final WeatherService weatherService;
+    private final ChargerDirectoryService chargerDirectoryService;
+    private final TelemetryService telemetryService;
+
+    public ReachabilityService(ReachabilityEngine engine,
+                               GeocodeService geocodeService,
+                               RouteService routeService,
+                               WeatherService weatherService,
+                               ChargerDirectoryService chargerDirectoryService,
+                               TelemetryService telemetryService) {
+        this.engine = engine;
+        this.geocodeService = geocodeService;
+        this.routeService = routeService;
+        this.weatherService = weatherService;
+        this.chargerDirectoryService = chargerDirectoryService;
+        this.telemetryService = telemetryService;
+    }
+
+    /**
+     * Whether the vehicle can drive from one place to another on its current charge.
+     *
+     * @param socPercent battery level in %, or null to use live telemetry
+     * @param vehicleId  the asking vehicle; telemetry is only used when it is attached to this node
+     */
+    public String canReach(String from, String to, Double socPercent, String vehicleId) {
+        return canReach(from, to, socPercent, vehicleId, directScope());
+    }
+
+    /**
+     * Same as {@link #canReach(String, String, Double, String)}, taking the route, coordinates and
+     * weather from {@code scope}, where the intent planner may already have fetched them.
+     */
+    public String canReach(String from, String to, Double socPercent, String vehicleId, FetchScope scope) {
+        Double soc = resolveSoc(socPercent, vehicleId);
+        if (soc == null) {
+            return "I don't know your current battery level. Please tell me the percentage, for example \"I have 60% charge\".";
+        }
+        try {
+            double[] fromCoords = value(scope.geocode(from));
+            RouteEstimate route = value(scope.route(from, to));
+            if (route == null) {
+                return "Sorry, I could not find a route between those locations.";
+            }
+
+            double speed = route.durationHrs() > 0 ? route.distanceKm() / route.durationHrs() : DEFAULT_SPEED_KMH;
+            double temp = temperatureAt(fromCoords, scope);
+            double range = engine.usableRangeKm(soc, temp, speed);
+            double margin = range - route.distanceKm();
+
+            if (margin >= 0) {
+                return String.format(
+                        "Yes, you can make it. %s to %s is %.0f km and with %.0f%% charge you have about %.0f km of usable range "
+                                + "at %.0f°C, leaving roughly %.0f km before your %.0f%% reserve.",
+                        from, to, route.distanceKm(), soc, range, temp, margin, engine.getReservePercent());
+            }
+            return String.format(
+                    "You probably can't make it without charging. %s to %s is %.0f km but with %.0f%% charge you have about "
+                            + "%.0f km of usable range at %.0f°C, so you'd be about %.0f km short. Plan a charging stop on the way.",
+                    from, to, route.distanceKm(), soc, range, temp, -margin);
+        } catch (Exception e) {
+            return "Sorry, I couldn't work out whether you can reach " + to + ". Please try a more specific place name.";
+        }
+    }
+
+    /**
+     * Charging stations near a place that are within usable range of the vehicle.
+     *
+     * @param socPercent battery level in %, or null to use live telemetry
+     * @param vehicleId  the asking vehicle; telemetry is only used when it is attached to this node
+     * @param origin     vehicle position as {longitude, latitude}, or null to measure from the place
+     */
+    public String reachableChargers(String place, Double socPercent, String vehicleId, double[] origin) {
+        return reachableChargers(place, socPercent, vehicleId, origin, directScope());
+    }
+
+    /**
+     * Same as {@link #reachableChargers(String, Double, String, double[])}, taking the coordinates,
+     * chargers and weather from {@code scope}.
+     */
+    public String reachableChargers(String place, Double socPercent, String vehicleId, double[] origin,
+                                    FetchScope scope) {
+        Double soc = resolveSoc(socPercent, vehicleId);
+        if (soc == null) {
+            return "I don't know your current battery level. Please tell me the percentage, for example \"I have 30% charge\".";
+        }
+        try {
+            double[] coords = value(scope.geocode(place));
+            ChargerSet chargers = value(scope.chargersAt(coords));
+            if (chargers.size() == 0) {
+                return "I couldn't find any charging stations listed near " + place + ".";
+            }
+
+            // Range is what the battery covers from where the vehicle is, not from the searched place
+            double[] from = origin != null ? origin : coords;
+            String measuredFrom = origin != null ? " from where you are" : "";
+            double temp = temperatureAt(from, scope);
+            double range = engine.usableRangeKm(soc, temp, currentSpeedOrDefault(vehicleId));
+            double[] distances = new double[chargers.size()];
+            int reachable = engine.evaluateCandidates(from[1], from[0], chargers, range, distances);
+
+            if (reachable == 0) {
+                return String.format(
+                        "With %.0f%% charge you have about %.0f km of usable range, and none of the %d charging stations near %s is within it%s.",
+                        soc, range, chargers.size(), place, measuredFrom);
+            }
+
+            StringBuilder reply = new StringBuilder(String.format(
+                    "With %.0f%% charge you have about %.0f km of usable range. %d of %d charging stations near %s are reachable%s. Closest:",
+                    soc, range, reachable, chargers.size(), place, measuredFrom));
+            for (int i : nearestReachable(distances, range)) {
+                reply.append(String.format("\n- %s (about %.1f km)", chargers.names()[i], distances[i]));
+            }
+            return reply.toString();
+        } catch (Exception e) {
+            return "Sorry, I couldn't check charging stations near " + place + " right now.";
+        }
+    }
+
+    private Double resolveSoc(Double socPercent, String vehicleId) {
+        if (socPercent != null && socPercent >= 0 && socPercent <= 100) return socPercent;
+        if (!telemetryService.isAttachedTo(vehicleId)) return null;
+        VehicleState state = telemetryService.getLatestState();
+        if (state.isFresh(TELEMETRY_MAX_AGE_MS) && !Double.isNaN(state.stateOfChargePercent())) {
+            return state.stateOfChargePercent();
+        }
+        return null;
+    }
+
+    private double currentSpeedOrDefault(String vehicleId) {
+        if (!telemetryService.isAttachedTo(vehicleId)) return DEFAULT_SPEED_KMH;
+        VehicleState state = telemetryService.getLatestState();
+        double speed = state.speedKmh();
+        return state.isFresh(TELEMETRY_MAX_AGE_MS) && speed > 5 ? speed : DEFAULT_SPEED_KMH;
+    }
+
+    private double temperatureAt(double[] coords, FetchScope scope) {
+        try {
+            CurrentWeather weather = value(scope.weatherAt(coords));
+            return weather != null ? weather.temperature() : DEFAULT_TEMP_C;
+        } catch (Exception e) {
+            return DEFAULT_TEMP_C;
+        }
+    }
+
+    // Lookups run inline on the calling thread, as before the planner existed
+    private FetchScope directScope() {
+        return new FetchScope(geocodeService, weatherService, routeService, chargerDirectoryService, Runnable::run);
+    }
+
+    private static <T> T value(CompletableFuture<T> lookup) {
+        try {
+            return lookup.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException re) throw re;
+            throw e;
+        }
+    }
+
+    // Indices of the closest reachable candidates, nearest first
+    private List<Integer> nearestReachable(double[] distances, double range) {
+        List<Integer> nearest = new ArrayList<>(NEAREST_TO_LIST);
+        for (int i = 0; i < distances.length; i++) {
+            if (distances[i] > range) continue;
+            int pos = nearest.size();
+            while (pos > 0 && distances[nearest.get(pos - 1)] > distances[i]) pos--;
+            if (pos < NEAREST_TO_LIST) {
+                nearest.add(pos, i);
+                if (nearest.size() > NEAREST_TO_LIST) nearest.remove(NEAREST_TO_LIST);
+            }
+        }
+        return nearest;
+    }
+}
@@ -0,0 +1,202 @@
+package com.example.demo.service;
+
+import com.example.demo.entity.CurrentWeather;
+import com.example.demo.entity.IntentData;
+import com.example.demo.entity.ResolvedPlace;
+import com.example.demo.intent.IntentPlanner;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+/**
+ * Non-blocking counterparts of {@link GeminiSmartService#handleQuery}, {@link WeatherService} and
+ * {@link RouteService}.
+ *
+ * Remote calls go through {@link WebClient} and the async Gemini client, and are composed instead of
+ * waited on, so a request holds no thread while Nominatim, Open-Meteo, OSRM or Gemini respond.
+ * The caches, prompt building, parsing and formatting are shared with the blocking services, so both
+ * paths give the same answers and warm the same caches. The WebClient uses the same
+ * {@code assistant.http.*} timeouts as the blocking clients.
+ *
+ * Not every intent is non-blocking yet: intents other than weather and general are handed to the
+ * {@link IntentPlanner}, whose handlers (routes, place search, reachability) still call the blocking
+ * services on the planner's own pool. Those requests hold a planner thread, never a servlet or
+ * Netty thread. Measure with {@code VoiceCommandLoadHarness} in the test sources.
+ */
+@Service
+public class ReactiveAssistantService {
+
+    private final WebClient webClient;
+
+    private final GeminiService geminiService;
+    private final GeminiSmartService geminiSmartService;
+    private final GeocodeService geocodeService;
+    private final WeatherService weatherService;
+    private final RouteService routeService;
+    private final IntentPlanner intentPlanner;
+    private final GeneralAnswerCache generalAnswerCache;
+
+    // Lookups on their way, so concurrent misses for one key share a single remote call
+    private final ConcurrentMap<String, Mono<double[]>> geocodesInFlight = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Mono<CurrentWeather>> weatherInFlight = new ConcurrentHashMap<>();
+
+    public ReactiveAssistantService(GeminiService geminiService,
+                                    GeminiSmartService geminiSmartService,
+                                    GeocodeService geocodeService,
+                                    WeatherService weatherService,
+                                    RouteService routeService,
+                                    IntentPlanner intentPlanner,
+                                    GeneralAnswerCache generalAnswerCache,
+                                    @Value("${assistant.http.connect-timeout-ms:3000}") long connectTimeoutMs,
+                                    @Value("${assistant.http.read-timeout-ms:12000}") long readTimeoutMs) {
+        this.webClient = RestTemplates.webClientWithTimeouts(connectTimeoutMs, readTimeoutMs);
+        this.geminiService = geminiService;
+        this.geminiSmartService = geminiSmartService;
+        this.geocodeService = geocodeService;
+        this.weatherService = weatherService;
+        this.routeService = routeService;
+        this.intentPlanner = intentPlanner;
+        this.generalAnswerCache = generalAnswerCache;
+    }
+
+    /**
+     * Same behaviour as {@link GeminiSmartService#handleQuery(String, String)}, without blocking.
+     * Independent intents of one query run concurrently; replies keep the intents' order.
+     */
+    public Mono<String> handleQuery(String userQuery, String sessionId) {
+        ResolvedPlace lastPlace = geminiSmartService.lastPlaceFor(sessionId);
+        double[] origin = geminiSmartService.positionFor(sessionId);
+
+        long start = System.nanoTime();
+        Mono<List<IntentData>> intents = Mono.fromFuture(
+                () -> geminiSmartService.classifyAsync(userQuery, lastPlace, GeminiGovernor.Lane.INTERACTIVE));
+
+        // One scope per query, so intents that need the same place share its lookups
+        FetchScope scope = intentPlanner.newScope();
+        return intents
+                .flatMap(list -> Flux.fromIterable(list.stream().filter(Objects::nonNull).toList())
+                        .flatMapSequential(intent -> processIntent(intent, userQuery, scope, sessionId, origin))
+                        .filter(reply -> !reply.isEmpty())
+                        .collectList()
+                        .map(replies -> {
+                            geminiSmartService.rememberPlaces(sessionId, list);
+                            geminiSmartService.journal(userQuery, lastPlace, list, start);
+                            return replies.isEmpty()
+                                    ? IntentPlanner.UNPROCESSED_REPLY
+                                    : String.join("\n\n", replies).trim();
+                        }))
+                .onErrorResume(e -> Mono.just(GeminiSmartService.ERROR_REPLY));
+    }
+
+    /**
+     * Non-blocking {@link WeatherService#getCurrentWeather}.
+     */
+    public Mono<String> getCurrentWeather(String placeName) {
+        return geocode(placeName)
+                .flatMap(this::weatherAt)
+                .map(current -> weatherService.formatCurrentWeather(placeName, current))
+                .defaultIfEmpty("Sorry, I couldn't get the current weather data for " + placeName + ".")
+                .onErrorResume(e -> Mono.just("Sorry, I couldn't get the weather for \"" + placeName + "\". Please try again."));
+    }
+
+    /**
+     * Non-blocking {@link RouteService#getRouteSummary}. Both ends are geocoded concurrently.
+     */
+    public Mono<String> getRouteSummary(String from, String to) {
+        return Mono.zip(geocode(from), geocode(to))
+                .flatMap(coords -> webClient.get()
+                        .uri(routeService.routeUrl(coords.getT1(), coords.getT2()))
+                        .retrieve()
+                        .bodyToMono(String.class))
+                .map(response -> {
+                    var route = routeService.parseRoute(response);
+                    return route == null
+                            ? "Sorry, I could not find a route between those locations."
+                            : routeService.formatRouteSummary(from, to, route);
+                })
+                .onErrorResume(e -> Mono.just("Sorry, I couldn't find one of the locations or route. Please try a more specific place name."));
+    }
+
+    /**
+     * Coordinates ({lon, lat}) from the shared geocode cache, or from Nominatim on a miss.
+     * Concurrent misses for the same place wait on one Nominatim call.
+     */
+    public Mono<double[]> geocode(String placeName) {
+        double[] cached = geocodeService.getCached(placeName);
+        if (cached != null) return Mono.just(cached);
+
+        return singleFlight(geocodesInFlight, GeocodeService.normalize(placeName), () -> webClient.get()
+                .uri(geocodeService.searchUrl(placeName))
+                .retrieve()
+                .bodyToMono(String.class)
+                .map(response -> {
+                    double[] coords = geocodeService.parseFirstResult(placeName, response);
+                    geocodeService.store(placeName, coords);
+                    return coords;
+                }));
+    }
+
+    /**
+     * Current weather at the coordinates from the shared cache, or from Open-Meteo on a miss.
+     * Concurrent misses for the same cache cell wait on one Open-Meteo call.
+     */
+    public Mono<CurrentWeather> weatherAt(double[] coords) {
+        CurrentWeather cached = weatherService.getCachedWeatherAt(coords);
+        if (cached != null) return Mono.just(cached);
+
+        return singleFlight(weatherInFlight, weatherService.weatherKey(coords), () -> webClient.get()
+                .uri(weatherService.currentWeatherUrl(coords))
+                .retrieve()
+                .bodyToMono(String.class)
+                .mapNotNull(response -> {
+                    CurrentWeather current = weatherService.parseCurrentWeather(response);
+                    weatherService.rememberWeatherAt(coords, current);
+                    return current;
+                }));
+    }
+
+    /**
+     * Shares one fetch between every caller that asks for the key while it is running. The entry is
+     * dropped once the fetch finishes, so a later miss (or a retry after an error) fetches again.
+     */
+    static <T> Mono<T> singleFlight(ConcurrentMap<String, Mono<T>> inFlight, String key, Supplier<Mono<T>> fetch) {
+        return Mono.defer(() -> inFlight.computeIfAbsent(key, k -> fetch.get()
+                .doOnTerminate(() -> inFlight.remove(k))
+                .cache()));
+    }
+
+    private Mono<String> processIntent(IntentData intent, String userQuery, FetchScope scope,
+                                      String vehicleId, double[] origin) {
+        String intentName = intent.getIntent() == null ? "" : intent.getIntent().trim().toLowerCase();
+
+        // Weather and the general fallback call remote services without blocking; everything else
+        // goes through the intent planner, whose handlers run on its own threads and may block there.
+        if (intentName.equals("weather") && !isNullOrEmpty(intent.getPlace())) {
+            return getCurrentWeather(intent.getPlace());
+        }
+        if (intentName.equals("general") && isNullOrEmpty(intent.getResponse())) {
+            String cached = generalAnswerCache.find(userQuery);
+            if (cached != null) return Mono.just(cached);
+            return Mono.fromFuture(() -> geminiService.askGeminiAsync("Answer concisely:\n" + userQuery, GeminiGovernor.Lane.INTERACTIVE))
+                    .map(answer -> {
+                        if (isNullOrEmpty(answer)) return "Sorry, I don't have an answer for that.";
+                        generalAnswerCache.remember(userQuery, answer.trim());
+                        return answer.trim();
+                    })
+                    .onErrorResume(e -> Mono.just("I had trouble generating a response. Please try again."));
+        }
+        return Mono.fromFuture(() -> intentPlanner.handle(intent, userQuery, scope, vehicleId, origin));
+    }
+
+    private boolean isNullOrEmpty(String s) {
+        return s == null || s.isBlank();
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.demo.service;
+
+import io.netty.channel.ChannelOption;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.client.HttpClient;
+
+import java.time.Duration;
+
+/**
+ * RestTemplates and WebClients for the upstream APIs. A client without timeouts waits forever on a
+ * stalled upstream and holds the calling thread (or, for a WebClient, the pending request) with it,
+ * so every upstream client is built here.
+ */
+public final class RestTemplates {
+
+    private RestTemplates() {
+    }
+
+    public static RestTemplate withTimeouts(long connectTimeoutMs, long readTimeoutMs) {
+        SimpleClientHttpRequestFactory factory = new SimpleClientHttpRequestFactory();
+        factory.setConnectTimeout((int) Math.max(1, connectTimeoutMs));
+        factory.setReadTimeout((int) Math.max(1, readTimeoutMs));
+        return new RestTemplate(factory);
+    }
+
+    /**
+     * A WebClient whose connections time out after {@code connectTimeoutMs} and whose responses
+     * fail with a timeout when nothing arrives within {@code readTimeoutMs}.
+     */
+    public static WebClient webClientWithTimeouts(long connectTimeoutMs, long readTimeoutMs) {
+        HttpClient httpClient = HttpClient.create()
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) Math.max(1, connectTimeoutMs))
+                .responseTimeout(Duration.ofMillis(Math.max(1, readTimeoutMs)));
+        return WebClient.builder()
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .build();
+    }
+}
@@ -1,51 +1,45 @@
 package com.example.demo.service;
 
+import com.example.demo.cache.TtlCache;
+import com.example.demo.entity.RouteEstimate;
+import com.example.demo.entity.RoutePath;
 import org.json.JSONArray;    // Helps handle arrays in JSON format
 import org.json.JSONObject;   // Helps handle objects in JSON format
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;  // Marks this class as a Service in Spring Boot
 import org.springframework.web.client.RestTemplate;  // Used to make HTTP requests to other services
 
 import java.net.URLEncoder;  // Helps to safely encode strings for URLs (replace spaces, special chars)
 import java.nio.charset.StandardCharsets;  // Defines standard character encodings like UTF-8
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
 
 @Service  // This tells Spring Boot that this class does some business logic and can be used in other parts of the app
 public class RouteService {
 
     // Create a tool to send HTTP requests and get responses from websites or APIs
-    private final RestTemplate restTemplate = new RestTemplate();
+    private final RestTemplate restTemplate;
 
-    // This method takes a place name like "Mumbai" and finds its GPS coordinates (longitude, latitude)
-    public double[] geocodePlace(String placeName) {
-        try {
-            // Build a URL to ask the OpenStreetMap service called Nominatim for the place's location
-            // We encode the place name so spaces and symbols don't break the web address
-            String url = "https://nominatim.openstreetmap.org/search?q="
-                    + URLEncoder.encode(placeName.trim(), StandardCharsets.UTF_8)
-                    + "&format=json&limit=1";  // We ask for the response in JSON format and only 1 result
-
-            // Send a GET request to that URL and store the response as a string (JSON data)
-            String response = restTemplate.getForObject(url, String.class);
-
-            // Parse the response text as a JSON array (list of results)
-            JSONArray arr = new JSONArray(response);
+    // Shared geocoder so route, weather and prefetch lookups reuse the same cached coordinates
+    private final GeocodeService geocodeService;
 
-            // If no results found, throw an error that the place was not found
-            if (arr.length() == 0)
-                throw new RuntimeException("Place not found: " + placeName);
+    // Route distance and duration between two points barely change, so they are kept for half an hour
+    private final TtlCache<String, RouteEstimate> routeCache = new TtlCache<>(1024, 30, TimeUnit.MINUTES);
 
-            // Pick the first result from the list, it's the best guess
-            JSONObject obj = arr.getJSONObject(0);
+    // Full route geometries are much larger, so fewer of them are kept
+    private final TtlCache<String, RoutePath> pathCache = new TtlCache<>(128, 30, TimeUnit.MINUTES);
 
-            // Extract the latitude and longitude values (they come as strings, so convert to double numbers)
-            double lat = Double.parseDouble(obj.getString("lat"));
-            double lon = Double.parseDouble(obj.getString("lon"));
+    public RouteService(GeocodeService geocodeService,
+                        @Value("${assistant.http.connect-timeout-ms:3000}") long connectTimeoutMs,
+                        @Value("${assistant.http.read-timeout-ms:12000}") long readTimeoutMs) {
+        this.geocodeService = geocodeService;
+        this.restTemplate = RestTemplates.withTimeouts(connectTimeoutMs, readTimeoutMs);
+    }
 
-            // Return the coordinates as a double array: longitude first, then latitude
-            return new double[]{lon, lat};
-        } catch (Exception e) {
-            // If anything goes wrong, throw a clear message including place name and error details
-            throw new RuntimeException("Geocoding failed for " + placeName + ": " + e.getMessage());
-        }
+    // This method takes a place name like "Mumbai" and finds its GPS coordinates (longitude, latitude)
+    public double[] geocodePlace(String placeName) {
+        // Returns the coordinates as a double array: longitude first, then latitude
+        return geocodeService.geocode(placeName);
     }
 
     // This method takes two place names and gets a simple route summary including time, distance, and a Google Maps link
@@ -57,50 +51,131 @@ public class RouteService {
             // Find coordinates for the destination place
             double[] toCoords = geocodePlace(to);
 
-            // Build the URL to call the OSRM routing service providing start and end coordinates
-            // The format has longitude and latitude pairs separated by a semicolon
-            String routeUrl = String.format(
-                    "https://router.project-osrm.org/route/v1/driving/%.7f,%.7f;%.7f,%.7f?overview=false",
-                    fromCoords[0], fromCoords[1], toCoords[0], toCoords[1]
-            );
+            // Ask OSRM for the best route between the two coordinates
+            RouteEstimate route = getRouteEstimate(fromCoords, toCoords);
+
+            // If no route is found by OSRM, let user know we couldn't find a path
+            if (route == null)
+                return "Sorry, I could not find a route between those locations.";
+
+            return formatRouteSummary(from, to, route);
+        } catch (Exception e) {
+            // If anything goes wrong here, return a friendly error message to the user
+            return "Sorry, I couldn't find one of the locations or route. Please try a more specific place name.";
+        }
+    }
 
+    // This method asks OSRM for the distance and time between two coordinates ({lon, lat}), or null if there is no route
+    public RouteEstimate getRouteEstimate(double[] fromCoords, double[] toCoords) {
+        // Reuse a route between the same two points (rounded to ~10 m) fetched recently
+        String key = String.format(Locale.ROOT, "%.4f,%.4f;%.4f,%.4f", fromCoords[0], fromCoords[1], toCoords[0], toCoords[1]);
+        return routeCache.getOrLoad(key, k -> {
             // Send a GET request to the routing URL and get the JSON response as a string
-            String response = restTemplate.getForObject(routeUrl, String.class);
+            String response = restTemplate.getForObject(routeUrl(fromCoords, toCoords), String.class);
+            return parseRoute(response);
+        });
+    }
 
-            // Parse the response string into a JSON object so we can extract needed info
-            JSONObject json = new JSONObject(response);
+    // This method asks OSRM for the full route shape with the driving time to every point, or null if there is no route
+    public RoutePath getRoutePath(double[] fromCoords, double[] toCoords) {
+        String key = String.format(Locale.ROOT, "%.4f,%.4f;%.4f,%.4f", fromCoords[0], fromCoords[1], toCoords[0], toCoords[1]);
+        return pathCache.getOrLoad(key, k -> {
+            String url = String.format(Locale.ROOT,
+                    "https://router.project-osrm.org/route/v1/driving/%.7f,%.7f;%.7f,%.7f?overview=full&geometries=geojson&annotations=duration",
+                    fromCoords[0], fromCoords[1], toCoords[0], toCoords[1]);
+            return parseRoutePath(restTemplate.getForObject(url, String.class));
+        });
+    }
 
-            // Extract the array of possible routes found (usually multiple possible routes)
-            JSONArray routes = json.getJSONArray("routes");
+    // Reads the geometry and per-segment durations of the first route; null when OSRM found none
+    RoutePath parseRoutePath(String response) {
+        JSONArray routes = new JSONObject(response).optJSONArray("routes");
+        if (routes == null || routes.length() == 0)
+            return null;
+
+        JSONObject route = routes.getJSONObject(0);
+        JSONArray coordinates = route.getJSONObject("geometry").getJSONArray("coordinates");
+        int n = coordinates.length();
+        double[] lons = new double[n];
+        double[] lats = new double[n];
+        for (int i = 0; i < n; i++) {
+            JSONArray point = coordinates.getJSONArray(i);
+            lons[i] = point.getDouble(0);
+            lats[i] = point.getDouble(1);
+        }
 
-            // If no route is found by OSRM, let user know we couldn't find a path
-            if (routes.length() == 0)
-                return "Sorry, I could not find a route between those locations.";
+        // Segment durations of all legs, one per pair of consecutive points
+        double[] eta = new double[n];
+        JSONArray legs = route.optJSONArray("legs");
+        int segment = 0;
+        boolean complete = legs != null;
+        for (int l = 0; complete && l < legs.length(); l++) {
+            JSONObject annotation = legs.getJSONObject(l).optJSONObject("annotation");
+            JSONArray durations = annotation == null ? null : annotation.optJSONArray("duration");
+            if (durations == null) {
+                complete = false;
+                break;
+            }
+            for (int i = 0; i < durations.length() && segment + 1 < n; i++, segment++) {
+                eta[segment + 1] = eta[segment] + durations.getDouble(i);
+            }
+        }
+
+        double durationSeconds = route.getDouble("duration");
+        if (!complete || segment != n - 1) {
+            // Annotations missing or not aligned with the geometry: spread the total time by distance instead
+            double[] along = new double[n];
+            for (int i = 1; i < n; i++) {
+                along[i] = along[i - 1] + Math.hypot((lons[i] - lons[i - 1]) * Math.cos(Math.toRadians(lats[i])), lats[i] - lats[i - 1]);
+            }
+            double total = n > 1 ? along[n - 1] : 0;
+            for (int i = 0; i < n; i++) {
+                eta[i] = total > 0 ? durationSeconds * along[i] / total : 0;
+            }
+        }
 
-            // Use the first route from the list (the best or fastest one usually)
-            JSONObject route = routes.getJSONObject(0);
+        return new RoutePath(lons, lats, eta, route.getDouble("distance") / 1000.0, durationSeconds / 3600.0);
+    }
 
-            // Extract how long the trip will take in seconds and convert to hours (divide by 3600)
-            double durationHrs = route.getDouble("duration") / 3600.0;
+    // Build the URL to call the OSRM routing service providing start and end coordinates
+    // The format has longitude and latitude pairs separated by a semicolon
+    String routeUrl(double[] fromCoords, double[] toCoords) {
+        return String.format(
+                "https://router.project-osrm.org/route/v1/driving/%.7f,%.7f;%.7f,%.7f?overview=false",
+                fromCoords[0], fromCoords[1], toCoords[0], toCoords[1]
+        );
+    }
 
-            // Extract how far the trip is in meters and convert to kilometers (divide by 1000)
-            double distanceKm = route.getDouble("distance") / 1000.0;
+    // Reads the first (best) route out of an OSRM response, or returns null when OSRM found none
+    RouteEstimate parseRoute(String response) {
+        // Parse the response string into a JSON object so we can extract needed info
+        JSONObject json = new JSONObject(response);
 
-            // Build a Google Maps link that the user can click to see the route on a map
-            // Encode from and to place names safely for use in the URL
-            String mapUrl = "https://www.google.com/maps/dir/"
-                    + URLEncoder.encode(from, StandardCharsets.UTF_8)
-                    + "/"
-                    + URLEncoder.encode(to, StandardCharsets.UTF_8);
+        // Extract the array of possible routes found (usually multiple possible routes)
+        JSONArray routes = json.getJSONArray("routes");
+        if (routes.length() == 0)
+            return null;
 
-            // Return a nicely formatted string telling the user the distance, time, and a clickable link
-            return String.format(
-                    "The fastest route from %s to %s is %.1f km and should take about %.1f hours.\n[View on Google Maps](%s)",
-                    from, to, distanceKm, durationHrs, mapUrl
-            );
-        } catch (Exception e) {
-            // If anything goes wrong here, return a friendly error message to the user
-            return "Sorry, I couldn't find one of the locations or route. Please try a more specific place name.";
-        }
+        // Use the first route from the list (the best or fastest one usually)
+        JSONObject route = routes.getJSONObject(0);
+
+        // Duration comes in seconds (convert to hours) and distance in meters (convert to kilometers)
+        return new RouteEstimate(route.getDouble("distance") / 1000.0, route.getDouble("duration") / 3600.0);
+    }
+
+    // Turns a route estimate into the friendly sentence with a Google Maps link
+    String formatRouteSummary(String from, String to, RouteEstimate route) {
+        // Build a Google Maps link that the user can click to see the route on a map
+        // Encode from and to place names safely for use in the URL
+        String mapUrl = "https://www.google.com/maps/dir/"
+                + URLEncoder.encode(from, StandardCharsets.UTF_8)
+                + "/"
+                + URLEncoder.encode(to, StandardCharsets.UTF_8);
+
+        // Return a nicely formatted string telling the user the distance, time, and a clickable link
+        return String.format(
+                "The fastest route from %s to %s is %.1f km and should take about %.1f hours.\n[View on Google Maps](%s)",
+                from, to, route.distanceKm(), route.durationHrs(), mapUrl
+        );
     }
 }
@@ -0,0 +1,178 @@
+package com.example.demo.service;
+
+import com.example.demo.entity.HourlyForecast;
+import com.example.demo.entity.RoutePath;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Weather along a drive: what it will be like at each point of the route when the car gets there.
+ *
+ * The OSRM route geometry carries the driving time to every point. It is sampled every
+ * {@code assistant.route-weather.interval-minutes} of driving (plus departure and arrival), each
+ * sample is snapped to a forecast grid cell, and the hourly forecasts of all cells come from one
+ * multi-location Open-Meteo request, or from the cache shared with other routes. Each sample
+ * reports the forecast hour it will be reached in.
+ */
+@Service
+public class RouteWeatherService {
+
+    // Below this temperature EV range drops noticeably, so the driver is told about it
+    private static final double COLD_WARNING_C = 10.0;
+    private static final int RAIN_PROBABILITY_WARNING = 50;
+
+    record Sample(double etaSeconds, double lon, double lat, double km) {
+    }
+
+    private final GeocodeService geocodeService;
+    private final RouteService routeService;
+    private final WeatherService weatherService;
+    private final long intervalSeconds;
+    private final int maxPoints;
+
+    public RouteWeatherService(GeocodeService geocodeService,
+                               RouteService routeService,
+                               WeatherService weatherService,
+                               @Value("${assistant.route-weather.interval-minutes:30}") long intervalMinutes,
+                               @Value("${assistant.route-weather.max-points:24}") int maxPoints) {
+        this.geocodeService = geocodeService;
+        this.routeService = routeService;
+        this.weatherService = weatherService;
+        this.intervalSeconds = Math.max(60, intervalMinutes * 60);
+        this.maxPoints = Math.max(2, maxPoints);
+    }
+
+    /**
+     * Forecast along the route between two named places, leaving now.
+     */
+    public String getRouteWeather(String from, String to) {
+        try {
+            return getRouteWeather(from, to, geocodeService.geocode(from), geocodeService.geocode(to));
+        } catch (Exception e) {
+            return "Sorry, I couldn't find one of the locations or route. Please try a more specific place name.";
+        }
+    }
+
+    /**
+     * Forecast along the route between already resolved coordinates ({lon, lat}), leaving now.
+     */
+    public String getRouteWeather(String from, String to, double[] fromCoords, double[] toCoords) {
+        RoutePath path;
+        try {
+            path = routeService.getRoutePath(fromCoords, toCoords);
+        } catch (Exception e) {
+            return "Sorry, I couldn't find one of the locations or route. Please try a more specific place name.";
+        }
+        if (path == null || path.size() == 0) {
+            return "Sorry, I could not find a route between those locations.";
+        }
+
+        List<Sample> samples = sample(path);
+        List<double[]> cells = new ArrayList<>(samples.size());
+        for (Sample sample : samples) {
+            cells.add(WeatherService.forecastCell(new double[]{sample.lon(), sample.lat()}));
+        }
+
+        List<HourlyForecast> forecasts;
+        try {
+            forecasts = weatherService.getHourlyForecasts(cells);
+        } catch (Exception e) {
+            return "Sorry, I couldn't get the forecast along the route from " + from + " to " + to + " right now.";
+        }
+
+        long departure = System.currentTimeMillis() / 1000;
+        StringBuilder reply = new StringBuilder(String.format(
+                "Weather along your drive from %s to %s (%.0f km, about %.1f hours):",
+                from, to, path.distanceKm(), path.durationHrs()));
+        double coldest = Double.POSITIVE_INFINITY;
+        String firstRain = null;
+
+        for (int i = 0; i < samples.size(); i++) {
+            Sample sample = samples.get(i);
+            HourlyForecast forecast = forecasts.get(i);
+            int hour = forecast == null ? -1 : forecast.indexAt(departure + (long) sample.etaSeconds());
+
+            String label = i == 0 ? "Departure (" + from + ")"
+                    : i == samples.size() - 1 ? "Arrival (" + to + ")"
+                    : String.format("After %s (~%.0f km)", formatDuration(sample.etaSeconds()), sample.km());
+            if (hour < 0) {
+                reply.append("\n- ").append(label).append(": no forecast available");
+                continue;
+            }
+
+            double temperature = forecast.temperatures()[hour];
+            int probability = forecast.precipitationProbability()[hour];
+            int code = forecast.weathercodes()[hour];
+            reply.append(String.format("\n- %s: %.0f°C, %s", label, temperature, weatherService.weatherCodeToDescription(code)));
+            if (probability > 0) reply.append(String.format(", %d%% chance of rain", probability));
+
+            if (!Double.isNaN(temperature)) coldest = Math.min(coldest, temperature);
+            boolean wet = probability >= RAIN_PROBABILITY_WARNING || forecast.precipitationMm()[hour] >= 0.5 || code >= 51;
+            if (wet && firstRain == null) {
+                firstRain = i == 0 ? "right at the start" : "about " + formatDuration(sample.etaSeconds()) + " into the drive";
+            }
+        }
+
+        if (firstRain != null) {
+            reply.append("\nExpect rain ").append(firstRain).append("; wet roads and wipers increase energy use.");
+        }
+        if (coldest < COLD_WARNING_C) {
+            reply.append(String.format("\nTemperatures drop to %.0f°C on the way, which reduces your battery range.", coldest));
+        }
+        return reply.toString();
+    }
+
+    /**
+     * Points along the route every interval of driving time, always including both ends.
+     */
+    List<Sample> sample(RoutePath path) {
+        int n = path.size();
+        double[] eta = path.etaSeconds();
+        double[] km = new double[n];
+        for (int i = 1; i < n; i++) {
+            km[i] = km[i - 1] + haversineKm(path.lats()[i - 1], path.lons()[i - 1], path.lats()[i], path.lons()[i]);
+        }
+
+        List<Sample> samples = new ArrayList<>();
+        double total = eta[n - 1];
+        if (n == 1 || total <= 0) {
+            samples.add(new Sample(0, path.lons()[0], path.lats()[0], 0));
+            samples.add(new Sample(0, path.lons()[n - 1], path.lats()[n - 1], km[n - 1]));
+            return samples;
+        }
+
+        double step = Math.max(intervalSeconds, total / (maxPoints - 1));
+        int segment = 0;
+        for (double t = 0; ; t += step) {
+            // Close enough to the end that another sample would duplicate the arrival
+            boolean last = t >= total - step * 0.05;
+            if (last) t = total;
+            while (segment < n - 2 && eta[segment + 1] < t) segment++;
+
+            double span = eta[segment + 1] - eta[segment];
+            double f = span > 0 ? Math.max(0, Math.min(1, (t - eta[segment]) / span)) : 0;
+            samples.add(new Sample(t,
+                    path.lons()[segment] + f * (path.lons()[segment + 1] - path.lons()[segment]),
+                    path.lats()[segment] + f * (path.lats()[segment + 1] - path.lats()[segment]),
+                    km[segment] + f * (km[segment + 1] - km[segment])));
+            if (last) break;
+        }
+        return samples;
+    }
+
+    private static String formatDuration(double seconds) {
+        long minutes = Math.round(seconds / 60);
+        return minutes < 60 ? minutes + " min" : String.format("%dh%02d", minutes / 60, minutes % 60);
+    }
+
+    private static double haversineKm(double lat1, double lon1, double lat2, double lon2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLon = Math.toRadians(lon2 - lon1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2)) * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return 6371.0 * 2 * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.demo.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Service;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Measures time-to-first-successful-voice-command: wall time from JVM start until the first voice
+ * reply has been produced. This is what a driver waits for after a head unit restart, so it is
+ * the number the fast-start profile is tuned against.
+ */
+@Slf4j
+@Service
+@Lazy(false)
+public class StartupMetrics {
+
+    private final long jvmStartMillis = ManagementFactory.getRuntimeMXBean().getStartTime();
+    private final AtomicLong firstVoiceReplyMillis = new AtomicLong(-1);
+
+    /**
+     * Called after a voice command was answered; only the first call is recorded.
+     */
+    public void recordVoiceReply() {
+        if (firstVoiceReplyMillis.get() >= 0) return;
+        long elapsed = System.currentTimeMillis() - jvmStartMillis;
+        if (firstVoiceReplyMillis.compareAndSet(-1, elapsed)) {
+            log.info("First voice command answered {} ms after JVM start", elapsed);
+        }
+    }
+
+    /**
+     * Milliseconds from JVM start to the first voice reply, or -1 if none was served yet.
+     */
+    public long getTimeToFirstVoiceReplyMillis() {
+        return firstVoiceReplyMillis.get();
+    }
+}
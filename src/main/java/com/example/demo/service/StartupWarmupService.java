@@ -0,0 +1,76 @@
+package com.example.demo.service;
+
+import com.google.genai.Client;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+/**
+ * Background warm-up that runs once the HTTP port is open.
+ *
+ * With lazy initialization the voice path (Gemini client, smart service, geocode and weather
+ * services) would otherwise be built by the first voice request. Here it is built on a background
+ * thread right after startup, and the configured hot places are geocoded and their weather fetched,
+ * which also opens the outbound connections to Nominatim and Open-Meteo.
+ */
+@Slf4j
+@Service
+@Lazy(false)
+@ConditionalOnProperty(name = "assistant.warmup.enabled", havingValue = "true")
+public class StartupWarmupService {
+
+    private final ObjectProvider<Client> geminiClient;
+    private final ObjectProvider<GeminiSmartService> geminiSmartService;
+    private final ObjectProvider<GeocodeService> geocodeService;
+    private final ObjectProvider<WeatherService> weatherService;
+    private final List<String> hotPlaces;
+
+    public StartupWarmupService(ObjectProvider<Client> geminiClient,
+                                ObjectProvider<GeminiSmartService> geminiSmartService,
+                                ObjectProvider<GeocodeService> geocodeService,
+                                ObjectProvider<WeatherService> weatherService,
+                                @Value("${assistant.warmup.places:}") List<String> hotPlaces) {
+        this.geminiClient = geminiClient;
+        this.geminiSmartService = geminiSmartService;
+        this.geocodeService = geocodeService;
+        this.weatherService = weatherService;
+        this.hotPlaces = hotPlaces;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUpInBackground() {
+        Thread thread = new Thread(this::warmUp, "startup-warmup");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private void warmUp() {
+        long start = System.currentTimeMillis();
+        try {
+            // Instantiating the smart service pulls in the whole voice chain
+            geminiClient.getObject();
+            geminiSmartService.getObject();
+        } catch (Exception e) {
+            log.warn("Voice path warm-up failed: {}", e.getMessage());
+        }
+
+        GeocodeService geocoder = geocodeService.getObject();
+        WeatherService weather = weatherService.getObject();
+        for (String place : hotPlaces) {
+            if (place == null || place.isBlank()) continue;
+            try {
+                weather.getWeatherAt(geocoder.geocode(place));
+            } catch (Exception e) {
+                log.debug("Warm-up for {} failed: {}", place, e.getMessage());
+            }
+        }
+        log.info("Startup warm-up finished in {} ms", System.currentTimeMillis() - start);
+    }
+}
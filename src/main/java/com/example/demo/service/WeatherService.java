@@ -1,17 +1,51 @@
 package com.example.demo.service;
 
-import org.json.JSONObject;
+import com.example.demo.cache.TtlCache;
+import com.example.demo.cluster.ClusterCacheBus;
+import com.example.demo.cluster.ClusteredCache;
+import com.example.demo.entity.CurrentWeather;
+import com.example.demo.entity.HourlyForecast;
 import org.json.JSONArray;
+import org.json.JSONObject;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
 
-import java.net.URLEncoder;
-import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 @Service
 public class WeatherService {
 
-    private final RestTemplate restTemplate = new RestTemplate();
+    private final RestTemplate restTemplate;
+    private final long connectTimeoutMs;
+    private final long readTimeoutMs;
+    private final GeocodeService geocodeService;
+
+    // Current conditions keyed by rounded coordinates and shared with the other replicas;
+    // Open-Meteo refreshes roughly every 15 minutes
+    private final ClusteredCache<CurrentWeather> currentCache;
+
+    // Hourly forecasts keyed by ~10 km grid cell, shared by every route that passes through the cell
+    private final TtlCache<String, HourlyForecast> hourlyCache = new TtlCache<>(2048, 30, TimeUnit.MINUTES);
+
+    public WeatherService(GeocodeService geocodeService,
+                          ClusterCacheBus clusterCacheBus,
+                          @Value("${assistant.http.connect-timeout-ms:3000}") long connectTimeoutMs,
+                          @Value("${assistant.http.read-timeout-ms:12000}") long readTimeoutMs) {
+        this.geocodeService = geocodeService;
+        this.connectTimeoutMs = connectTimeoutMs;
+        this.readTimeoutMs = readTimeoutMs;
+        this.restTemplate = RestTemplates.withTimeouts(connectTimeoutMs, readTimeoutMs);
+        this.currentCache = new ClusteredCache<>("weather", 1024, 10, TimeUnit.MINUTES, clusterCacheBus,
+                w -> w.temperature() + "," + w.windspeed() + "," + w.weathercode(),
+                WeatherService::decodeCurrentWeather);
+    }
 
     /**
      * Get the real-time current weather for a place name using Open-Meteo free API.
@@ -23,36 +57,17 @@ public class WeatherService {
     public String getCurrentWeather(String placeName) {
         try {
             // Step 1: Geocode the place name to latitude and longitude
-            double[] coords = geocodePlace(placeName); // returns [lon, lat]
-
-            // Step 2: Build Open-Meteo API URL (note: latitude first, then longitude)
-            String url = String.format(
-                "https://api.open-meteo.com/v1/forecast?latitude=%.5f&longitude=%.5f&current_weather=true",
-                coords[1], coords[0]
-            );
-
-            // Step 3: Call Open-Meteo API and get the response as JSON string
-            String response = restTemplate.getForObject(url, String.class);
+            double[] coords = geocodeService.geocode(placeName); // returns [lon, lat]
 
-            // Step 4: Parse JSON and extract current weather data
-            JSONObject json = new JSONObject(response);
-            JSONObject current = json.optJSONObject("current_weather");
+            // Step 2: Fetch (or reuse cached) current conditions at those coordinates
+            CurrentWeather current = getWeatherAt(coords);
 
             if (current == null) {
                 return "Sorry, I couldn't get the current weather data for " + placeName + ".";
             }
 
-            double temperature = current.getDouble("temperature");   // Celsius
-            double windspeed = current.getDouble("windspeed");       // km/h
-            int weathercode = current.getInt("weathercode");         // Weather condition code
-
-            String condition = weatherCodeToDescription(weathercode);
-
-            // Step 5: Format and return friendly weather summary
-            return String.format(
-                "The current weather in %s is %s with a temperature of %.1f°C and wind speed of %.1f km/h.",
-                placeName, condition, temperature, windspeed
-            );
+            // Step 3: Format and return friendly weather summary
+            return formatCurrentWeather(placeName, current);
 
         } catch (Exception e) {
             return "Sorry, I couldn't get the weather for \"" + placeName + "\". Please try again.";
@@ -60,33 +75,186 @@ public class WeatherService {
     }
 
     /**
-     * Simple Nominatim geocode method to get coordinates for a place name
-     * Returns longitude, latitude
+     * Current conditions at the given coordinates, served from cache when a nearby point
+     * (about 1 km) was fetched in the last few minutes.
+     *
+     * @param coords coordinates as {longitude, latitude}
+     * @return current weather, or null if Open-Meteo returned none
+     */
+    public CurrentWeather getWeatherAt(double[] coords) {
+        return currentCache.getOrLoad(weatherKey(coords), k -> fetchCurrentWeather(coords, restTemplate));
+    }
+
+    /**
+     * Like {@link #getWeatherAt(double[])}, but an Open-Meteo request started by this call gives
+     * up after {@code timeoutMs}. For speculative work that must stay within a time budget.
+     */
+    public CurrentWeather getWeatherAt(double[] coords, long timeoutMs) {
+        RestTemplate budgeted = RestTemplates.withTimeouts(Math.min(connectTimeoutMs, timeoutMs), Math.min(readTimeoutMs, timeoutMs));
+        return currentCache.getOrLoad(weatherKey(coords), k -> fetchCurrentWeather(coords, budgeted));
+    }
+
+    /**
+     * Cached current conditions near the coordinates, or null. Used by the non-blocking path,
+     * which fetches on a miss itself and stores the result with {@link #rememberWeatherAt}.
+     */
+    CurrentWeather getCachedWeatherAt(double[] coords) {
+        return currentCache.get(weatherKey(coords));
+    }
+
+    void rememberWeatherAt(double[] coords, CurrentWeather weather) {
+        if (weather != null) currentCache.put(weatherKey(coords), weather);
+    }
+
+    public String formatCurrentWeather(String placeName, CurrentWeather current) {
+        String condition = weatherCodeToDescription(current.weathercode());
+        return String.format(
+            "The current weather in %s is %s with a temperature of %.1f°C and wind speed of %.1f km/h.",
+            placeName, condition, current.temperature(), current.windspeed()
+        );
+    }
+
+    /**
+     * Snaps coordinates to the centre of their forecast grid cell (0.1°, about 10 km), so nearby
+     * points of different routes share one cached forecast.
+     *
+     * @param coords coordinates as {longitude, latitude}
+     */
+    public static double[] forecastCell(double[] coords) {
+        return new double[]{Math.round(coords[0] * 10) / 10.0, Math.round(coords[1] * 10) / 10.0};
+    }
+
+    /**
+     * Hourly forecasts for the given grid cells (see {@link #forecastCell}), in the same order.
+     * Cells missing from the cache are fetched together in a single multi-location Open-Meteo call.
+     *
+     * @param cells cell centres as {longitude, latitude}
      */
-    private double[] geocodePlace(String placeName) throws Exception {
-        String url = "https://nominatim.openstreetmap.org/search?q="
-            + URLEncoder.encode(placeName.trim(), StandardCharsets.UTF_8)
-            + "&format=json&limit=1";
+    public List<HourlyForecast> getHourlyForecasts(List<double[]> cells) {
+        // Built from what was read or fetched here, not read back from the cache, which may
+        // already have evicted a cell stored a moment ago
+        Map<String, HourlyForecast> byKey = new HashMap<>();
+        Map<String, double[]> missing = new LinkedHashMap<>();
+        for (double[] cell : cells) {
+            String key = cellKey(cell);
+            if (byKey.containsKey(key) || missing.containsKey(key)) continue;
+            HourlyForecast cached = hourlyCache.get(key);
+            if (cached != null) byKey.put(key, cached);
+            else missing.put(key, cell);
+        }
 
-        String response = restTemplate.getForObject(url, String.class);
-        JSONArray arr = new JSONArray(response);
+        if (!missing.isEmpty()) {
+            List<String> keys = new ArrayList<>(missing.keySet());
+            List<HourlyForecast> fetched = parseHourlyForecasts(
+                    restTemplate.getForObject(hourlyForecastUrl(new ArrayList<>(missing.values())), String.class));
+            for (int i = 0; i < keys.size() && i < fetched.size(); i++) {
+                byKey.put(keys.get(i), fetched.get(i));
+                hourlyCache.put(keys.get(i), fetched.get(i));
+            }
+        }
 
-        if (arr.length() == 0) {
-            throw new Exception("Place not found: " + placeName);
+        List<HourlyForecast> forecasts = new ArrayList<>(cells.size());
+        for (double[] cell : cells) {
+            forecasts.add(byKey.get(cellKey(cell)));
         }
+        return forecasts;
+    }
 
-        JSONObject first = arr.getJSONObject(0);
-        double lat = Double.parseDouble(first.getString("lat"));
-        double lon = Double.parseDouble(first.getString("lon"));
+    String hourlyForecastUrl(List<double[]> cells) {
+        StringBuilder lats = new StringBuilder();
+        StringBuilder lons = new StringBuilder();
+        for (double[] cell : cells) {
+            if (lats.length() > 0) {
+                lats.append(',');
+                lons.append(',');
+            }
+            lats.append(String.format(Locale.ROOT, "%.1f", cell[1]));
+            lons.append(String.format(Locale.ROOT, "%.1f", cell[0]));
+        }
+        return "https://api.open-meteo.com/v1/forecast?latitude=" + lats + "&longitude=" + lons
+                + "&hourly=temperature_2m,precipitation_probability,precipitation,weather_code"
+                + "&forecast_days=3&timeformat=unixtime&timezone=GMT";
+    }
+
+    // Open-Meteo answers a single location with an object and several with an array, in request order
+    List<HourlyForecast> parseHourlyForecasts(String response) {
+        String body = response.trim();
+        JSONArray locations = body.startsWith("[") ? new JSONArray(body) : new JSONArray().put(new JSONObject(body));
+
+        List<HourlyForecast> forecasts = new ArrayList<>(locations.length());
+        for (int l = 0; l < locations.length(); l++) {
+            JSONObject hourly = locations.getJSONObject(l).getJSONObject("hourly");
+            JSONArray time = hourly.getJSONArray("time");
+            JSONArray temperature = hourly.getJSONArray("temperature_2m");
+            JSONArray probability = hourly.optJSONArray("precipitation_probability");
+            JSONArray precipitation = hourly.optJSONArray("precipitation");
+            JSONArray code = hourly.has("weather_code") ? hourly.getJSONArray("weather_code") : hourly.optJSONArray("weathercode");
+
+            int n = time.length();
+            long[] epochSeconds = new long[n];
+            double[] temperatures = new double[n];
+            int[] probabilities = new int[n];
+            double[] precipitationMm = new double[n];
+            int[] codes = new int[n];
+            for (int i = 0; i < n; i++) {
+                epochSeconds[i] = time.getLong(i);
+                temperatures[i] = temperature.optDouble(i, Double.NaN);
+                probabilities[i] = probability == null ? 0 : probability.optInt(i, 0);
+                precipitationMm[i] = precipitation == null ? 0 : precipitation.optDouble(i, 0);
+                codes[i] = code == null ? 0 : code.optInt(i, 0);
+            }
+            forecasts.add(new HourlyForecast(epochSeconds, temperatures, probabilities, precipitationMm, codes));
+        }
+        return forecasts;
+    }
+
+    private String cellKey(double[] cell) {
+        return String.format(Locale.ROOT, "%.1f,%.1f", cell[1], cell[0]);
+    }
+
+    private CurrentWeather fetchCurrentWeather(double[] coords, RestTemplate client) {
+        String response = client.getForObject(currentWeatherUrl(coords), String.class);
+        return parseCurrentWeather(response);
+    }
+
+    // Build Open-Meteo API URL (note: latitude first, then longitude)
+    String currentWeatherUrl(double[] coords) {
+        return String.format(Locale.ROOT,
+            "https://api.open-meteo.com/v1/forecast?latitude=%.5f&longitude=%.5f&current_weather=true",
+            coords[1], coords[0]
+        );
+    }
+
+    CurrentWeather parseCurrentWeather(String response) {
+        JSONObject json = new JSONObject(response);
+        JSONObject current = json.optJSONObject("current_weather");
+        if (current == null) {
+            return null;
+        }
+
+        return new CurrentWeather(
+            current.getDouble("temperature"),   // Celsius
+            current.getDouble("windspeed"),     // km/h
+            current.getInt("weathercode")       // Weather condition code
+        );
+    }
+
+    // "temperature,windspeed,weathercode" as published to the other replicas
+    private static CurrentWeather decodeCurrentWeather(String value) {
+        String[] parts = value.split(",");
+        return new CurrentWeather(Double.parseDouble(parts[0]), Double.parseDouble(parts[1]), Integer.parseInt(parts[2]));
+    }
 
-        return new double[]{lon, lat};
+    // About 1 km of rounding, so nearby lookups share an entry
+    String weatherKey(double[] coords) {
+        return String.format(Locale.ROOT, "%.2f,%.2f", coords[1], coords[0]);
     }
 
     /**
      * Converts Open-Meteo weather code to human-readable description.
      * Source: https://open-meteo.com/en/docs#latitude=52.52&longitude=13.41&current_weather=true
      */
-    private String weatherCodeToDescription(int code) {
+    String weatherCodeToDescription(int code) {
         switch (code) {
             case 0: return "clear skies";
             case 1:
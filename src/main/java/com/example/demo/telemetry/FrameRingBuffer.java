@@ -0,0 +1,85 @@
+package com.example.demo.telemetry;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Single-producer / single-consumer ring of fixed-size frame slots.
+ *
+ * All storage is allocated up front: one byte array holding every slot plus an array of lengths.
+ * The serial reader thread writes frames in place and publishes them by advancing {@code head};
+ * the parser thread reads them in place and frees them by advancing {@code tail}. Nothing is
+ * allocated per frame and neither side ever blocks: when the ring is full new frames are dropped
+ * and counted, so a slow parser can never stall the serial port.
+ */
+public class FrameRingBuffer {
+
+    public static final int SLOT_SIZE = 64;
+
+    private final byte[] data;
+    private final int[] lengths;
+    private final int mask;
+
+    // Next slot the producer writes / the consumer reads; only ever increase
+    private final AtomicLong head = new AtomicLong();
+    private final AtomicLong tail = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+
+    /**
+     * @param slots number of frame slots, rounded up to a power of two
+     */
+    public FrameRingBuffer(int slots) {
+        int capacity = Integer.highestOneBit(Math.max(2, slots - 1)) << 1;
+        this.data = new byte[capacity * SLOT_SIZE];
+        this.lengths = new int[capacity];
+        this.mask = capacity - 1;
+    }
+
+    /**
+     * Copies one frame into the next free slot. Producer thread only.
+     * Frames longer than {@link #SLOT_SIZE} are truncated.
+     *
+     * @return false if the ring was full and the frame was dropped
+     */
+    public boolean offer(byte[] src, int offset, int length) {
+        long h = head.get();
+        if (h - tail.get() > mask) {
+            dropped.incrementAndGet();
+            return false;
+        }
+        int slot = (int) (h & mask);
+        int n = Math.min(length, SLOT_SIZE);
+        System.arraycopy(src, offset, data, slot * SLOT_SIZE, n);
+        lengths[slot] = n;
+        head.lazySet(h + 1);
+        return true;
+    }
+
+    /**
+     * Hands every published frame to {@code parser}, in place, and frees the slots. Consumer thread only.
+     *
+     * @return number of frames consumed
+     */
+    public int drainTo(ObdFrameParser parser) {
+        long t = tail.get();
+        long h = head.get();
+        if (t == h) return 0;
+        for (long i = t; i < h; i++) {
+            int slot = (int) (i & mask);
+            parser.parse(data, slot * SLOT_SIZE, lengths[slot]);
+        }
+        tail.lazySet(h);
+        return (int) (h - t);
+    }
+
+    public int size() {
+        return (int) (head.get() - tail.get());
+    }
+
+    public int capacity() {
+        return mask + 1;
+    }
+
+    public long dropped() {
+        return dropped.get();
+    }
+}
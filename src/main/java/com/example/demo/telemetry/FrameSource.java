@@ -0,0 +1,30 @@
+package com.example.demo.telemetry;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * A byte stream of OBD-II / CAN adapter output, such as a serial port or a recorded capture.
+ * Frames are ASCII lines terminated by CR, LF or the ELM327 '>' prompt.
+ */
+public interface FrameSource extends Closeable {
+
+    /**
+     * Reads up to {@code length} bytes into {@code buffer}.
+     *
+     * @return number of bytes read, 0 if nothing arrived within the source's timeout, or -1 at end of stream
+     */
+    int read(byte[] buffer, int offset, int length) throws IOException;
+
+    /**
+     * Sends a complete adapter command, including its terminating CR. Sources that only play back
+     * output, such as a capture, ignore it.
+     */
+    default void write(byte[] command) throws IOException {
+    }
+
+    /**
+     * Short human-readable description for logs and the telemetry endpoint.
+     */
+    String describe();
+}
@@ -0,0 +1,135 @@
+package com.example.demo.telemetry;
+
+/**
+ * Allocation-free parser for ELM327-style OBD-II mode 01 responses.
+ *
+ * Accepts lines with or without spaces and with or without a CAN header, e.g.
+ * {@code 41 0D 3C}, {@code 410D3C} or {@code 7E8 03 41 0D 3C}. Hex digits are decoded straight
+ * from the slot bytes into a reusable int array, and decoded values are written to the
+ * {@link VehicleStateHolder}. Anything that is not a recognised mode 01 response (prompts, echoes,
+ * "SEARCHING...", "NO DATA") is ignored and counted.
+ */
+public class ObdFrameParser {
+
+    static final int MODE_01_RESPONSE = 0x41;
+    static final int PID_VEHICLE_SPEED = 0x0D;
+    static final int PID_HYBRID_BATTERY_REMAINING = 0x5B;
+
+    private static final int MAX_BYTES = 16;
+
+    private final VehicleStateHolder state;
+    private final int batteryTempPid;
+    private final int[] bytes = new int[MAX_BYTES];
+    // Written by the parser thread only, read by the status endpoint
+    private volatile long ignored;
+
+    /**
+     * @param state          where decoded values are published
+     * @param batteryTempPid mode 01 PID carrying pack temperature. There is no standard one for EVs,
+     *                       so it is configurable; it is decoded with the standard temperature formula A - 40.
+     */
+    public ObdFrameParser(VehicleStateHolder state, int batteryTempPid) {
+        this.state = state;
+        this.batteryTempPid = batteryTempPid;
+    }
+
+    /**
+     * Parses one frame in place. Called by the parser thread only.
+     */
+    public void parse(byte[] buf, int offset, int length) {
+        int end = offset + length;
+
+        // Pre-scan: with spaces off (ATS0) an 11-bit header is recognised by the odd digit count
+        int totalDigits = 0;
+        boolean spaced = false;
+        for (int i = offset; i < end; i++) {
+            byte b = buf[i];
+            if (b == '\r' || b == '\n') {
+                end = i;
+                break;
+            }
+            if (b == ' ') {
+                spaced = true;
+            } else if (hexValue(b) < 0) {
+                ignored++;
+                return;
+            } else {
+                totalDigits++;
+            }
+        }
+        int skipDigits = !spaced && (totalDigits & 1) == 1 ? 3 : 0;
+
+        int count = 0;
+        int tokenDigits = 0;
+        int tokens = 0;
+        int current = 0;
+        for (int i = offset; i <= end; i++) {
+            if (i == end || buf[i] == ' ') {
+                if (tokenDigits == 0) continue;
+                tokens++;
+                if ((tokenDigits & 1) == 1) {
+                    // A three-digit first token is a CAN header; any other odd token is malformed
+                    if (tokens != 1 || tokenDigits != 3) {
+                        ignored++;
+                        return;
+                    }
+                    count = 0;
+                }
+                tokenDigits = 0;
+                current = 0;
+                continue;
+            }
+            if (skipDigits > 0) {
+                skipDigits--;
+                continue;
+            }
+            current = (current << 4) | hexValue(buf[i]);
+            tokenDigits++;
+            if ((tokenDigits & 1) == 0) {
+                if (count == MAX_BYTES) break;
+                bytes[count++] = current & 0xFF;
+                current = 0;
+            }
+        }
+
+        apply(count);
+    }
+
+    private void apply(int count) {
+        // With headers on, a PCI length byte precedes the mode byte, so look for it near the start
+        int start = -1;
+        for (int i = 0; i + 2 < count && i < 4; i++) {
+            if (bytes[i] == MODE_01_RESPONSE) {
+                start = i;
+                break;
+            }
+        }
+        if (start < 0) {
+            ignored++;
+            return;
+        }
+
+        int pid = bytes[start + 1];
+        int a = bytes[start + 2];
+        if (pid == PID_VEHICLE_SPEED) {
+            state.updateSpeed(a);
+        } else if (pid == PID_HYBRID_BATTERY_REMAINING) {
+            state.updateStateOfCharge(a * 100.0 / 255.0);
+        } else if (pid == batteryTempPid) {
+            state.updateBatteryTemp(a - 40);
+        } else {
+            ignored++;
+        }
+    }
+
+    public long ignored() {
+        return ignored;
+    }
+
+    private static int hexValue(byte b) {
+        if (b >= '0' && b <= '9') return b - '0';
+        if (b >= 'A' && b <= 'F') return b - 'A' + 10;
+        if (b >= 'a' && b <= 'f') return b - 'a' + 10;
+        return -1;
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.demo.telemetry;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Replays a recorded adapter capture (the raw bytes a serial port produced) in place of hardware.
+ * Used for tests, demos and load runs; it can loop forever and pace output to a frame rate.
+ */
+public class ReplayFrameSource implements FrameSource {
+
+    private final Path file;
+    private final byte[] capture;
+    private final boolean loop;
+    private final long nanosPerFrame;
+    private int position;
+    private long nextFrameAt = System.nanoTime();
+
+    /**
+     * @param file            capture file, one adapter line per frame
+     * @param loop            start over at the end instead of reporting end of stream
+     * @param framesPerSecond pacing, or 0 to replay as fast as the reader consumes
+     */
+    public ReplayFrameSource(Path file, boolean loop, int framesPerSecond) throws IOException {
+        this.file = file;
+        this.capture = Files.readAllBytes(file);
+        this.loop = loop;
+        this.nanosPerFrame = framesPerSecond > 0 ? TimeUnit.SECONDS.toNanos(1) / framesPerSecond : 0;
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int length) {
+        if (capture.length == 0) return -1;
+        if (position >= capture.length) {
+            if (!loop) return -1;
+            position = 0;
+        }
+
+        int end = Math.min(capture.length, position + length);
+        if (nanosPerFrame > 0) {
+            // Hand out one line per call and wait for its slot in the schedule
+            long wait = nextFrameAt - System.nanoTime();
+            if (wait > 0) LockSupport.parkNanos(wait);
+            nextFrameAt += nanosPerFrame;
+            for (int i = position; i < end; i++) {
+                if (capture[i] == '\r' || capture[i] == '\n') {
+                    end = i + 1;
+                    break;
+                }
+            }
+        }
+
+        int n = end - position;
+        System.arraycopy(capture, position, buffer, offset, n);
+        position = end;
+        return n;
+    }
+
+    @Override
+    public String describe() {
+        return "replay:" + file + (loop ? " (looping)" : "");
+    }
+
+    @Override
+    public void close() {
+        // Nothing to release, the capture is held in memory
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.demo.telemetry;
+
+import com.fazecast.jSerialComm.SerialPort;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reads adapter output from a serial port (ELM327-compatible OBD-II or CAN adapter) via jSerialComm.
+ */
+public class SerialFrameSource implements FrameSource {
+
+    private static final int READ_TIMEOUT_MS = 100;
+    // ATZ resets the adapter, which then prints its banner; other commands answer within milliseconds
+    private static final long RESET_PROMPT_TIMEOUT_MS = 3000;
+    private static final long COMMAND_PROMPT_TIMEOUT_MS = 1000;
+
+    private final SerialPort port;
+
+    /**
+     * Opens the port and sends the adapter set-up commands, e.g. ATE0 (echo off) and ATSP0 (automatic
+     * protocol). Each command waits for the adapter's '>' prompt before the next is sent, since an
+     * ELM327 drops input while it is busy; replies to set-up commands are discarded.
+     *
+     * @throws IOException if the port can't be opened or the adapter doesn't answer a command
+     */
+    public SerialFrameSource(String portName, int baudRate, List<String> initCommands) throws IOException {
+        this.port = SerialPort.getCommPort(portName);
+        port.setComPortParameters(baudRate, 8, SerialPort.ONE_STOP_BIT, SerialPort.NO_PARITY);
+        port.setComPortTimeouts(SerialPort.TIMEOUT_READ_SEMI_BLOCKING, READ_TIMEOUT_MS, 0);
+        if (!port.openPort()) {
+            throw new IOException("Could not open serial port " + portName);
+        }
+        try {
+            // Whatever the adapter printed before we opened the port is not an answer to us
+            port.flushIOBuffers();
+            for (String command : initCommands) {
+                if (command == null || command.isBlank()) continue;
+                String trimmed = command.trim();
+                write((trimmed + "\r").getBytes(StandardCharsets.US_ASCII));
+                boolean reset = trimmed.equalsIgnoreCase("ATZ") || trimmed.equalsIgnoreCase("ATWS");
+                if (!awaitPrompt(reset ? RESET_PROMPT_TIMEOUT_MS : COMMAND_PROMPT_TIMEOUT_MS)) {
+                    throw new IOException("Adapter on " + portName + " did not answer " + trimmed);
+                }
+            }
+        } catch (IOException e) {
+            port.closePort();
+            throw e;
+        }
+    }
+
+    @Override
+    public void write(byte[] command) throws IOException {
+        if (port.writeBytes(command, command.length) < 0) {
+            throw new IOException("Serial write failed on " + port.getSystemPortName());
+        }
+    }
+
+    // Reads and discards output until the '>' prompt, which the adapter prints when it is ready for input
+    private boolean awaitPrompt(long timeoutMs) throws IOException {
+        byte[] buffer = new byte[256];
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+        while (System.nanoTime() < deadline) {
+            int n = read(buffer, 0, buffer.length);
+            for (int i = 0; i < n; i++) {
+                if (buffer[i] == '>') return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int length) throws IOException {
+        int n = port.readBytes(buffer, length, offset);
+        if (n < 0) throw new IOException("Serial read failed on " + port.getSystemPortName());
+        return n;
+    }
+
+    @Override
+    public String describe() {
+        return "serial:" + port.getSystemPortName() + "@" + port.getBaudRate();
+    }
+
+    @Override
+    public void close() {
+        port.closePort();
+    }
+}
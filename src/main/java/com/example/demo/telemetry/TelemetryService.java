@@ -0,0 +1,241 @@
+package com.example.demo.telemetry;
+
+import com.example.demo.entity.VehicleState;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Vehicle telemetry ingestion: state of charge, speed and battery temperature from an OBD-II / CAN
+ * adapter.
+ *
+ * Two threads are involved. The reader pulls bytes from the {@link FrameSource}, splits them into
+ * lines and copies each line into a slot of the preallocated {@link FrameRingBuffer}. The parser
+ * drains the ring, decodes frames in place with {@link ObdFrameParser} and publishes the result
+ * into a {@link VehicleStateHolder}, which any thread can read without locking. The reader wakes
+ * the parser when it has queued frames, so an idle parser sleeps instead of polling the ring.
+ * Steady-state ingestion allocates nothing per frame.
+ *
+ * An ELM327 only answers what it is asked, so on a serial source the reader also polls: each time
+ * the adapter shows its '>' prompt, and at most every {@code telemetry.serial.poll-interval-ms}, it
+ * sends the next of {@code telemetry.serial.poll-commands} (by default speed 01 0D, hybrid/EV
+ * battery remaining 01 5B and the battery temperature PID). A request that gets no prompt within a
+ * second is given up and the next one is sent.
+ *
+ * The source is chosen by {@code telemetry.source}: {@code serial} for a real adapter,
+ * {@code replay} for a recorded capture file (tests and demos), or {@code none} (default).
+ *
+ * The readings belong to one vehicle, named by {@code telemetry.vehicle-id}. Only requests from that
+ * vehicle may use them as their own (see {@link #isAttachedTo}); with no id set, none may.
+ */
+@Slf4j
+@Service
+@Lazy(false)
+public class TelemetryService {
+
+    // The reader unparks the parser when frames arrive; this only bounds the wait for shutdown
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
+    private static final long POLL_RESPONSE_TIMEOUT_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final String sourceType;
+    private final String serialPort;
+    private final int serialBaud;
+    private final List<String> serialInitCommands;
+    private final byte[][] pollCommands;
+    private final long pollIntervalNanos;
+    private final String replayFile;
+    private final boolean replayLoop;
+    private final int replayFramesPerSecond;
+    private final String attachedVehicleId;
+
+    private final FrameRingBuffer ring;
+    private final VehicleStateHolder state = new VehicleStateHolder();
+    private final ObdFrameParser parser;
+
+    private volatile boolean running;
+    private volatile FrameSource source;
+    private Thread readerThread;
+    private Thread parserThread;
+
+    public TelemetryService(@Value("${telemetry.source:none}") String sourceType,
+                            @Value("${telemetry.serial.port:/dev/ttyUSB0}") String serialPort,
+                            @Value("${telemetry.serial.baud:38400}") int serialBaud,
+                            @Value("${telemetry.serial.init-commands:ATZ,ATE0,ATS1,ATH1,ATSP0}") List<String> serialInitCommands,
+                            @Value("${telemetry.serial.poll-commands:}") List<String> pollCommands,
+                            @Value("${telemetry.serial.poll-interval-ms:100}") long pollIntervalMs,
+                            @Value("${telemetry.replay.file:}") String replayFile,
+                            @Value("${telemetry.replay.loop:true}") boolean replayLoop,
+                            @Value("${telemetry.replay.frames-per-second:0}") int replayFramesPerSecond,
+                            @Value("${telemetry.ring.slots:4096}") int ringSlots,
+                            @Value("${telemetry.battery-temp-pid:0x5C}") String batteryTempPid,
+                            @Value("${telemetry.vehicle-id:}") String attachedVehicleId) {
+        this.sourceType = sourceType.trim().toLowerCase();
+        this.serialPort = serialPort;
+        this.serialBaud = serialBaud;
+        this.serialInitCommands = serialInitCommands;
+        this.replayFile = replayFile;
+        this.replayLoop = replayLoop;
+        this.replayFramesPerSecond = replayFramesPerSecond;
+        this.attachedVehicleId = attachedVehicleId.trim();
+        this.ring = new FrameRingBuffer(ringSlots);
+        int tempPid = Integer.decode(batteryTempPid.trim());
+        this.parser = new ObdFrameParser(state, tempPid);
+        this.pollCommands = this.sourceType.equals("serial") ? encodeCommands(pollCommands, tempPid) : new byte[0][];
+        this.pollIntervalNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, pollIntervalMs));
+    }
+
+    /**
+     * Starts ingestion once the app is up, so opening the port never delays startup.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (sourceType.equals("none") || running) return;
+        try {
+            source = openSource();
+        } catch (Exception e) {
+            log.warn("Telemetry source {} could not be opened: {}", sourceType, e.getMessage());
+            return;
+        }
+        running = true;
+
+        readerThread = new Thread(this::readLoop, "telemetry-reader");
+        readerThread.setDaemon(true);
+        readerThread.setPriority(Thread.MAX_PRIORITY);
+        parserThread = new Thread(this::parseLoop, "telemetry-parser");
+        parserThread.setDaemon(true);
+        readerThread.start();
+        parserThread.start();
+        log.info("Telemetry ingestion started from {}", source.describe());
+    }
+
+    /**
+     * Latest vehicle state. Lock-free; safe to call from request threads.
+     */
+    public VehicleState getLatestState() {
+        return state.snapshot();
+    }
+
+    /**
+     * Whether the vehicle is the one this node reads telemetry from, so its requests may fall back
+     * on {@link #getLatestState()}.
+     */
+    public boolean isAttachedTo(String vehicleId) {
+        return !attachedVehicleId.isEmpty() && vehicleId != null && attachedVehicleId.equals(vehicleId.trim());
+    }
+
+    /**
+     * Ingestion health for the telemetry endpoint.
+     */
+    public Map<String, Object> getStatus() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        FrameSource current = source;
+        status.put("source", current != null ? current.describe() : sourceType);
+        status.put("running", running);
+        status.put("ringCapacity", ring.capacity());
+        status.put("ringBacklog", ring.size());
+        status.put("framesDropped", ring.dropped());
+        status.put("framesIgnored", parser.ignored());
+        status.put("pollCommands", pollCommands.length);
+        return status;
+    }
+
+    private FrameSource openSource() throws Exception {
+        return switch (sourceType) {
+            case "serial" -> new SerialFrameSource(serialPort, serialBaud, serialInitCommands);
+            case "replay" -> new ReplayFrameSource(Path.of(replayFile), replayLoop, replayFramesPerSecond);
+            default -> throw new IllegalArgumentException("Unknown telemetry.source: " + sourceType);
+        };
+    }
+
+    // Blank means the PIDs the parser understands: speed, battery remaining and battery temperature
+    private static byte[][] encodeCommands(List<String> commands, int batteryTempPid) {
+        List<String> effective = commands.stream().filter(c -> c != null && !c.isBlank()).map(String::trim).toList();
+        if (effective.isEmpty()) {
+            effective = List.of(String.format("01%02X", ObdFrameParser.PID_VEHICLE_SPEED),
+                    String.format("01%02X", ObdFrameParser.PID_HYBRID_BATTERY_REMAINING),
+                    String.format("01%02X", batteryTempPid));
+        }
+        byte[][] encoded = new byte[effective.size()][];
+        for (int i = 0; i < encoded.length; i++) {
+            encoded[i] = (effective.get(i) + "\r").getBytes(StandardCharsets.US_ASCII);
+        }
+        return encoded;
+    }
+
+    private void readLoop() {
+        byte[] chunk = new byte[4096];
+        byte[] line = new byte[FrameRingBuffer.SLOT_SIZE];
+        int lineLength = 0;
+        boolean adapterReady = true;
+        long lastCommandAt = System.nanoTime() - POLL_RESPONSE_TIMEOUT_NANOS;
+        int nextCommand = 0;
+        try {
+            while (running) {
+                int n = source.read(chunk, 0, chunk.length);
+                if (n < 0) break;
+                boolean queued = false;
+                for (int i = 0; i < n; i++) {
+                    byte b = chunk[i];
+                    if (b == '\r' || b == '\n' || b == '>') {
+                        if (lineLength > 0) {
+                            queued |= ring.offer(line, 0, lineLength);
+                            lineLength = 0;
+                        }
+                        if (b == '>') adapterReady = true;
+                    } else if (lineLength < line.length) {
+                        line[lineLength++] = b;
+                    }
+                }
+                if (queued) LockSupport.unpark(parserThread);
+
+                if (pollCommands.length > 0) {
+                    long sinceLast = System.nanoTime() - lastCommandAt;
+                    if ((adapterReady && sinceLast >= pollIntervalNanos) || sinceLast >= POLL_RESPONSE_TIMEOUT_NANOS) {
+                        source.write(pollCommands[nextCommand]);
+                        nextCommand = (nextCommand + 1) % pollCommands.length;
+                        lastCommandAt = System.nanoTime();
+                        adapterReady = false;
+                    }
+                }
+            }
+        } catch (Exception e) {
+            if (running) log.warn("Telemetry read failed: {}", e.getMessage());
+        } finally {
+            running = false;
+            LockSupport.unpark(parserThread);
+        }
+    }
+
+    private void parseLoop() {
+        while (running || ring.size() > 0) {
+            if (ring.drainTo(parser) == 0) {
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        FrameSource current = source;
+        if (current != null) {
+            try {
+                current.close();
+            } catch (Exception e) {
+                log.debug("Closing telemetry source failed: {}", e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.demo.telemetry;
+
+import com.example.demo.entity.VehicleState;
+
+/**
+ * Latest vehicle state, written by the single parser thread and read lock-free by anyone.
+ *
+ * Writes are bracketed by a sequence counter (odd while a write is in progress). Readers copy the
+ * fields and retry if the counter changed, so a snapshot never mixes two updates and the writer
+ * never waits and never allocates.
+ */
+public class VehicleStateHolder {
+
+    private volatile long sequence;
+    private volatile double stateOfChargePercent = Double.NaN;
+    private volatile double speedKmh = Double.NaN;
+    private volatile double batteryTempC = Double.NaN;
+    private volatile long updatedAtMillis;
+    private volatile long framesParsed;
+
+    // Writer side, parser thread only
+
+    void updateStateOfCharge(double percent) {
+        sequence++;
+        stateOfChargePercent = percent;
+        touch();
+    }
+
+    void updateSpeed(double kmh) {
+        sequence++;
+        speedKmh = kmh;
+        touch();
+    }
+
+    void updateBatteryTemp(double celsius) {
+        sequence++;
+        batteryTempC = celsius;
+        touch();
+    }
+
+    private void touch() {
+        updatedAtMillis = System.currentTimeMillis();
+        framesParsed++;
+        sequence++;
+    }
+
+    /**
+     * A consistent copy of the current state. Safe to call from any thread.
+     */
+    public VehicleState snapshot() {
+        while (true) {
+            long before = sequence;
+            if ((before & 1) == 0) {
+                VehicleState state = new VehicleState(stateOfChargePercent, speedKmh, batteryTempC,
+                        updatedAtMillis, framesParsed);
+                if (sequence == before) return state;
+            }
+            Thread.onSpinWait();
+        }
+    }
+}
@@ -22,6 +22,57 @@ let hijackAlertSent = false;
 let handNotDetectedGrace = 0; // Grace period counter
 const HAND_NOT_DETECTED_GRACE_MAX = 5; // Allow up to 5 missed frames before decrementing
 
+// --- Server-side alertness telemetry (binary batches over /ws/alertness) ---
+const ALERTNESS_BATCH_SIZE = 15; // ~0.5s of frames at 30fps
+// Same id as the voice assistant (voice-assistant.js is loaded first); the socket is bound to it
+const alertnessVehicleId = getVehicleId();
+let latestEAR = 0;
+let alertnessSocket = null;
+let alertnessSamples = [];
+let lastSampleTime = performance.now();
+
+function connectAlertnessSocket() {
+  const protocol = location.protocol === 'https:' ? 'wss:' : 'ws:';
+  alertnessSocket = new WebSocket(`${protocol}//${location.host}/ws/alertness?vehicleId=${encodeURIComponent(alertnessVehicleId)}`);
+  alertnessSocket.binaryType = 'arraybuffer';
+  alertnessSocket.onclose = () => setTimeout(connectAlertnessSocket, 5000);
+}
+
+// Queue one sample per frame; flush a batch once enough have accumulated
+function recordAlertnessSample(ear, faceDetected, handRaised) {
+  const now = performance.now();
+  const dt = Math.min(65535, Math.round(now - lastSampleTime));
+  lastSampleTime = now;
+  alertnessSamples.push({ ear, flags: (faceDetected ? 1 : 0) | (handRaised ? 2 : 0), dt });
+  if (alertnessSamples.length >= ALERTNESS_BATCH_SIZE) flushAlertnessSamples();
+}
+
+// Layout: version, id length, id bytes, sample count, then per sample EAR*10000 (u16), flags (u8), dt ms (u16)
+function flushAlertnessSamples() {
+  if (!alertnessSocket || alertnessSocket.readyState !== WebSocket.OPEN) {
+    alertnessSamples = [];
+    return;
+  }
+  const idBytes = new TextEncoder().encode(alertnessVehicleId).slice(0, 64);
+  const buffer = new ArrayBuffer(4 + idBytes.length + alertnessSamples.length * 5);
+  const view = new DataView(buffer);
+  let offset = 0;
+  view.setUint8(offset++, 1);
+  view.setUint8(offset++, idBytes.length);
+  new Uint8Array(buffer, offset, idBytes.length).set(idBytes);
+  offset += idBytes.length;
+  view.setUint16(offset, alertnessSamples.length); offset += 2;
+  for (const sample of alertnessSamples) {
+    view.setUint16(offset, Math.min(65535, Math.round(sample.ear * 10000))); offset += 2;
+    view.setUint8(offset++, sample.flags);
+    view.setUint16(offset, sample.dt); offset += 2;
+  }
+  alertnessSocket.send(buffer);
+  alertnessSamples = [];
+}
+
+connectAlertnessSocket();
+
 function getEuclideanDistance(point1, point2) {
   const dx = point1.x - point2.x;
   const dy = point1.y - point2.y;
@@ -52,6 +103,7 @@ function isEyeClosed(landmarks) {
   const leftEAR = calculateEAR(landmarks, leftEyePoints);
   const rightEAR = calculateEAR(landmarks, rightEyePoints);
   const avgEAR = (leftEAR + rightEAR) / 2.0;
+  latestEAR = avgEAR;
 
   earHistory.push(avgEAR);
   if (earHistory.length > 100) earHistory.shift();
@@ -74,45 +126,32 @@ function speakDrowsyWarning() {
   }
 }
 
-// ADDED: Hijack Alert Function (Web3Forms)
+// Hijack alert: handed to the server, which journals, dedupes and emails it
 function sendHijackAlertEmail() {
     if (hijackAlertSent) return; // Prevent multiple alerts
-    console.log("Sending hijack alert email via Web3Forms...");
+    console.log("Sending hijack alert to the server...");
     hijackAlertSent = true;
     hijackStatusText.innerText = "⏳ Getting location...";
     hijackStatusText.style.color = "orange";
 
-    // Replace with your Web3Forms access key and recipient email
-    const accessKey = "f05b882e-ff8c-485d-b1fd-0699665c638a";
-    const emailTo = "sandeshsudake818@gmail.com";
-
     function sendEmailWithMessage(message) {
-        const formData = new FormData();
-        formData.append("access_key", accessKey);
-        formData.append("subject", "Hijack Alert Detected!");
-        formData.append("from_name", "EV Voice Assistant");
-        formData.append("email", emailTo);
-        formData.append("message", message);
-
-        fetch("https://api.web3forms.com/submit", {
+        fetch("/api/alerts", {
             method: "POST",
-            body: formData
+            headers: { "Content-Type": "application/json", "X-Vehicle-Id": alertnessVehicleId },
+            body: JSON.stringify({ type: "HIJACK", message: message })
+        })
+        .then(response => {
+            if (!response.ok) throw new Error("HTTP " + response.status);
+            return response.json();
         })
-        .then(response => response.json())
         .then(data => {
-            if (data.success) {
-                console.log("Hijack alert email sent via Web3Forms.");
-                hijackStatusText.innerText = "🆘 ALERT SENT!";
-                hijackStatusText.style.color = "red";
-            } else {
-                console.error("Failed to send hijack alert via Web3Forms.", data);
-                hijackStatusText.innerText = "❌ ALERT FAILED!";
-                hijackStatusText.style.color = "gray";
-                hijackAlertSent = false; // Allow retrying if it failed
-            }
+            // Accepted or already raised for this vehicle: either way the server will deliver it
+            console.log(data.duplicate ? "Hijack alert already raised." : "Hijack alert accepted by the server.");
+            hijackStatusText.innerText = "🆘 ALERT SENT!";
+            hijackStatusText.style.color = "red";
         })
         .catch(error => {
-            console.error('Error sending hijack alert via Web3Forms:', error);
+            console.error('Error sending hijack alert:', error);
             hijackStatusText.innerText = "❌ ALERT FAILED!";
             hijackStatusText.style.color = "gray";
             hijackAlertSent = false; // Allow retrying if it failed
@@ -217,6 +256,8 @@ hands.onResults(results => {
         }
     }
 
+    recordAlertnessSample(latestEAR, latestFaceLandmarks !== null, handIsRaised);
+
     if (handIsRaised) {
         handRaisedFrames++;
         handNotDetectedGrace = 0; // Reset grace period
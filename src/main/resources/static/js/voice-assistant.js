@@ -20,6 +20,26 @@
     const SpeechRecognition = window.SpeechRecognition || window.webkitSpeechRecognition;
     const speechSynthesis = window.speechSynthesis;
     let lastUtterance = null;
+    // Stable id for this browser so the assistant can resolve follow-ups like "weather there?";
+    // drowsiness.js reads it through getVehicleId() too, so both report as the same vehicle
+    function getVehicleId() {
+      let id = localStorage.getItem('ev-va-vehicle-id');
+      if (!id) {
+        id = 'web-' + Math.random().toString(36).slice(2, 12);
+        localStorage.setItem('ev-va-vehicle-id', id);
+      }
+      return id;
+    }
+    const vehicleId = getVehicleId();
+    // Latest known position, sent with each command so reachable chargers are measured from here
+    let lastPosition = null;
+    if (navigator.geolocation) {
+      navigator.geolocation.watchPosition(
+        pos => { lastPosition = { lat: pos.coords.latitude, lon: pos.coords.longitude }; },
+        () => { lastPosition = null; },
+        { enableHighAccuracy: false, maximumAge: 60000 }
+      );
+    }
     function speakText(text) {
       if (!speechSynthesis) return;
       if (speechSynthesis.speaking) { speechSynthesis.cancel(); }
@@ -56,8 +76,8 @@
         showProcessingMessage('Processing your command');
         fetch('/api/voice-command', {
           method: 'POST',
-          headers: {'Content-Type': 'application/json'},
-          body: JSON.stringify({ text: transcript })
+          headers: {'Content-Type': 'application/json', 'X-Vehicle-Id': vehicleId},
+          body: JSON.stringify(Object.assign({ text: transcript }, lastPosition || {}))
         })
         .then(res => { if (!res.ok) throw new Error('Network response was not ok'); return res.json(); })
         .then(data => {
@@ -0,0 +1,95 @@
+package com.example.demo;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Side-by-side throughput of the blocking and the reactive voice-command endpoints.
+ *
+ * Not a unit test: start the application first, with admission control off so the limiter doesn't
+ * decide the result ({@code --admission.enabled=false}), then run
+ * {@code VoiceCommandLoadHarness [baseUrl] [concurrency] [requestsPerEndpoint] [command]}.
+ * Both endpoints get the same command at the same concurrency, after a short warm-up, and the
+ * harness prints requests per second and latency percentiles for each. Use a command that misses
+ * the caches (or disable them) to measure the upstream-bound path rather than cache hits.
+ */
+public class VoiceCommandLoadHarness {
+
+    public static void main(String[] args) throws Exception {
+        String baseUrl = args.length > 0 ? args[0] : "http://localhost:8080";
+        int concurrency = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+        int requests = args.length > 2 ? Integer.parseInt(args[2]) : 2000;
+        String command = args.length > 3 ? args[3] : "what's the weather in Pune";
+
+        HttpClient client = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(5))
+                .executor(Executors.newFixedThreadPool(16))
+                .build();
+        String body = "{\"text\":\"" + command.replace("\"", "\\\"") + "\"}";
+
+        for (String path : new String[]{"/api/voice-command", "/api/reactive/voice-command"}) {
+            run(client, baseUrl + path, body, concurrency, Math.min(requests, concurrency * 2));
+            System.out.println(path + ": " + run(client, baseUrl + path, body, concurrency, requests));
+        }
+        System.exit(0);
+    }
+
+    private static String run(HttpClient client, String url, String body, int concurrency, int requests) throws Exception {
+        ExecutorService callers = Executors.newFixedThreadPool(concurrency);
+        AtomicInteger remaining = new AtomicInteger(requests);
+        AtomicInteger failures = new AtomicInteger();
+        List<Long> latencies = Collections.synchronizedList(new ArrayList<>(requests));
+
+        long start = System.nanoTime();
+        List<Future<?>> workers = new ArrayList<>();
+        for (int i = 0; i < concurrency; i++) {
+            workers.add(callers.submit(() -> {
+                while (remaining.getAndDecrement() > 0) {
+                    // A distinct client id per request, in case admission control is still on
+                    HttpRequest request = HttpRequest.newBuilder(URI.create(url))
+                            .timeout(Duration.ofSeconds(30))
+                            .header("Content-Type", "application/json")
+                            .header("X-Vehicle-Id", "load-" + remaining.get())
+                            .POST(HttpRequest.BodyPublishers.ofString(body))
+                            .build();
+                    long sent = System.nanoTime();
+                    try {
+                        HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                        if (response.statusCode() != 200) failures.incrementAndGet();
+                    } catch (Exception e) {
+                        failures.incrementAndGet();
+                    }
+                    latencies.add(System.nanoTime() - sent);
+                }
+                return null;
+            }));
+        }
+        for (Future<?> worker : workers) {
+            worker.get();
+        }
+        long elapsedNanos = System.nanoTime() - start;
+        callers.shutdown();
+
+        List<Long> sorted = new ArrayList<>(latencies);
+        Collections.sort(sorted);
+        return String.format("%d requests, %d failed, %.1f req/s, p50 %d ms, p95 %d ms, p99 %d ms",
+                sorted.size(), failures.get(), sorted.size() * 1e9 / elapsedNanos,
+                percentileMs(sorted, 0.50), percentileMs(sorted, 0.95), percentileMs(sorted, 0.99));
+    }
+
+    private static long percentileMs(List<Long> sorted, double p) {
+        if (sorted.isEmpty()) return 0;
+        int index = (int) Math.min(sorted.size() - 1, Math.ceil(p * sorted.size()) - 1);
+        return sorted.get(Math.max(0, index)) / 1_000_000;
+    }
+}
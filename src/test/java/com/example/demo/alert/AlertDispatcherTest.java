@@ -0,0 +1,108 @@
+package com.example.demo.alert;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AlertDispatcherTest {
+
+    private final StubAlertSink sink = new StubAlertSink();
+    private Path dir;
+    private AlertDispatcher dispatcher;
+
+    @AfterEach
+    void stop() throws Exception {
+        if (dispatcher != null) dispatcher.stop();
+        if (dir != null) {
+            try (var files = Files.list(dir)) {
+                for (Path file : files.toList()) Files.delete(file);
+            }
+            Files.delete(dir);
+        }
+    }
+
+    @Test
+    void richerRepeatIsMergedIntoTheWaitingAlert() throws Exception {
+        // Accepted before the application is ready, so nothing is delivered yet
+        dispatcher = dispatcher(3);
+        AlertRecord first = dispatcher.submit("car-1", "hijack", "Vehicle car-1 reported a hijack", 1000);
+        assertNull(dispatcher.submit("car-1", "HIJACK", "Vehicle car-1 reported a hijack", 2000));
+
+        AlertRecord located = dispatcher.submit("car-1", "HIJACK", "Last known location: 18.52, 73.85", 3000);
+        assertNotNull(located);
+        assertEquals(first.id(), located.id());
+        assertTrue(located.message().contains("reported a hijack"));
+        assertTrue(located.message().contains("18.52, 73.85"));
+
+        dispatcher.start();
+        waitFor(() -> sink.getDelivered().size() == 1);
+        assertEquals(located.message(), sink.getDelivered().get(0).message());
+        assertEquals(1L, dispatcher.getStats().get("merged"));
+    }
+
+    @Test
+    void alertsAcceptedBeforeStartAreJournaled() throws Exception {
+        dispatcher = dispatcher(3);
+        sink.failNext(Integer.MAX_VALUE);
+        AlertRecord early = dispatcher.submit("car-1", "SOS", "Driver pressed SOS", 1000);
+        dispatcher.start();
+        dispatcher.stop();
+
+        List<AlertRecord> replayed = new AlertJournal(dir.resolve("alerts.journal")).open();
+        assertEquals(1, replayed.size());
+        assertEquals(early.id(), replayed.get(0).id());
+    }
+
+    @Test
+    void rejectedBatchIsDeadLetteredAndLaterAlertsStillGoOut() throws Exception {
+        dispatcher = dispatcher(3);
+        sink.rejectNext(1);
+        dispatcher.start();
+        AlertRecord rejected = dispatcher.submit("car-1", "SOS", "Driver pressed SOS", 1000);
+        waitFor(() -> Long.valueOf(1).equals(dispatcher.getStats().get("deadLettered")));
+
+        AlertRecord later = dispatcher.submit("car-2", "SOS", "Driver pressed SOS", 2000);
+        waitFor(() -> sink.getDelivered().size() == 1);
+        assertEquals(later.id(), sink.getDelivered().get(0).id());
+
+        String deadLetters = Files.readString(dir.resolve("alerts.journal.dead"));
+        assertTrue(deadLetters.contains(rejected.id()));
+    }
+
+    @Test
+    void retriesStopAfterMaxAttempts() throws Exception {
+        dispatcher = dispatcher(3);
+        sink.failNext(Integer.MAX_VALUE);
+        dispatcher.start();
+        dispatcher.submit("car-1", "SOS", "Driver pressed SOS", 1000);
+        waitFor(() -> Long.valueOf(1).equals(dispatcher.getStats().get("deadLettered")));
+
+        assertEquals(3L, dispatcher.getStats().get("failedAttempts"));
+        assertTrue(sink.getDelivered().isEmpty());
+        dispatcher.stop();
+        assertTrue(new AlertJournal(dir.resolve("alerts.journal")).open().isEmpty(), "dead letters are not replayed");
+    }
+
+    private AlertDispatcher dispatcher(int maxAttempts) throws Exception {
+        dir = Files.createTempDirectory("alerts");
+        return new AlertDispatcher(sink, dir.resolve("alerts.journal").toString(), 60_000, 20, 10, 5, 20,
+                maxAttempts, 60_000);
+    }
+
+    private static void waitFor(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.currentTimeMillis() < deadline, "timed out waiting");
+            Thread.sleep(10);
+        }
+    }
+}
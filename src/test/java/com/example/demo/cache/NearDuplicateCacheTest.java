@@ -0,0 +1,56 @@
+package com.example.demo.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class NearDuplicateCacheTest {
+
+    private final NearDuplicateCache<String> cache = new NearDuplicateCache<>(100, 1, TimeUnit.HOURS, 0.7);
+
+    @Test
+    void paraphrasesShareAnAnswer() {
+        cache.put("How long to charge a Nexon?", "About an hour on a fast charger.");
+
+        assertEquals("About an hour on a fast charger.", cache.get("Nexon charging time"));
+        assertEquals("About an hour on a fast charger.", cache.get("how long does it take to charge the nexon"));
+        assertEquals("About an hour on a fast charger.", cache.get("Nexon charge time?"));
+    }
+
+    @Test
+    void differentNumbersNeverMatch() {
+        cache.put("how long to charge from 20 to 80 percent", "About 45 minutes.");
+
+        assertNull(cache.get("how long to charge from 10 to 80 percent"));
+        assertNull(cache.get("how long to charge from 20 to 90 percent"));
+        assertEquals("About 45 minutes.", cache.get("charging time from 20 to 80 percent"));
+        assertEquals("About 45 minutes.", cache.get("how long to charge from 20 to 80%"));
+    }
+
+    @Test
+    void unitsAndDirectionAreKeptApart() {
+        cache.put("convert 100 km to miles", "62 miles.");
+        assertNull(cache.get("convert 100 miles to km"));
+        assertEquals("62 miles.", cache.get("convert 100 km into miles"));
+
+        cache.put("convert km to miles", "Multiply by 0.621.");
+        assertNull(cache.get("convert miles to km"));
+    }
+
+    @Test
+    void quantitiesKeepTheirUnit() {
+        assertEquals(List.of("100 km"), NearDuplicateCache.quantities("convert 100 km to miles"));
+        assertEquals(List.of("20", "80 percent"), NearDuplicateCache.quantities("from 20 to 80%"));
+        assertEquals(List.of(), NearDuplicateCache.quantities("Nexon charging time"));
+    }
+
+    @Test
+    void unrelatedQuestionMisses() {
+        cache.put("How long to charge a Nexon?", "About an hour on a fast charger.");
+        assertNull(cache.get("range of a Nexon in winter"));
+    }
+}
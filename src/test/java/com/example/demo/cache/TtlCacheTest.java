@@ -0,0 +1,79 @@
+package com.example.demo.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TtlCacheTest {
+
+    @Test
+    void concurrentMissesShareOneLoad() throws Exception {
+        TtlCache<String, String> cache = new TtlCache<>(16, 1, TimeUnit.MINUTES);
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch loadStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        CompletableFuture<String> first = CompletableFuture.supplyAsync(() -> cache.getOrLoad("pune", k -> {
+            loads.incrementAndGet();
+            loadStarted.countDown();
+            await(release);
+            return "18.52,73.85";
+        }));
+        assertTrue(loadStarted.await(5, TimeUnit.SECONDS));
+        CompletableFuture<String> second = CompletableFuture.supplyAsync(() -> cache.getOrLoad("pune", k -> {
+            loads.incrementAndGet();
+            return "other";
+        }));
+
+        Thread.sleep(50);
+        release.countDown();
+        assertEquals("18.52,73.85", first.get(5, TimeUnit.SECONDS));
+        assertEquals("18.52,73.85", second.get(5, TimeUnit.SECONDS));
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void waiterLoadsItselfWhenTheSharedLoadFails() throws Exception {
+        TtlCache<String, String> cache = new TtlCache<>(16, 1, TimeUnit.MINUTES);
+        CountDownLatch loadStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        CompletableFuture<String> failing = CompletableFuture.supplyAsync(() -> cache.getOrLoad("pune", k -> {
+            loadStarted.countDown();
+            await(release);
+            throw new IllegalStateException("budget exceeded");
+        }));
+        assertTrue(loadStarted.await(5, TimeUnit.SECONDS));
+        CompletableFuture<String> waiter = CompletableFuture.supplyAsync(() -> cache.getOrLoad("pune", k -> "own result"));
+
+        Thread.sleep(50);
+        release.countDown();
+        assertEquals("own result", waiter.get(5, TimeUnit.SECONDS));
+        assertThrows(Exception.class, () -> failing.get(5, TimeUnit.SECONDS));
+        assertEquals("own result", cache.get("pune"));
+    }
+
+    @Test
+    void nullResultsAreNotCached() {
+        TtlCache<String, String> cache = new TtlCache<>(16, 1, TimeUnit.MINUTES);
+
+        assertNull(cache.getOrLoad("nowhere", k -> null));
+        assertEquals("found", cache.getOrLoad("nowhere", k -> "found"));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
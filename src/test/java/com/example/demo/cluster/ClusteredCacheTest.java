@@ -0,0 +1,85 @@
+package com.example.demo.cluster;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class ClusteredCacheTest {
+
+    private static final double[] PUNE = {73.85, 18.52};
+    private static final double[] NASHIK = {73.79, 19.99};
+
+    private final LoopbackClusterBus.Network network = new LoopbackClusterBus.Network();
+    private final ClusteredCache<double[]> a = geocodes(network.join("a"));
+    private final ClusteredCache<double[]> b = geocodes(network.join("b"));
+
+    @Test
+    void valueLoadedOnOneNodeIsAHitOnTheOther() {
+        AtomicInteger loads = new AtomicInteger();
+        Function<String, double[]> loader = k -> {
+            loads.incrementAndGet();
+            return PUNE;
+        };
+
+        assertArrayEquals(PUNE, a.getOrLoad("pune", loader));
+        assertArrayEquals(PUNE, b.getOrLoad("pune", loader));
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void putAndInvalidateReachEveryNode() {
+        a.put("nashik", PUNE);
+        assertArrayEquals(PUNE, b.get("nashik"));
+
+        b.put("nashik", NASHIK);
+        assertArrayEquals(NASHIK, a.get("nashik"));
+
+        a.invalidate("nashik");
+        assertNull(a.get("nashik"));
+        assertNull(b.get("nashik"));
+    }
+
+    @Test
+    void localPutStaysLocal() {
+        a.putLocal("pune", PUNE);
+        assertNull(b.get("pune"));
+    }
+
+    @Test
+    void undecodableUpdateDropsTheStaleEntry() {
+        b.putLocal("pune", PUNE);
+        ClusteredCache<double[]> sender = new ClusteredCache<>("geocode", 16, 1, TimeUnit.MINUTES,
+                network.join("c"), v -> "somewhere", ClusteredCacheTest::decode);
+        sender.put("pune", PUNE);
+        assertNull(b.get("pune"));
+    }
+
+    @Test
+    void otherCachesAreNotTouched() {
+        ClusteredCache<double[]> other = new ClusteredCache<>("other", 16, 1, TimeUnit.MINUTES,
+                network.join("c"), ClusteredCacheTest::encode, ClusteredCacheTest::decode);
+        other.put("pune", PUNE);
+        assertNull(a.get("pune"));
+        assertNull(b.get("pune"));
+    }
+
+    private static ClusteredCache<double[]> geocodes(ClusterCacheBus bus) {
+        return new ClusteredCache<>("geocode", 16, 1, TimeUnit.MINUTES, bus,
+                ClusteredCacheTest::encode, ClusteredCacheTest::decode);
+    }
+
+    private static String encode(double[] coords) {
+        return coords[0] + "," + coords[1];
+    }
+
+    private static double[] decode(String value) {
+        String[] parts = value.split(",");
+        return new double[]{Double.parseDouble(parts[0]), Double.parseDouble(parts[1])};
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.demo.config;
+
+import com.example.demo.service.AdmissionLimiter;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class AdmissionInterceptorTest {
+
+    // One token per client and next to no refill, so charging a request twice gets it rejected
+    private final AdmissionLimiter admissionLimiter = new AdmissionLimiter(true, 0.001, 1, 100, 100, 100);
+    private final MockMvc mockMvc = MockMvcBuilders.standaloneSetup(new ReplyController())
+            .addInterceptors(new AdmissionInterceptor(admissionLimiter))
+            .build();
+
+    @Test
+    void monoReplyIsChargedOnceAcrossTheAsyncDispatch() throws Exception {
+        MvcResult started = mockMvc.perform(post("/api/reactive/smart").header("X-Vehicle-Id", "car-1"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(content().string("ok"));
+
+        assertEquals(1L, admissionLimiter.snapshot().get("admitted"));
+        assertEquals(0L, admissionLimiter.snapshot().get("throttledClient"));
+    }
+
+    @Test
+    void nextRequestStillPaysForItself() throws Exception {
+        MvcResult started = mockMvc.perform(post("/api/reactive/smart").header("X-Vehicle-Id", "car-1"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(started)).andExpect(status().isOk());
+
+        mockMvc.perform(post("/api/reactive/smart").header("X-Vehicle-Id", "car-1"))
+                .andExpect(status().isTooManyRequests());
+        assertEquals(1L, admissionLimiter.snapshot().get("throttledClient"));
+    }
+
+    @RestController
+    static class ReplyController {
+
+        @PostMapping("/api/reactive/smart")
+        public Mono<String> smart() {
+            return Mono.just("ok");
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package com.example.demo.intent;
+
+import com.example.demo.cluster.LoopbackClusterBus;
+import com.example.demo.entity.ChargerSet;
+import com.example.demo.entity.CurrentWeather;
+import com.example.demo.entity.IntentData;
+import com.example.demo.entity.RouteEstimate;
+import com.example.demo.service.ChargerDirectoryService;
+import com.example.demo.service.FetchScope;
+import com.example.demo.service.GeocodeService;
+import com.example.demo.service.ReachabilityEngine;
+import com.example.demo.service.ReachabilityService;
+import com.example.demo.service.RouteService;
+import com.example.demo.service.WeatherService;
+import com.example.demo.telemetry.TelemetryService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IntentPlannerTest {
+
+    // Calls that reached each upstream service, by place or kind
+    private final ConcurrentMap<String, AtomicInteger> geocoded = new ConcurrentHashMap<>();
+    private final AtomicInteger weatherCalls = new AtomicInteger();
+    private final AtomicInteger routeCalls = new AtomicInteger();
+    private final AtomicInteger chargerCalls = new AtomicInteger();
+
+    private final GeocodeService geocodeService = new GeocodeService(new LoopbackClusterBus.Network().join("test"), 1000, 1000) {
+        @Override
+        public double[] geocode(String placeName) {
+            geocoded.computeIfAbsent(GeocodeService.normalize(placeName), k -> new AtomicInteger()).incrementAndGet();
+            return switch (GeocodeService.normalize(placeName)) {
+                case "pune" -> new double[]{73.85, 18.52};
+                case "nashik" -> new double[]{73.79, 19.99};
+                default -> throw new RuntimeException("Place not found: " + placeName);
+            };
+        }
+    };
+    private final WeatherService weatherService = new WeatherService(geocodeService, new LoopbackClusterBus.Network().join("test"), 1000, 1000) {
+        @Override
+        public CurrentWeather getWeatherAt(double[] coords) {
+            weatherCalls.incrementAndGet();
+            return new CurrentWeather(25, 5, 0);
+        }
+    };
+    private final RouteService routeService = new RouteService(geocodeService, 1000, 1000) {
+        @Override
+        public RouteEstimate getRouteEstimate(double[] fromCoords, double[] toCoords) {
+            routeCalls.incrementAndGet();
+            return new RouteEstimate(210, 4);
+        }
+    };
+    private final ChargerDirectoryService chargerDirectoryService = new ChargerDirectoryService(50, 1000, 1000) {
+        @Override
+        public ChargerSet findNear(double[] coords) {
+            chargerCalls.incrementAndGet();
+            return new ChargerSet(new String[]{"Shivajinagar Fast Charge"}, new double[]{18.53}, new double[]{73.85});
+        }
+    };
+    private final ReachabilityService reachabilityService = new ReachabilityService(
+            new ReachabilityEngine(40.5, 140, 10, 1.25), geocodeService, routeService, weatherService,
+            chargerDirectoryService, new TelemetryService("none", "", 0, List.of(), List.of(), 100, "", false, 0, 16, "0x5C", ""));
+    private final IntentPlanner planner = new IntentPlanner(
+            List.of(new WeatherIntentHandler(weatherService), new ReachabilityIntentHandler(reachabilityService)),
+            geocodeService, weatherService, routeService, chargerDirectoryService, 4, 4);
+
+    @AfterEach
+    void shutdown() {
+        planner.shutdown();
+    }
+
+    @Test
+    void placeSharedByThreeIntentsIsGeocodedOnce() {
+        // "weather, reachable chargers and route from Pune"
+        IntentData weather = intent("weather", "Pune", null, null);
+        IntentData chargers = intent("reachable_chargers", "Pune", null, null);
+        chargers.setBatteryPercent(60.0);
+        IntentData route = intent("reachability", null, "Pune", "Nashik");
+        route.setBatteryPercent(60.0);
+        FetchScope scope = planner.newScope();
+
+        String reply = planner.execute(List.of(weather, chargers, route), "weather, reachable chargers and route from Pune",
+                scope, "car-1", null).join();
+
+        String[] parts = reply.split("\n\n");
+        assertEquals(3, parts.length, reply);
+        assertTrue(parts[0].contains("weather in Pune"), parts[0]);
+        assertTrue(parts[1].contains("charging stations near Pune"), parts[1]);
+        assertTrue(parts[2].contains("Pune to Nashik is 210 km"), parts[2]);
+
+        assertEquals(1, geocoded.get("pune").get());
+        assertEquals(1, geocoded.get("nashik").get());
+        assertEquals(1, weatherCalls.get(), "Pune's weather serves the weather reply and both range estimates");
+        assertEquals(1, routeCalls.get());
+        assertEquals(1, chargerCalls.get());
+        assertTrue(scope.uniqueCount() < scope.requestedCount());
+    }
+
+    @Test
+    void failedLookupStillLetsTheOtherHandlersReply() {
+        IntentData unknown = intent("weather", "Atlantis", null, null);
+        IntentData known = intent("weather", "Pune", null, null);
+
+        String reply = planner.execute(List.of(unknown, known), "weather in Atlantis and Pune",
+                planner.newScope(), "car-1", null).join();
+
+        String[] parts = reply.split("\n\n");
+        assertEquals(2, parts.length, reply);
+        assertTrue(parts[0].startsWith("Sorry, I couldn't get the weather for \"Atlantis\""), parts[0]);
+        assertTrue(parts[1].contains("weather in Pune"), parts[1]);
+        assertEquals(1, geocoded.get("atlantis").get(), "the failure is not retried within the query");
+    }
+
+    @Test
+    void unhandledIntentsGetTheFallbackReply() {
+        String reply = planner.execute(List.of(intent("teleport", "Pune", null, null)), "teleport me to Pune",
+                planner.newScope(), null, null).join();
+        assertEquals(IntentPlanner.UNPROCESSED_REPLY, reply);
+    }
+
+    private static IntentData intent(String name, String place, String from, String to) {
+        IntentData intent = new IntentData();
+        intent.setIntent(name);
+        intent.setPlace(place);
+        intent.setFromPlace(from);
+        intent.setToPlace(to);
+        return intent;
+    }
+}
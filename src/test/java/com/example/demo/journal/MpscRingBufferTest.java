@@ -0,0 +1,88 @@
+package com.example.demo.journal;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MpscRingBufferTest {
+
+    @Test
+    void capacityIsRoundedUpToAPowerOfTwo() {
+        assertEquals(8, new MpscRingBuffer<String>(8).capacity());
+        assertEquals(8, new MpscRingBuffer<String>(5).capacity());
+        assertEquals(1024, new MpscRingBuffer<String>(1000).capacity());
+    }
+
+    @Test
+    void fullRingDropsAndCountsUntilDrained() {
+        MpscRingBuffer<Integer> ring = new MpscRingBuffer<>(4);
+        for (int i = 0; i < 4; i++) {
+            assertTrue(ring.offer(i));
+        }
+        assertFalse(ring.offer(4));
+        assertEquals(1L, ring.droppedCount());
+        assertEquals(4, ring.size());
+
+        List<Integer> drained = new ArrayList<>();
+        assertEquals(2, ring.drainTo(drained::add, 2));
+        assertEquals(List.of(0, 1), drained);
+
+        // The freed slots are reused on the next lap, still in order
+        assertTrue(ring.offer(5));
+        assertTrue(ring.offer(6));
+        assertEquals(4, ring.drainTo(drained::add, 10));
+        assertEquals(List.of(0, 1, 2, 3, 5, 6), drained);
+        assertEquals(0, ring.size());
+    }
+
+    @Test
+    void concurrentProducersLoseNothingThatWasAccepted() throws Exception {
+        int producers = 4;
+        int perProducer = 50_000;
+        MpscRingBuffer<long[]> ring = new MpscRingBuffer<>(1024);
+        CountDownLatch done = new CountDownLatch(producers);
+        int[] accepted = new int[producers];
+
+        for (int p = 0; p < producers; p++) {
+            int producer = p;
+            new Thread(() -> {
+                for (int i = 0; i < perProducer; i++) {
+                    if (ring.offer(new long[]{producer, i})) accepted[producer]++;
+                }
+                done.countDown();
+            }).start();
+        }
+
+        // Each producer's elements must come out in the order it offered them
+        long[] lastSeen = new long[producers];
+        Arrays.fill(lastSeen, -1);
+        int[] consumed = new int[producers];
+        boolean[] ordered = {true};
+        while (done.getCount() > 0 || ring.size() > 0) {
+            int n = ring.drainTo(element -> {
+                int producer = (int) element[0];
+                if (element[1] <= lastSeen[producer]) ordered[0] = false;
+                lastSeen[producer] = element[1];
+                consumed[producer]++;
+            }, 256);
+            if (n == 0) Thread.onSpinWait();
+        }
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+
+        long totalAccepted = 0;
+        for (int p = 0; p < producers; p++) {
+            assertEquals(accepted[p], consumed[p], "producer " + p);
+            totalAccepted += accepted[p];
+        }
+        assertTrue(ordered[0], "per-producer order kept");
+        assertEquals((long) producers * perProducer, totalAccepted + ring.droppedCount());
+    }
+}
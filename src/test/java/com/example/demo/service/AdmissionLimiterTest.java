@@ -0,0 +1,77 @@
+package com.example.demo.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AdmissionLimiterTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    void bucketAllowsTheBurstThenOneRequestPerInterval() {
+        // 2 per second, burst of 3
+        AdmissionLimiter.Bucket bucket = new AdmissionLimiter.Bucket(2, 3);
+        long now = 1_000 * SECOND;
+        assertEquals(0L, bucket.tryAcquire(now));
+        assertEquals(0L, bucket.tryAcquire(now));
+        assertEquals(0L, bucket.tryAcquire(now));
+        assertEquals(SECOND / 2, bucket.tryAcquire(now), "the fourth waits a full interval");
+
+        assertEquals(SECOND / 4, bucket.tryAcquire(now + SECOND / 4));
+        assertEquals(0L, bucket.tryAcquire(now + SECOND / 2));
+        assertTrue(bucket.tryAcquire(now + SECOND / 2) > 0, "only one token refilled");
+    }
+
+    @Test
+    void idleBucketRefillsToTheBurstAndNoFurther() {
+        AdmissionLimiter.Bucket bucket = new AdmissionLimiter.Bucket(2, 3);
+        long now = 1_000 * SECOND;
+        for (int i = 0; i < 3; i++) bucket.tryAcquire(now);
+
+        long later = now + 60 * SECOND;
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0L, bucket.tryAcquire(later), "request " + i + " after an idle minute");
+        }
+        assertTrue(bucket.tryAcquire(later) > 0);
+    }
+
+    @Test
+    void refundReturnsTheToken() {
+        AdmissionLimiter.Bucket bucket = new AdmissionLimiter.Bucket(1, 1);
+        long now = 1_000 * SECOND;
+        assertEquals(0L, bucket.tryAcquire(now));
+        assertTrue(bucket.tryAcquire(now) > 0);
+        bucket.refund();
+        assertEquals(0L, bucket.tryAcquire(now));
+    }
+
+    @Test
+    void globalRejectionDoesNotChargeTheClient() {
+        // Neither bucket refills within the test
+        AdmissionLimiter limiter = new AdmissionLimiter(true, 0.001, 2, 0.001, 3, 100);
+        assertEquals(0L, limiter.tryAdmit("car-1"));
+        assertEquals(0L, limiter.tryAdmit("car-1"));
+        assertTrue(limiter.tryAdmit("car-1") > 0, "client burst spent");
+        assertEquals(0L, limiter.tryAdmit("car-2"));
+        assertTrue(limiter.tryAdmit("car-3") > 0, "global burst spent");
+
+        assertEquals(3L, limiter.snapshot().get("admitted"));
+        assertEquals(1L, limiter.snapshot().get("throttledClient"));
+        assertEquals(1L, limiter.snapshot().get("throttledGlobal"));
+        // car-3 still has both of its own tokens; only the global budget is empty
+        assertTrue(limiter.tryAdmit("car-3") > 0);
+        assertEquals(2L, limiter.snapshot().get("throttledGlobal"));
+    }
+
+    @Test
+    void disabledLimiterAdmitsEverything() {
+        AdmissionLimiter limiter = new AdmissionLimiter(false, 0.001, 1, 0.001, 1, 100);
+        for (int i = 0; i < 10; i++) {
+            assertEquals(0L, limiter.tryAdmit("car-1"));
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.demo.service;
+
+import com.example.demo.entity.DriverAlertEvent;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AlertnessServiceTest {
+
+    private static final int OPEN = 3000;
+    private static final int CLOSED = 1000;
+
+    private final List<Object> events = new ArrayList<>();
+    // 90-sample window, eyes closed below 0.18, PERCLOS alarm at 40%; the closed-run rule is out of reach
+    private final AlertnessService service = new AlertnessService(events::add, 100, 10, 90, 0.18,
+            60_000, 0.4, 2000, 170);
+
+    @Test
+    void batchNamingAnotherVehicleIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> service.ingest("car-1", batch("car-2", OPEN, 5)));
+        assertNull(service.getVehicleStatus("car-2"), "no window was created for the claimed vehicle");
+        assertNull(service.getVehicleStatus("car-1"));
+    }
+
+    @Test
+    void windowHoldsExactlyTheConfiguredNumberOfSamples() {
+        // 36 closed samples out of 90 is 40%: drowsy only once all 90 are in, not at 128
+        service.ingest("car-1", batch("car-1", CLOSED, 36));
+        service.ingest("car-1", batch("car-1", OPEN, 53));
+        assertTrue(events.isEmpty(), "window not full yet");
+
+        service.ingest("car-1", batch("car-1", OPEN, 1));
+        assertEquals(1, events.size());
+        DriverAlertEvent event = (DriverAlertEvent) events.get(0);
+        assertEquals("car-1", event.vehicleId());
+        assertEquals(DriverAlertEvent.Type.DROWSINESS, event.type());
+
+        // The oldest closed sample slides out: 35 of 90 is under the threshold
+        service.ingest("car-1", batch("car-1", OPEN, 1));
+        Map<String, Object> status = service.getVehicleStatus("car-1");
+        assertFalse((Boolean) status.get("drowsy"));
+        assertEquals(35 / 90.0, (Double) status.get("perclos"), 1e-9);
+    }
+
+    @Test
+    void vehicleIdsAreValidatedForConnections() {
+        assertTrue(AlertnessService.isValidVehicleId("web-k3j2h1g0f9"));
+        assertFalse(AlertnessService.isValidVehicleId(null));
+        assertFalse(AlertnessService.isValidVehicleId(""));
+        assertFalse(AlertnessService.isValidVehicleId("car 1"));
+        assertFalse(AlertnessService.isValidVehicleId("x".repeat(65)));
+    }
+
+    // Face detected, 33 ms apart, all with the same eye aspect ratio (× 10000)
+    private static ByteBuffer batch(String vehicleId, int ear, int count) {
+        byte[] id = vehicleId.getBytes(StandardCharsets.UTF_8);
+        ByteBuffer buffer = ByteBuffer.allocate(4 + id.length + count * 5);
+        buffer.put((byte) AlertnessService.FORMAT_VERSION).put((byte) id.length).put(id).putShort((short) count);
+        for (int i = 0; i < count; i++) {
+            buffer.putShort((short) ear).put((byte) 1).putShort((short) 33);
+        }
+        return buffer.flip();
+    }
+}
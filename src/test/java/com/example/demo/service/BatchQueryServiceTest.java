@@ -0,0 +1,139 @@
+package com.example.demo.service;
+
+import com.example.demo.cluster.LoopbackClusterBus;
+import com.example.demo.entity.CurrentWeather;
+import com.example.demo.intent.IntentPlanner;
+import com.example.demo.intent.WeatherIntentHandler;
+import com.example.demo.journal.QueryJournal;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BatchQueryServiceTest {
+
+    private static final String TOO_LONG = "Sorry, that took too long. Please try again.";
+
+    // How often Gemini was asked to classify each query, and how often each place was geocoded
+    private final ConcurrentMap<String, AtomicInteger> classified = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, AtomicInteger> geocoded = new ConcurrentHashMap<>();
+
+    // At most one background request at a time, so every unique query is its own wave
+    private final GeminiGovernor governor = new GeminiGovernor(1, 8, 0, 8000, 30000);
+    private final GeminiService gemini = new GeminiService(null, governor) {
+        @Override
+        public CompletableFuture<String> askGeminiAsync(String prompt, GeminiGovernor.Lane lane) {
+            String query = queryIn(prompt);
+            classified.computeIfAbsent(query, k -> new AtomicInteger()).incrementAndGet();
+            // "stall" never gets an answer, like a Gemini call that hangs
+            if (query.startsWith("stall")) return new CompletableFuture<>();
+            String place = query.substring(query.lastIndexOf(' ') + 1);
+            return CompletableFuture.completedFuture("[{\"intent\":\"weather\",\"place\":\"" + place + "\"}]");
+        }
+    };
+    private final GeocodeService geocodeService = new GeocodeService(new LoopbackClusterBus.Network().join("test"), 1000, 1000) {
+        @Override
+        public double[] geocode(String placeName) {
+            geocoded.computeIfAbsent(GeocodeService.normalize(placeName), k -> new AtomicInteger()).incrementAndGet();
+            return new double[]{73.0 + placeName.length() / 10.0, 18.5};
+        }
+    };
+    private final WeatherService weatherService = new WeatherService(geocodeService, new LoopbackClusterBus.Network().join("test"), 1000, 1000) {
+        @Override
+        public CurrentWeather getWeatherAt(double[] coords) {
+            return new CurrentWeather(25, 5, 0);
+        }
+    };
+    private final IntentPlanner planner = new IntentPlanner(List.of(new WeatherIntentHandler(weatherService)),
+            geocodeService, weatherService, null, null, 4, 4);
+    private final GeminiSmartService smartService = new GeminiSmartService(gemini, geocodeService,
+            new ConversationContextStore(100, 30), planner, new IntentCache(false, 16, 60),
+            new QueryJournal(false, "unused", 16, 1, 60, 1, 1000));
+
+    @AfterEach
+    void shutdown() {
+        planner.shutdown();
+    }
+
+    @Test
+    void repliesComeBackInInputOrder() {
+        BatchQueryService batch = new BatchQueryService(smartService, planner, governor, 200, 5000);
+        List<String> places = List.of("Satara", "Kolhapur", "Lonavala", "Satara", "Karad");
+        List<BatchQueryService.BatchItem> items = new ArrayList<>();
+        for (int i = 0; i < places.size(); i++) {
+            items.add(new BatchQueryService.BatchItem("weather in " + places.get(i), "car-" + i));
+        }
+
+        List<String> replies = replies(batch.handleBatch(items));
+        assertEquals(places.size(), replies.size());
+        for (int i = 0; i < places.size(); i++) {
+            assertTrue(replies.get(i).contains(places.get(i)), "reply " + i + ": " + replies.get(i));
+        }
+    }
+
+    @Test
+    void identicalQueriesAreClassifiedOnce() {
+        BatchQueryService batch = new BatchQueryService(smartService, planner, governor, 200, 5000);
+        Map<String, Object> result = batch.handleBatch(List.of(
+                new BatchQueryService.BatchItem("weather in Satara", "car-1"),
+                new BatchQueryService.BatchItem("  Weather in Satara ", "car-2"),
+                new BatchQueryService.BatchItem("weather in Satara", null)));
+
+        assertEquals(1, result.get("uniqueQueries"));
+        assertEquals(1, classified.size());
+        assertEquals(1, classified.get("weather in Satara").get());
+        assertEquals(3, replies(result).size());
+    }
+
+    @Test
+    void aPlaceNamedByFiftyVehiclesIsLookedUpOnce() {
+        BatchQueryService batch = new BatchQueryService(smartService, planner, governor, 200, 5000);
+        List<BatchQueryService.BatchItem> items = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            // Worded differently, so each is its own query, but all about the same place
+            items.add(new BatchQueryService.BatchItem("car " + i + " weather in Satara", "car-" + i));
+        }
+
+        Map<String, Object> result = batch.handleBatch(items);
+        assertEquals(50, result.get("uniqueQueries"));
+        assertEquals(1, geocoded.get("satara").get());
+        long requested = (Long) result.get("lookupsRequested");
+        int performed = (Integer) result.get("lookupsPerformed");
+        assertTrue(performed < requested, performed + " of " + requested);
+        assertEquals(2, performed, "one geocode and one weather lookup");
+    }
+
+    @Test
+    void queriesStillRunningAtTheTimeoutAreCancelled() {
+        BatchQueryService batch = new BatchQueryService(smartService, planner, governor, 200, 300);
+        Map<String, Object> result = batch.handleBatch(List.of(
+                new BatchQueryService.BatchItem("stall in Satara", "car-1"),
+                new BatchQueryService.BatchItem("weather in Karad", "car-2")));
+
+        assertEquals(List.of(TOO_LONG, TOO_LONG), replies(result));
+        assertEquals(2, result.get("timedOut"));
+        // The second wave waited on the stalled one and is never sent
+        assertNull(classified.get("weather in Karad"));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<String> replies(Map<String, Object> result) {
+        return (List<String>) result.get("replies");
+    }
+
+    // The query as quoted in the classification prompt
+    private static String queryIn(String prompt) {
+        int start = prompt.indexOf("exactly: \"") + "exactly: \"".length();
+        return prompt.substring(start, prompt.indexOf("\".", start));
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.demo.service;
+
+import com.example.demo.cluster.LoopbackClusterBus;
+import com.example.demo.entity.BroadcastPost;
+import com.example.demo.repository.BroadcastPostRepository;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class BroadcastFeedCacheTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2026, 1, 1, 8, 0);
+
+    // The database both replicas share
+    private final List<BroadcastPost> table = new ArrayList<>();
+    private final AtomicInteger queries = new AtomicInteger();
+    private final BroadcastPostRepository repo = repository();
+
+    private final LoopbackClusterBus.Network network = new LoopbackClusterBus.Network();
+    private final BroadcastFeedCache a = new BroadcastFeedCache(repo, network.join("a"), 60);
+    private final BroadcastFeedCache b = new BroadcastFeedCache(repo, network.join("b"), 60);
+
+    @Test
+    void postSavedOnOneNodeAppearsOnTheOtherWithoutAQuery() {
+        save(1, "Charger at Hinjewadi is down");
+        assertEquals(List.of(1L), ids(a.newest()));
+        assertEquals(List.of(1L), ids(b.newest()));
+        int loaded = queries.get();
+
+        a.added(save(2, "Traffic on the expressway"));
+        assertEquals(List.of(2L, 1L), ids(b.newest()));
+        assertEquals(List.of(2L, 1L), ids(a.newest()));
+        assertEquals(loaded, queries.get());
+    }
+
+    @Test
+    void deleteIsAppliedOnEveryNode() {
+        save(1, "one");
+        save(2, "two");
+        a.newest();
+        b.newest();
+
+        table.removeIf(p -> p.getId() == 2L);
+        b.deleted(2L);
+        assertEquals(List.of(1L), ids(a.newest()));
+        assertEquals(List.of(1L), ids(b.newest()));
+    }
+
+    @Test
+    void deleteFromAFullFeedReloadsIt() {
+        for (int i = 1; i <= 9; i++) save(i, "post " + i);
+        assertEquals(8, a.newest().size());
+        b.newest();
+        int loaded = queries.get();
+
+        table.removeIf(p -> p.getId() == 9L);
+        b.deleted(9L);
+        // Post 1 moves up into the feed; only the database has it
+        assertEquals(List.of(8L, 7L, 6L, 5L, 4L, 3L, 2L, 1L), ids(a.newest()));
+        assertEquals(List.of(8L, 7L, 6L, 5L, 4L, 3L, 2L, 1L), ids(b.newest()));
+        assertEquals(loaded + 2, queries.get());
+    }
+
+    private BroadcastPost save(long id, String content) {
+        BroadcastPost post = new BroadcastPost();
+        post.setId(id);
+        post.setContent(content);
+        post.setCreatedAt(START.plusMinutes(id));
+        table.add(post);
+        return post;
+    }
+
+    private static List<Long> ids(List<BroadcastPost> posts) {
+        return posts.stream().map(BroadcastPost::getId).toList();
+    }
+
+    private BroadcastPostRepository repository() {
+        return (BroadcastPostRepository) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[]{BroadcastPostRepository.class}, (proxy, method, args) -> {
+                    if (!method.getName().equals("findTop8ByOrderByCreatedAtDesc")) {
+                        throw new UnsupportedOperationException(method.getName());
+                    }
+                    queries.incrementAndGet();
+                    return table.stream()
+                            .sorted(Comparator.comparing(BroadcastPost::getCreatedAt).reversed())
+                            .limit(8)
+                            .toList();
+                });
+    }
+}
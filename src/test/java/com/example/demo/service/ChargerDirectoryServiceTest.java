@@ -0,0 +1,29 @@
+package com.example.demo.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+class ChargerDirectoryServiceTest {
+
+    @Test
+    void pointsInOneCellShareKeyAndSearchCentre() {
+        double[] first = {73.8012, 18.5204};
+        double[] second = {73.8987, 18.5991};
+
+        assertEquals(ChargerDirectoryService.cellKey(first), ChargerDirectoryService.cellKey(second));
+        assertEquals("18.55,73.85", ChargerDirectoryService.cellKey(first));
+        // The search is centred on the cell, not on whichever point asked first
+        assertArrayEquals(new double[]{73.85, 18.55}, ChargerDirectoryService.cellCentre(first), 1e-9);
+        assertArrayEquals(new double[]{73.85, 18.55}, ChargerDirectoryService.cellCentre(second), 1e-9);
+    }
+
+    @Test
+    void neighbouringCellsAndNegativeCoordinatesGetTheirOwnCell() {
+        assertNotEquals(ChargerDirectoryService.cellKey(new double[]{73.8999, 18.55}),
+                ChargerDirectoryService.cellKey(new double[]{73.9001, 18.55}));
+        assertArrayEquals(new double[]{-0.05, -33.85}, ChargerDirectoryService.cellCentre(new double[]{-0.01, -33.81}), 1e-9);
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.demo.service;
+
+import com.example.demo.entity.ResolvedPlace;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class ConversationContextStoreTest {
+
+    private static final ResolvedPlace PUNE = new ResolvedPlace("Pune", 73.85, 18.52);
+    private static final ResolvedPlace NASHIK = new ResolvedPlace("Nashik", 73.79, 19.99);
+
+    @Test
+    void sessionsDoNotShareContext() {
+        ConversationContextStore store = new ConversationContextStore(100, 30);
+        store.remember("car-1", PUNE);
+        store.remember("car-2", NASHIK);
+        store.rememberPosition("car-1", new double[]{73.80, 18.50});
+
+        assertEquals(PUNE, store.get("car-1").lastPlace());
+        assertEquals(NASHIK, store.get("car-2").lastPlace());
+        assertNull(store.get("car-2").position(60_000));
+        assertNull(store.get("car-3"));
+        assertNull(store.get(null));
+    }
+
+    @Test
+    void mostRecentPlaceComesFirstWithoutDuplicates() {
+        ConversationContextStore store = new ConversationContextStore(100, 30);
+        store.remember("car-1", PUNE);
+        store.remember("car-1", NASHIK);
+        assertEquals(NASHIK, store.get("car-1").lastPlace());
+
+        store.remember("car-1", new ResolvedPlace("pune", 73.85, 18.52));
+        assertEquals("pune", store.get("car-1").lastPlace().name());
+    }
+
+    @Test
+    void positionIsOnlyUsedWhileFresh() throws InterruptedException {
+        ConversationContextStore store = new ConversationContextStore(100, 30);
+        store.rememberPosition("car-1", new double[]{73.80, 18.50});
+        assertArrayEquals(new double[]{73.80, 18.50}, store.get("car-1").position(60_000));
+
+        Thread.sleep(20);
+        assertNull(store.get("car-1").position(10));
+    }
+
+    @Test
+    void idleSessionsExpire() {
+        // A zero idle timeout expires every session as soon as it is written
+        ConversationContextStore store = new ConversationContextStore(100, 0);
+        store.remember("car-1", PUNE);
+        assertNull(store.get("car-1"));
+    }
+}
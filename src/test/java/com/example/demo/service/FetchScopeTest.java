@@ -0,0 +1,105 @@
+package com.example.demo.service;
+
+import com.example.demo.cluster.LoopbackClusterBus;
+import com.example.demo.entity.CurrentWeather;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FetchScopeTest {
+
+    private final AtomicInteger geocodes = new AtomicInteger();
+    private final AtomicInteger weatherCalls = new AtomicInteger();
+    private final ExecutorService executor = Executors.newFixedThreadPool(4);
+
+    private final GeocodeService geocodeService = new GeocodeService(new LoopbackClusterBus.Network().join("test"), 1000, 1000) {
+        @Override
+        public double[] geocode(String placeName) {
+            geocodes.incrementAndGet();
+            if (placeName.equals("Atlantis")) throw new IllegalStateException("Place not found: Atlantis");
+            sleep(50);
+            return new double[]{73.85, 18.52};
+        }
+    };
+    private final WeatherService weatherService = new WeatherService(geocodeService, new LoopbackClusterBus.Network().join("test"), 1000, 1000) {
+        @Override
+        public CurrentWeather getWeatherAt(double[] coords) {
+            weatherCalls.incrementAndGet();
+            return new CurrentWeather(25, 5, 0);
+        }
+    };
+    private final FetchScope scope = new FetchScope(geocodeService, weatherService, null, null, executor);
+
+    @AfterEach
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void concurrentRequestsForOnePlaceShareOneLookup() throws Exception {
+        List<CompletableFuture<double[]>> lookups = new ArrayList<>();
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            // Spelled differently, normalized to the same key
+            String place = i % 2 == 0 ? "Pune" : " pune ";
+            Thread t = new Thread(() -> {
+                CompletableFuture<double[]> lookup = scope.geocode(place);
+                synchronized (lookups) {
+                    lookups.add(lookup);
+                }
+            });
+            threads.add(t);
+            t.start();
+        }
+        for (Thread t : threads) t.join();
+
+        for (CompletableFuture<double[]> lookup : lookups) {
+            assertArrayEquals(new double[]{73.85, 18.52}, lookup.join());
+        }
+        assertEquals(1, geocodes.get());
+        assertEquals(8L, scope.requestedCount());
+        assertEquals(1, scope.uniqueCount());
+    }
+
+    @Test
+    void weatherReusesThePlacesGeocode() {
+        scope.geocode("Pune").join();
+        assertEquals(25.0, scope.weather("Pune").join().temperature());
+        assertEquals(25.0, scope.weather("Pune").join().temperature());
+
+        assertEquals(1, geocodes.get());
+        assertEquals(1, weatherCalls.get());
+        assertEquals(2, scope.uniqueCount(), "one geocode and one weather lookup");
+    }
+
+    @Test
+    void failureIsSharedAndKeepsItsCause() {
+        CompletionException first = assertThrows(CompletionException.class, () -> scope.geocode("Atlantis").join());
+        CompletionException second = assertThrows(CompletionException.class, () -> scope.weather("Atlantis").join());
+
+        assertTrue(first.getCause() instanceof IllegalStateException, String.valueOf(first.getCause()));
+        assertTrue(second.getCause() instanceof IllegalStateException, String.valueOf(second.getCause()));
+        assertEquals(1, geocodes.get());
+        assertEquals(0, weatherCalls.get());
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
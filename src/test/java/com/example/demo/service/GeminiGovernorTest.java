@@ -0,0 +1,71 @@
+package com.example.demo.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GeminiGovernorTest {
+
+    @Test
+    void fullBackgroundQueueDoesNotShedInteractiveRequests() {
+        GeminiGovernor governor = new GeminiGovernor(1, 1, 1, 60_000, 60_000);
+
+        assertTrue(governor.admit(GeminiGovernor.Lane.INTERACTIVE).isDone(), "free slot is granted at once");
+        CompletableFuture<Void> queuedBackground = governor.admit(GeminiGovernor.Lane.BACKGROUND);
+        CompletableFuture<Void> shedBackground = governor.admit(GeminiGovernor.Lane.BACKGROUND);
+        CompletableFuture<Void> queuedInteractive = governor.admit(GeminiGovernor.Lane.INTERACTIVE);
+
+        assertFalse(queuedBackground.isDone());
+        assertTrue(shedBackground.isCompletedExceptionally(), "background lane is full");
+        assertFalse(queuedInteractive.isDone(), "interactive lane has its own room");
+
+        // The interactive waiter is admitted before the background one that queued earlier
+        governor.release();
+        assertTrue(queuedInteractive.isDone());
+        assertFalse(queuedBackground.isDone());
+    }
+
+    @Test
+    void interactiveCallDoesNotJoinBackgroundCall() {
+        GeminiGovernor governor = new GeminiGovernor(4, 8, 8, 60_000, 60_000);
+        AtomicInteger upstreamCalls = new AtomicInteger();
+        CompletableFuture<String> upstream = new CompletableFuture<>();
+
+        governor.callAsync("same prompt", GeminiGovernor.Lane.BACKGROUND, () -> {
+            upstreamCalls.incrementAndGet();
+            return upstream;
+        });
+        governor.callAsync("same prompt", GeminiGovernor.Lane.INTERACTIVE, () -> {
+            upstreamCalls.incrementAndGet();
+            return upstream;
+        });
+
+        assertEquals(2, upstreamCalls.get());
+    }
+
+    @Test
+    void backgroundCallJoinsInteractiveCall() {
+        GeminiGovernor governor = new GeminiGovernor(4, 8, 8, 60_000, 60_000);
+        AtomicInteger upstreamCalls = new AtomicInteger();
+        CompletableFuture<String> upstream = new CompletableFuture<>();
+
+        CompletableFuture<String> interactive = governor.callAsync("same prompt", GeminiGovernor.Lane.INTERACTIVE, () -> {
+            upstreamCalls.incrementAndGet();
+            return upstream;
+        });
+        CompletableFuture<String> background = governor.callAsync("same prompt", GeminiGovernor.Lane.BACKGROUND, () -> {
+            upstreamCalls.incrementAndGet();
+            return upstream;
+        });
+        upstream.complete("answer");
+
+        assertEquals(1, upstreamCalls.get());
+        assertEquals("answer", interactive.join());
+        assertEquals("answer", background.join());
+    }
+}
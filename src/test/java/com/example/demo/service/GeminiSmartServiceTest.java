@@ -0,0 +1,78 @@
+package com.example.demo.service;
+
+import com.example.demo.cluster.LoopbackClusterBus;
+import com.example.demo.entity.IntentData;
+import com.example.demo.entity.ResolvedPlace;
+import com.example.demo.intent.IntentPlanner;
+import com.example.demo.journal.QueryJournal;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class GeminiSmartServiceTest {
+
+    private static final ResolvedPlace PUNE = new ResolvedPlace("Pune", Double.NaN, Double.NaN);
+
+    private final AtomicInteger geminiCalls = new AtomicInteger();
+    private final GeminiService gemini = new GeminiService(null, new GeminiGovernor(4, 64, 64, 8000, 30000)) {
+        @Override
+        public String askGemini(String prompt) {
+            geminiCalls.incrementAndGet();
+            return prompt.contains("navigate to Pune")
+                    ? "[{\"intent\":\"route\",\"toPlace\":\"Pune\"}]"
+                    : "[{\"intent\":\"general\",\"response\":\"ok\"}]";
+        }
+    };
+    private final GeocodeService geocodeService = new GeocodeService(new LoopbackClusterBus.Network().join("test"), 1000, 1000);
+    // No handlers: the tests are about classification, not about answering
+    private final IntentPlanner planner = new IntentPlanner(List.of(), geocodeService, null, null, null, 1, 1);
+    private final GeminiSmartService service = new GeminiSmartService(gemini, geocodeService,
+            new ConversationContextStore(100, 30), planner, new IntentCache(false, 16, 60),
+            new QueryJournal(false, "unused", 16, 1, 60, 1, 1000));
+
+    @AfterEach
+    void shutdown() {
+        planner.shutdown();
+    }
+
+    @Test
+    void weatherThereAfterNavigatingResolvesToTheDestination() {
+        service.handleQuery("navigate to Pune", "car-1");
+        assertEquals(1, geminiCalls.get());
+
+        ResolvedPlace lastPlace = service.lastPlaceFor("car-1");
+        assertEquals("Pune", lastPlace.name());
+        List<IntentData> intents = service.resolveFollowUp("What's the weather there?", lastPlace);
+        assertEquals(1, intents.size());
+        assertEquals("weather", intents.get(0).getIntent());
+        assertEquals("Pune", intents.get(0).getPlace());
+
+        service.handleQuery("what's the weather there?", "car-1");
+        assertEquals(1, geminiCalls.get(), "the follow-up was answered without Gemini");
+    }
+
+    @Test
+    void partiallyCoveredFollowUpGoesToGemini() {
+        assertNull(service.resolveFollowUp("weather there and play some music", PUNE));
+        assertNull(service.resolveFollowUp("can I reach a charger there with 20%", PUNE));
+        assertEquals(2, service.resolveFollowUp("any chargers and hotels near there?", PUNE).size());
+
+        service.handleQuery("navigate to Pune", "car-1");
+        service.handleQuery("weather there and play some music", "car-1");
+        assertEquals(2, geminiCalls.get());
+    }
+
+    @Test
+    void vehiclesDoNotShareFollowUpContext() {
+        service.handleQuery("navigate to Pune", "car-1");
+        assertNull(service.lastPlaceFor("car-2"));
+
+        service.handleQuery("what's the weather there?", "car-2");
+        assertEquals(2, geminiCalls.get(), "car-2 never mentioned a place, so Gemini has to classify");
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.demo.service;
+
+import com.example.demo.cluster.LoopbackClusterBus;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class GeocodeServiceTest {
+
+    private static final double[] PUNE = {73.85, 18.52};
+
+    private final LoopbackClusterBus.Network network = new LoopbackClusterBus.Network();
+    private final GeocodeService a = new GeocodeService(network.join("a"), 1000, 1000);
+    private final GeocodeService b = new GeocodeService(network.join("b"), 1000, 1000);
+
+    @Test
+    void storedCoordinatesReachTheOtherNodes() {
+        a.store(" Pune ", PUNE);
+        assertArrayEquals(PUNE, b.getCached("pune"));
+    }
+
+    @Test
+    void rememberedCoordinatesStayOnThisNode() {
+        a.remember("Pune", PUNE);
+        assertArrayEquals(PUNE, a.getCached("pune"));
+        assertNull(b.getCached("pune"));
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.demo.service;
+
+import com.example.demo.cluster.LoopbackClusterBus;
+import com.example.demo.entity.CurrentWeather;
+import com.example.demo.entity.RouteEstimate;
+import com.example.demo.telemetry.TelemetryService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ReachabilityServiceTest {
+
+    private static final String ASK_FOR_LEVEL = "I don't know your current battery level";
+
+    private Path capture;
+    private TelemetryService telemetry;
+    private ReachabilityService service;
+    private FetchScope scope;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        // This node's adapter reports about 50% charge for car-1
+        capture = Files.createTempFile("obd-capture", ".txt");
+        Files.writeString(capture, String.join("\r", "7E8 03 41 5B 80", ">"), StandardCharsets.US_ASCII);
+        telemetry = new TelemetryService("replay", "", 0, List.of(), List.of(), 100,
+                capture.toString(), false, 0, 16, "0x5C", "car-1");
+        telemetry.start();
+        long deadline = System.currentTimeMillis() + 5000;
+        while (telemetry.getLatestState().framesParsed() == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+
+        GeocodeService geocode = new GeocodeService(new LoopbackClusterBus.Network().join("test"), 1000, 1000) {
+            @Override
+            public double[] geocode(String placeName) {
+                return placeName.equals("Pune") ? new double[]{73.85, 18.52} : new double[]{73.79, 19.99};
+            }
+        };
+        WeatherService weather = new WeatherService(geocode, new LoopbackClusterBus.Network().join("test"), 1000, 1000) {
+            @Override
+            public CurrentWeather getWeatherAt(double[] coords) {
+                return new CurrentWeather(25, 5, 0);
+            }
+        };
+        RouteService route = new RouteService(geocode, 1000, 1000) {
+            @Override
+            public RouteEstimate getRouteEstimate(double[] fromCoords, double[] toCoords) {
+                return new RouteEstimate(210, 4);
+            }
+        };
+        scope = new FetchScope(geocode, weather, route, null, Runnable::run);
+        service = new ReachabilityService(new ReachabilityEngine(40.5, 140, 10, 1.25), geocode, route, weather,
+                null, telemetry);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        telemetry.stop();
+        Files.deleteIfExists(capture);
+    }
+
+    @Test
+    void attachedVehicleFallsBackOnTelemetry() {
+        String reply = service.canReach("Pune", "Nashik", null, "car-1", scope);
+        assertTrue(reply.contains("with 50% charge"), reply);
+    }
+
+    @Test
+    void otherVehiclesAreAskedForTheirBatteryLevel() {
+        assertTrue(service.canReach("Pune", "Nashik", null, "car-2", scope).startsWith(ASK_FOR_LEVEL));
+        assertTrue(service.reachableChargers("Nashik", null, "car-2", null, scope).startsWith(ASK_FOR_LEVEL));
+    }
+
+    @Test
+    void sharedRepliesNeverUseThisNodesTelemetry() {
+        // Batch replies carry no vehicle id
+        assertTrue(service.canReach("Pune", "Nashik", null, null, scope).startsWith(ASK_FOR_LEVEL));
+    }
+
+    @Test
+    void givenBatteryLevelWinsForAnyVehicle() {
+        String reply = service.canReach("Pune", "Nashik", 90.0, "car-2", scope);
+        assertTrue(reply.contains("with 90% charge"), reply);
+    }
+}
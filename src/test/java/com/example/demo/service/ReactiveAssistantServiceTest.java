@@ -0,0 +1,54 @@
+package com.example.demo.service;
+
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ReactiveAssistantServiceTest {
+
+    private final ConcurrentMap<String, Mono<String>> inFlight = new ConcurrentHashMap<>();
+    private final AtomicInteger fetches = new AtomicInteger();
+
+    private Mono<String> slowFetch(String value) {
+        return Mono.defer(() -> {
+            fetches.incrementAndGet();
+            return Mono.delay(Duration.ofMillis(50)).thenReturn(value);
+        });
+    }
+
+    @Test
+    void concurrentMissesShareOneFetch() {
+        List<String> results = Flux.range(0, 20)
+                .flatMap(i -> ReactiveAssistantService.singleFlight(inFlight, "pune", () -> slowFetch("18.52,73.85")))
+                .collectList()
+                .block(Duration.ofSeconds(5));
+
+        assertEquals(20, results.size());
+        assertTrue(results.stream().allMatch("18.52,73.85"::equals));
+        assertEquals(1, fetches.get());
+        assertTrue(inFlight.isEmpty(), "finished fetches are dropped");
+    }
+
+    @Test
+    void aFailedFetchIsRetriedByTheNextCaller() {
+        Mono<String> failing = ReactiveAssistantService.singleFlight(inFlight, "pune",
+                () -> Mono.error(new IllegalStateException("Nominatim down")));
+        assertThrows(IllegalStateException.class, () -> failing.block(Duration.ofSeconds(5)));
+        assertTrue(inFlight.isEmpty());
+
+        String value = ReactiveAssistantService.singleFlight(inFlight, "pune", () -> slowFetch("18.52,73.85"))
+                .block(Duration.ofSeconds(5));
+        assertEquals("18.52,73.85", value);
+        assertEquals(1, fetches.get());
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.demo.service;
+
+import com.example.demo.entity.RoutePath;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RouteWeatherServiceTest {
+
+    private static final double HOUR = 3600;
+
+    @Test
+    void longDriveIsCappedAtMaxPointsWithBothEnds() {
+        // Every 30 minutes over a 10 hour drive would be 21 samples
+        RouteWeatherService service = new RouteWeatherService(null, null, null, 30, 6);
+        RoutePath path = straightRoute(11, 10 * HOUR);
+
+        List<RouteWeatherService.Sample> samples = service.sample(path);
+
+        assertTrue(samples.size() <= 6, samples.size() + " samples");
+        assertEnds(path, samples);
+        for (int i = 1; i < samples.size(); i++) {
+            assertTrue(samples.get(i).etaSeconds() > samples.get(i - 1).etaSeconds(), "sample " + i);
+        }
+    }
+
+    @Test
+    void shortDriveIsSampledEveryInterval() {
+        RouteWeatherService service = new RouteWeatherService(null, null, null, 30, 24);
+        RoutePath path = straightRoute(5, 2 * HOUR);
+
+        List<RouteWeatherService.Sample> samples = service.sample(path);
+
+        assertEquals(5, samples.size(), "departure, every half hour and arrival");
+        assertEquals(HOUR / 2, samples.get(1).etaSeconds());
+        assertEnds(path, samples);
+    }
+
+    @Test
+    void driveShorterThanOneIntervalStillHasBothEnds() {
+        RouteWeatherService service = new RouteWeatherService(null, null, null, 30, 24);
+        RoutePath path = straightRoute(3, 600);
+
+        List<RouteWeatherService.Sample> samples = service.sample(path);
+
+        assertEquals(2, samples.size());
+        assertEnds(path, samples);
+    }
+
+    @Test
+    void singlePointRouteIsDepartureAndArrival() {
+        RouteWeatherService service = new RouteWeatherService(null, null, null, 30, 24);
+        RoutePath path = new RoutePath(new double[]{73.85}, new double[]{18.52}, new double[]{0}, 0, 0);
+
+        assertEquals(2, service.sample(path).size());
+        assertEnds(path, service.sample(path));
+    }
+
+    private static void assertEnds(RoutePath path, List<RouteWeatherService.Sample> samples) {
+        RouteWeatherService.Sample first = samples.get(0);
+        RouteWeatherService.Sample last = samples.get(samples.size() - 1);
+        int end = path.size() - 1;
+        assertEquals(0.0, first.etaSeconds());
+        assertEquals(path.lons()[0], first.lon());
+        assertEquals(path.lats()[0], first.lat());
+        assertEquals(path.etaSeconds()[end], last.etaSeconds());
+        assertEquals(path.lons()[end], last.lon(), 1e-9);
+        assertEquals(path.lats()[end], last.lat(), 1e-9);
+    }
+
+    // Evenly spaced points heading north from Pune, driven at a constant speed
+    private static RoutePath straightRoute(int points, double totalSeconds) {
+        double[] lons = new double[points];
+        double[] lats = new double[points];
+        double[] eta = new double[points];
+        for (int i = 0; i < points; i++) {
+            lons[i] = 73.85;
+            lats[i] = 18.52 + i * 0.1;
+            eta[i] = totalSeconds * i / (points - 1);
+        }
+        return new RoutePath(lons, lats, eta, (points - 1) * 11.1, totalSeconds / HOUR);
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.demo.service;
+
+import com.example.demo.cluster.LoopbackClusterBus;
+import com.example.demo.entity.HourlyForecast;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class WeatherServiceTest {
+
+    private static final String PUNE = """
+            {"latitude":18.5,"longitude":73.9,"hourly":{"time":[1760000400,1760004000],
+             "temperature_2m":[24.5,26.0],"precipitation_probability":[10,60],
+             "precipitation":[0.0,1.2],"weather_code":[1,61]}}""";
+    private static final String NASHIK = """
+            {"latitude":20.0,"longitude":73.8,"hourly":{"time":[1760000400,1760004000],
+             "temperature_2m":[21.0,null],"weathercode":[3,3]}}""";
+
+    private final WeatherService weatherService =
+            new WeatherService(null, new LoopbackClusterBus.Network().join("test"), 1000, 1000);
+
+    @Test
+    void singleLocationReplyIsAnObject() {
+        List<HourlyForecast> forecasts = weatherService.parseHourlyForecasts(PUNE);
+
+        assertEquals(1, forecasts.size());
+        HourlyForecast pune = forecasts.get(0);
+        assertArrayEquals(new long[]{1760000400, 1760004000}, pune.epochSeconds());
+        assertArrayEquals(new double[]{24.5, 26.0}, pune.temperatures());
+        assertArrayEquals(new int[]{10, 60}, pune.precipitationProbability());
+        assertArrayEquals(new double[]{0.0, 1.2}, pune.precipitationMm());
+        assertArrayEquals(new int[]{1, 61}, pune.weathercodes());
+    }
+
+    @Test
+    void multiLocationReplyIsAnArrayInRequestOrder() {
+        List<HourlyForecast> forecasts = weatherService.parseHourlyForecasts("[" + PUNE + "," + NASHIK + "]");
+
+        assertEquals(2, forecasts.size());
+        assertEquals(24.5, forecasts.get(0).temperatures()[0]);
+        HourlyForecast nashik = forecasts.get(1);
+        assertEquals(21.0, nashik.temperatures()[0]);
+        assertEquals(Double.NaN, nashik.temperatures()[1], "a missing hour stays unknown");
+        // Older field name, and no precipitation in the reply
+        assertArrayEquals(new int[]{3, 3}, nashik.weathercodes());
+        assertArrayEquals(new int[]{0, 0}, nashik.precipitationProbability());
+    }
+}
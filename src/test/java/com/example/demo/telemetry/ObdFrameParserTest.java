@@ -0,0 +1,52 @@
+package com.example.demo.telemetry;
+
+import com.example.demo.entity.VehicleState;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ObdFrameParserTest {
+
+    private final VehicleStateHolder state = new VehicleStateHolder();
+    private final ObdFrameParser parser = new ObdFrameParser(state, 0x5C);
+
+    @Test
+    void decodesSpacedCompactAndHeaderedResponses() {
+        parse("41 0D 3C");
+        assertEquals(60.0, state.snapshot().speedKmh());
+
+        parse("410D50");
+        assertEquals(80.0, state.snapshot().speedKmh());
+
+        parse("7E8 03 41 5B FF");
+        assertEquals(100.0, state.snapshot().stateOfChargePercent(), 1e-9);
+
+        // Headers on, spaces off: the odd digit count gives the 11-bit header away
+        parse("7E803415C5A");
+        assertEquals(50.0, state.snapshot().batteryTempC());
+        assertEquals(4, state.snapshot().framesParsed());
+        assertEquals(0, parser.ignored());
+    }
+
+    @Test
+    void ignoresAdapterChatterAndUnknownPids() {
+        parse("ELM327 v1.5");
+        parse("SEARCHING...");
+        parse("NO DATA");
+        parse("41 0C 1A F8");
+        parse("41 0D 3");
+
+        VehicleState snapshot = state.snapshot();
+        assertEquals(5, parser.ignored());
+        assertEquals(0, snapshot.framesParsed());
+        assertTrue(Double.isNaN(snapshot.speedKmh()));
+    }
+
+    private void parse(String frame) {
+        byte[] bytes = frame.getBytes(StandardCharsets.US_ASCII);
+        parser.parse(bytes, 0, bytes.length);
+    }
+}
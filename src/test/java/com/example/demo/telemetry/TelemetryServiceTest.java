@@ -0,0 +1,60 @@
+package com.example.demo.telemetry;
+
+import com.example.demo.entity.VehicleState;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+class TelemetryServiceTest {
+
+    private Path capture;
+    private TelemetryService service;
+
+    @AfterEach
+    void tearDown() throws Exception {
+        if (service != null) service.stop();
+        if (capture != null) Files.deleteIfExists(capture);
+    }
+
+    @Test
+    void replaysAnAdapterCaptureIntoTheVehicleState() throws Exception {
+        // What an ELM327 with echo off and headers on prints while being polled
+        capture = Files.createTempFile("obd-capture", ".txt");
+        Files.writeString(capture, String.join("\r",
+                "ELM327 v1.5", ">SEARCHING...", "7E8 03 41 0D 28", ">7E8 03 41 5B 80",
+                ">7E8 03 41 5C 55", ">NO DATA", ">7E8 03 41 0D 32", ">"), StandardCharsets.US_ASCII);
+
+        service = new TelemetryService("replay", "", 0, List.of(), List.of(), 100,
+                capture.toString(), false, 0, 16, "0x5C", "car-1");
+        service.start();
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!drained(service.getStatus()) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+
+        VehicleState state = service.getLatestState();
+        assertEquals(50.0, state.speedKmh(), "last speed frame wins");
+        assertEquals(128 * 100.0 / 255.0, state.stateOfChargePercent(), 1e-9);
+        assertEquals(45.0, state.batteryTempC());
+        assertEquals(4, state.framesParsed());
+
+        Map<String, Object> status = service.getStatus();
+        assertFalse((Boolean) status.get("running"), "a non-looping replay ends");
+        assertEquals(3L, status.get("framesIgnored"));
+        assertEquals(0, status.get("pollCommands"), "only a serial adapter is polled");
+    }
+
+    // The reader has hit the end of the capture and the parser has consumed every frame
+    private static boolean drained(Map<String, Object> status) {
+        return Boolean.FALSE.equals(status.get("running")) && Integer.valueOf(0).equals(status.get("ringBacklog"));
+    }
+}